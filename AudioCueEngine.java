@@ -0,0 +1,93 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+/**
+ * Low-latency playback for short UI sounds such as the message-sent cue.
+ *
+ * Each sound is decoded once into a {@link SoundPool} and then replayed from
+ * memory, so a cue costs no player creation. Bursts are rate-limited to one cue
+ * per {@link #MIN_INTERVAL_MS}. The pool is process-wide and lives as long as the
+ * process, so screens never create or release players themselves.
+ */
+public final class AudioCueEngine {
+
+    private static final String TAG = "AudioCueEngine";
+    private static final int MAX_STREAMS = 2;
+    private static final float VOLUME = 0.3f;
+    static final long MIN_INTERVAL_MS = 300;
+
+    private static AudioCueEngine instance;
+
+    private final Context context;
+    private final SoundPool soundPool;
+    // Resource id -> SoundPool sample id, and which samples finished decoding
+    private final SparseIntArray sampleIds = new SparseIntArray();
+    private final SparseBooleanArray loadedSamples = new SparseBooleanArray();
+    private long lastPlayedAt = -MIN_INTERVAL_MS;
+
+    private AudioCueEngine(Context context) {
+        this.context = context.getApplicationContext();
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_ASSISTANCE_SONIFICATION)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_STREAMS)
+                .setAudioAttributes(attributes)
+                .build();
+        soundPool.setOnLoadCompleteListener((pool, sampleId, status) -> {
+            synchronized (AudioCueEngine.this) {
+                if (status == 0) {
+                    loadedSamples.put(sampleId, true);
+                } else {
+                    Log.w(TAG, "Failed to decode sample " + sampleId + ", status " + status);
+                }
+            }
+        });
+    }
+
+    public static synchronized AudioCueEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new AudioCueEngine(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Starts decoding a sound so the first cue doesn't wait for it. Safe to call
+     * repeatedly; each resource is only loaded once.
+     */
+    public synchronized void preload(int soundResource) {
+        if (sampleIds.indexOfKey(soundResource) < 0) {
+            sampleIds.put(soundResource, soundPool.load(context, soundResource, 1));
+        }
+    }
+
+    /**
+     * Plays a cue unless one was played within the last {@link #MIN_INTERVAL_MS}.
+     * A cue whose sound is still decoding is skipped rather than delayed.
+     */
+    public synchronized void play(int soundResource) {
+        preload(soundResource);
+
+        long now = SystemClock.uptimeMillis();
+        if (now - lastPlayedAt < MIN_INTERVAL_MS) {
+            return;
+        }
+
+        int sampleId = sampleIds.get(soundResource);
+        if (!loadedSamples.get(sampleId)) {
+            return;
+        }
+
+        lastPlayedAt = now;
+        soundPool.play(sampleId, VOLUME, VOLUME, 1, 0, 1f);
+    }
+}
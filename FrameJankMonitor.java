@@ -0,0 +1,266 @@
+package com.philonet.ai;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records frame durations on a screen, tagged by what the screen was doing.
+ *
+ * Frame times come from {@link FrameMetrics} (API 24+) and are bucketed into one
+ * histogram per {@link UiState}. A watchdog thread checks that the main thread
+ * keeps processing messages and, when it stalls past {@link #STALL_THRESHOLD_MS},
+ * samples its stack so the worst stalls can be traced to code. Aggregates go out
+ * through {@link PerformanceReporter} on {@link #flush}.
+ */
+public class FrameJankMonitor {
+
+    private static final String TAG = "FrameJankMonitor";
+
+    static final long JANK_FRAME_MS = 32;
+    static final long STALL_THRESHOLD_MS = 250;
+    private static final long STALL_SAMPLE_INTERVAL_MS = 5000;
+    // Realtime messages that count as a burst when they arrive within the window
+    static final int SOCKET_BURST_MESSAGES = 3;
+    static final long SOCKET_BURST_WINDOW_MS = 1000;
+
+    /**
+     * What the screen is doing. When several are active, the last one declared wins.
+     */
+    public enum UiState {
+        IDLE, INITIAL_LOAD, PAGINATION_PREPEND, SOCKET_BURST, SUMMARY_RENDER, SEND
+    }
+
+    private final String screen;
+    private final Looper watchedLooper;
+    private final Handler mainHandler;
+    private final Map<UiState, Long> activeUntil = new EnumMap<>(UiState.class);
+    private final Map<UiState, LatencyHistogram> frameHistograms = new EnumMap<>(UiState.class);
+    private final Map<UiState, Integer> stallCounts = new EnumMap<>(UiState.class);
+
+    private Window window;
+    private Object frameMetricsListener;
+    private HandlerThread watchdogThread;
+    private Handler watchdogHandler;
+    // Watchdog thread only: ticks posted to the main thread, and when the last one was
+    private int ticksPosted;
+    private long tickPostedAt;
+    private boolean tickReported;
+    // Main thread only writes
+    private volatile int ticksRun;
+    private long lastStallSampleAt;
+    // Arrival times of the last SOCKET_BURST_MESSAGES - 1 realtime messages, as a ring
+    private final long[] socketMessageTimes = new long[SOCKET_BURST_MESSAGES - 1];
+    private int socketMessageCount;
+
+    public FrameJankMonitor(String screen) {
+        this(screen, Looper.getMainLooper());
+    }
+
+    /**
+     * Watches {@code watchedLooper} instead of the main looper, for the benchmarks.
+     */
+    FrameJankMonitor(String screen, Looper watchedLooper) {
+        this.screen = screen;
+        this.watchedLooper = watchedLooper;
+        this.mainHandler = new Handler(watchedLooper);
+        for (UiState state : UiState.values()) {
+            frameHistograms.put(state, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Tags frames for the next {@code windowMs} with {@code state}.
+     */
+    public synchronized void mark(UiState state, long windowMs) {
+        long until = SystemClock.uptimeMillis() + windowMs;
+        Long current = activeUntil.get(state);
+        if (current == null || current < until) {
+            activeUntil.put(state, until);
+        }
+    }
+
+    /**
+     * Counts one realtime message. Frames are tagged {@link UiState#SOCKET_BURST}
+     * only once {@link #SOCKET_BURST_MESSAGES} messages arrive within
+     * {@link #SOCKET_BURST_WINDOW_MS}; a lone message is not a burst.
+     */
+    public synchronized void onSocketMessage() {
+        long now = SystemClock.uptimeMillis();
+        int slot = socketMessageCount % socketMessageTimes.length;
+        boolean burst = socketMessageCount >= socketMessageTimes.length
+                && now - socketMessageTimes[slot] <= SOCKET_BURST_WINDOW_MS;
+        socketMessageTimes[slot] = now;
+        socketMessageCount++;
+        if (burst) {
+            mark(UiState.SOCKET_BURST, SOCKET_BURST_WINDOW_MS);
+        }
+    }
+
+    private synchronized UiState currentState() {
+        long now = SystemClock.uptimeMillis();
+        UiState current = UiState.IDLE;
+        for (Map.Entry<UiState, Long> entry : activeUntil.entrySet()) {
+            if (entry.getValue() > now && entry.getKey().ordinal() > current.ordinal()) {
+                current = entry.getKey();
+            }
+        }
+        return current;
+    }
+
+    public void start(Activity activity) {
+        if (window != null) return;
+        window = activity.getWindow();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            Window.OnFrameMetricsAvailableListener listener = (w, frameMetrics, dropCount) -> {
+                long durationMs = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION) / 1_000_000;
+                recordFrame(durationMs);
+            };
+            frameMetricsListener = listener;
+            window.addOnFrameMetricsAvailableListener(listener, mainHandler);
+        }
+        startWatchdog();
+    }
+
+    void startWatchdog() {
+        if (watchdogThread != null) return;
+        watchdogThread = new HandlerThread(TAG);
+        watchdogThread.start();
+        watchdogHandler = new Handler(watchdogThread.getLooper());
+        watchdogHandler.post(() -> {
+            // A tick removed by the last stop() never ran
+            ticksPosted = ticksRun;
+            postTick();
+        });
+    }
+
+    void stopWatchdog() {
+        if (watchdogThread == null) return;
+        mainHandler.removeCallbacks(mainTick);
+        watchdogThread.quitSafely();
+        watchdogThread = null;
+        watchdogHandler = null;
+    }
+
+    public void stop() {
+        if (window == null) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && frameMetricsListener != null) {
+            try {
+                window.removeOnFrameMetricsAvailableListener(
+                        (Window.OnFrameMetricsAvailableListener) frameMetricsListener);
+            } catch (IllegalArgumentException ignored) {
+                // Already removed with the window
+            }
+        }
+        frameMetricsListener = null;
+        window = null;
+        stopWatchdog();
+    }
+
+    private synchronized void recordFrame(long durationMs) {
+        frameHistograms.get(currentState()).record(durationMs);
+    }
+
+    // Posted to the main thread; if it doesn't run in time the main thread is stalled
+    private final Runnable mainTick = () -> ticksRun++;
+
+    // Watchdog thread
+    private void postTick() {
+        Handler handler = watchdogHandler;
+        if (handler == null) return;
+        ticksPosted++;
+        tickPostedAt = SystemClock.uptimeMillis();
+        tickReported = false;
+        mainHandler.post(mainTick);
+        handler.postDelayed(this::checkMainThread, STALL_THRESHOLD_MS);
+    }
+
+    // Watchdog thread
+    private void checkMainThread() {
+        Handler handler = watchdogHandler;
+        if (handler == null) return;
+        if (ticksRun == ticksPosted) {
+            postTick();
+            return;
+        }
+        // Still queued a threshold after it was posted; count the stall once and keep waiting
+        long stalledMs = SystemClock.uptimeMillis() - tickPostedAt;
+        if (!tickReported && stalledMs >= STALL_THRESHOLD_MS) {
+            tickReported = true;
+            onStall(stalledMs);
+        }
+        handler.postDelayed(this::checkMainThread, STALL_THRESHOLD_MS);
+    }
+
+    /**
+     * Stalls counted since the last {@link #flush}, in every UI state.
+     */
+    synchronized int getStallCount() {
+        int total = 0;
+        for (int count : stallCounts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private void onStall(long stalledMs) {
+        UiState state = currentState();
+        long now = SystemClock.uptimeMillis();
+        synchronized (this) {
+            Integer count = stallCounts.get(state);
+            stallCounts.put(state, count == null ? 1 : count + 1);
+            if (now - lastStallSampleAt < STALL_SAMPLE_INTERVAL_MS) {
+                return;
+            }
+            lastStallSampleAt = now;
+        }
+
+        StackTraceElement[] stack = watchedLooper.getThread().getStackTrace();
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, 12); i++) {
+            trace.append("\n    at ").append(stack[i]);
+        }
+        Log.w(TAG, "Main thread stalled " + stalledMs + "ms during " + state + trace);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("screen", screen);
+        params.put("ui_state", state.name().toLowerCase(Locale.ROOT));
+        params.put("stall_ms", stalledMs);
+        params.put("top_frame", stack.length > 0 ? stack[0].toString() : "");
+        PerformanceReporter.report("main_thread_stall", params);
+    }
+
+    /**
+     * Reports the per-state frame histograms and stall counts, then resets them.
+     */
+    public synchronized void flush() {
+        for (Map.Entry<UiState, LatencyHistogram> entry : frameHistograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) continue;
+
+            Map<String, Object> dimensions = new HashMap<>();
+            dimensions.put("screen", screen);
+            dimensions.put("ui_state", entry.getKey().name().toLowerCase(Locale.ROOT));
+            dimensions.put("jank_frames", histogram.countAbove(JANK_FRAME_MS));
+            Integer stalls = stallCounts.get(entry.getKey());
+            dimensions.put("stalls", stalls != null ? stalls : 0);
+
+            Log.d(TAG, screen + " " + entry.getKey() + " frames " + histogram);
+            PerformanceReporter.reportHistogram("frame_time", dimensions, histogram);
+            histogram.reset();
+        }
+        stallCounts.clear();
+    }
+}
@@ -0,0 +1,284 @@
+package com.philonet.ai;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho–Corasick matcher over a set of highlighted phrases.
+ *
+ * Built once per highlight set, it finds every occurrence of every phrase in a
+ * single pass over the text, so the cost no longer grows with the number of
+ * highlights. Matches are returned as merged, sorted ranges ready to be applied
+ * as spans.
+ *
+ * States near the root, where the scan spends most of its time, are compiled
+ * into a transition table over the characters the phrases use, so a step from
+ * them is one lookup. Deeper states keep only their own trie edges and fall back
+ * along failure links until a table row answers; a full table would need a row
+ * per phrase character and grows to megabytes with a thousand highlights.
+ * Characters outside the alphabet go straight back to the root.
+ */
+public final class HighlightMatcher {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_RANGES = new int[0];
+    private static final int ASCII = 128;
+    // States shallower than this get a full table row
+    private static final int DENSE_DEPTH = 3;
+
+    // Trie edges per node while building, kept as small parallel arrays
+    private char[][] edgeChars;
+    private int[][] edgeTargets;
+    private int[] edgeCounts;
+    private int[] depth;
+    private int[] fail;
+    // Length of the longest phrase that ends at this node, via suffix links
+    private int[] matchLength;
+    private int nodeCount;
+
+    // Column of each phrase character in the table, -1 if no phrase uses it
+    private final int[] asciiColumns = new int[ASCII];
+    private char[] otherChars = new char[0];
+    private int columns;
+    // Table row of each shallow state, -1 for deep ones
+    private int[] denseRows;
+    // rows x columns: next node for every shallow state and character
+    private int[] transitions;
+    // Edges of deep states: node's edges are [sparseStart[node], sparseStart[node + 1])
+    private int[] sparseStart;
+    private char[] sparseChars;
+    private int[] sparseTargets;
+
+    private HighlightMatcher(int capacity) {
+        edgeChars = new char[capacity][];
+        edgeTargets = new int[capacity][];
+        edgeCounts = new int[capacity];
+        depth = new int[capacity];
+        fail = new int[capacity];
+        matchLength = new int[capacity];
+        nodeCount = 1;
+    }
+
+    public static HighlightMatcher build(List<String> patterns) {
+        int capacity = 1;
+        for (String pattern : patterns) {
+            if (pattern != null) {
+                capacity += pattern.length();
+            }
+        }
+
+        HighlightMatcher matcher = new HighlightMatcher(capacity);
+        for (String pattern : patterns) {
+            if (pattern != null && !pattern.isEmpty()) {
+                matcher.insert(pattern);
+            }
+        }
+        matcher.buildFailureLinks();
+        matcher.buildTransitions();
+        return matcher;
+    }
+
+    public boolean isEmpty() {
+        return nodeCount == 1;
+    }
+
+    /**
+     * Finds all phrase occurrences in {@code text}.
+     *
+     * @return flattened [start, end) pairs, sorted by start, with overlapping or
+     * touching ranges merged
+     */
+    public int[] findRanges(CharSequence text) {
+        if (isEmpty() || text.length() == 0) {
+            return NO_RANGES;
+        }
+
+        // Ends are emitted in increasing order, so a stack is enough to merge
+        int[] ranges = new int[16];
+        int size = 0;
+        int state = ROOT;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int column = columnOf(c);
+            state = column == -1 ? ROOT : next(state, c, column);
+
+            int length = matchLength[state];
+            if (length > 0) {
+                int start = i + 1 - length;
+                int end = i + 1;
+                while (size > 0 && ranges[size - 1] >= start) {
+                    start = Math.min(start, ranges[size - 2]);
+                    size -= 2;
+                }
+                if (size + 2 > ranges.length) {
+                    ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                }
+                ranges[size++] = start;
+                ranges[size++] = end;
+            }
+        }
+
+        return Arrays.copyOf(ranges, size);
+    }
+
+    private void insert(String pattern) {
+        int state = ROOT;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            int next = step(state, c);
+            if (next == -1) {
+                next = nodeCount++;
+                depth[next] = i + 1;
+                addEdge(state, c, next);
+            }
+            state = next;
+        }
+        matchLength[state] = Math.max(matchLength[state], pattern.length());
+    }
+
+    private void buildFailureLinks() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = 0; e < edgeCounts[ROOT]; e++) {
+            int child = edgeTargets[ROOT][e];
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = 0; e < edgeCounts[node]; e++) {
+                char c = edgeChars[node][e];
+                int child = edgeTargets[node][e];
+
+                int f = fail[node];
+                int target;
+                while ((target = step(f, c)) == -1 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = target == -1 || target == child ? ROOT : target;
+                matchLength[child] = Math.max(matchLength[child], matchLength[fail[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Fills the table rows of shallow states in BFS order: a missing edge goes
+     * wherever the failure link's state goes on the same character. Deep states
+     * get their edges copied into flat arrays. The trie is dropped after.
+     */
+    private void buildTransitions() {
+        Arrays.fill(asciiColumns, -1);
+        StringBuilder others = new StringBuilder();
+        int rows = 0;
+        int deepEdges = 0;
+        denseRows = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            if (depth[node] < DENSE_DEPTH) {
+                denseRows[node] = rows++;
+            } else {
+                denseRows[node] = -1;
+                deepEdges += edgeCounts[node];
+            }
+            for (int e = 0; e < edgeCounts[node]; e++) {
+                char c = edgeChars[node][e];
+                if (c < ASCII) {
+                    if (asciiColumns[c] == -1) asciiColumns[c] = columns++;
+                } else if (others.indexOf(String.valueOf(c)) == -1) {
+                    others.append(c);
+                }
+            }
+        }
+        otherChars = others.toString().toCharArray();
+        Arrays.sort(otherChars);
+        columns += otherChars.length;
+
+        // A failure link always points to a shallower state, so its row is filled first
+        transitions = new int[rows * columns];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int row = denseRows[node] * columns;
+            if (node != ROOT) {
+                System.arraycopy(transitions, denseRows[fail[node]] * columns, transitions, row, columns);
+            }
+            for (int e = 0; e < edgeCounts[node]; e++) {
+                int child = edgeTargets[node][e];
+                transitions[row + columnOf(edgeChars[node][e])] = child;
+                if (denseRows[child] != -1) {
+                    queue.add(child);
+                }
+            }
+        }
+
+        sparseStart = new int[nodeCount + 1];
+        sparseChars = new char[deepEdges];
+        sparseTargets = new int[deepEdges];
+        int edge = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            sparseStart[node] = edge;
+            if (denseRows[node] != -1) continue;
+            for (int e = 0; e < edgeCounts[node]; e++) {
+                sparseChars[edge] = edgeChars[node][e];
+                sparseTargets[edge] = edgeTargets[node][e];
+                edge++;
+            }
+        }
+        sparseStart[nodeCount] = edge;
+
+        edgeChars = null;
+        edgeTargets = null;
+        edgeCounts = null;
+        depth = null;
+    }
+
+    /**
+     * Next state from {@code state} on {@code c}, which some phrase uses.
+     */
+    private int next(int state, char c, int column) {
+        while (denseRows[state] == -1) {
+            for (int e = sparseStart[state]; e < sparseStart[state + 1]; e++) {
+                if (sparseChars[e] == c) {
+                    return sparseTargets[e];
+                }
+            }
+            state = fail[state];
+        }
+        return transitions[denseRows[state] * columns + column];
+    }
+
+    private int columnOf(char c) {
+        if (c < ASCII) {
+            return asciiColumns[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? -1 : columns - otherChars.length + index;
+    }
+
+    private int step(int state, char c) {
+        char[] chars = edgeChars[state];
+        for (int e = 0; e < edgeCounts[state]; e++) {
+            if (chars[e] == c) {
+                return edgeTargets[state][e];
+            }
+        }
+        return -1;
+    }
+
+    private void addEdge(int state, char c, int target) {
+        int count = edgeCounts[state];
+        if (edgeChars[state] == null) {
+            edgeChars[state] = new char[2];
+            edgeTargets[state] = new int[2];
+        } else if (count == edgeChars[state].length) {
+            edgeChars[state] = Arrays.copyOf(edgeChars[state], count * 2);
+            edgeTargets[state] = Arrays.copyOf(edgeTargets[state], count * 2);
+        }
+        edgeChars[state][count] = c;
+        edgeTargets[state][count] = target;
+        edgeCounts[state] = count + 1;
+    }
+}
@@ -0,0 +1,119 @@
+package com.philonet.ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket histogram for durations in milliseconds, or for payload sizes in
+ * bytes when created with {@link #forBytes()}.
+ *
+ * Buckets grow by roughly 25% each, from 1 ms to about 60 s (or 64 B to about
+ * 64 MB), so recording is a binary search and percentiles are accurate to one
+ * bucket without keeping samples. Values come back in the unit recorded.
+ * Not thread-safe; callers synchronize.
+ */
+public class LatencyHistogram {
+
+    private static final long[] UPPER_BOUNDS_MS = buildBounds(1, 60_000);
+    private static final long[] UPPER_BOUNDS_BYTES = buildBounds(64, 64L * 1024 * 1024);
+
+    private final long[] upperBounds;
+    private final long[] counts;
+    private long total;
+    private long sum;
+    private long max;
+
+    public LatencyHistogram() {
+        this(UPPER_BOUNDS_MS);
+    }
+
+    private LatencyHistogram(long[] upperBounds) {
+        this.upperBounds = upperBounds;
+        this.counts = new long[upperBounds.length + 1];
+    }
+
+    public static LatencyHistogram forBytes() {
+        return new LatencyHistogram(UPPER_BOUNDS_BYTES);
+    }
+
+    private static long[] buildBounds(long first, long last) {
+        long[] bounds = new long[128];
+        int size = 0;
+        double bound = first;
+        while (bound < last && size < bounds.length) {
+            long rounded = Math.round(bound);
+            if (size == 0 || rounded > bounds[size - 1]) {
+                bounds[size++] = rounded;
+            }
+            bound *= 1.25;
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    public void record(long valueMs) {
+        long value = Math.max(0, valueMs);
+        int index = Arrays.binarySearch(upperBounds, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        counts[index]++;
+        total++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), capped at
+     * the largest recorded value.
+     */
+    public long percentile(double percentile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return i < upperBounds.length ? Math.min(upperBounds[i], max) : max;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Number of values strictly above {@code thresholdMs}, at bucket resolution.
+     */
+    public long countAbove(long thresholdMs) {
+        long above = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long lowerBound = i == 0 ? 0 : upperBounds[i - 1];
+            if (lowerBound >= thresholdMs) {
+                above += counts[i];
+            }
+        }
+        return above;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "n=" + total + " p50=" + percentile(50) + " p90=" + percentile(90)
+                + " p99=" + percentile(99) + " max=" + max;
+    }
+}
@@ -0,0 +1,208 @@
+package com.philonet.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits an AI summary into text and markdown-table segments in a single pass.
+ *
+ * Lines are walked in place without splitting the input, delimiter rows and
+ * escaped pipes are recognised by hand, and segments are emitted in document
+ * order, so no regex is compiled and no placeholder has to be split out again.
+ */
+public final class MarkdownTableTokenizer {
+
+    public static final class Segment {
+        public final String text;
+        public final String[][] table;
+
+        private Segment(String text, String[][] table) {
+            this.text = text;
+            this.table = table;
+        }
+
+        public boolean isTable() {
+            return table != null;
+        }
+    }
+
+    private MarkdownTableTokenizer() {
+    }
+
+    public static List<Segment> tokenize(String input) {
+        if (input == null || input.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        List<List<String>> rows = null;
+        int maxColumns = 0;
+
+        int length = input.length();
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = input.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = length;
+            }
+
+            // Trim without allocating
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && input.charAt(start) <= ' ') start++;
+            while (end > start && input.charAt(end - 1) <= ' ') end--;
+
+            boolean isTableLine = end - start >= 2 && input.charAt(start) == '|' && input.charAt(end - 1) == '|';
+            if (isTableLine) {
+                if (rows == null) {
+                    rows = new ArrayList<>();
+                    maxColumns = 0;
+                }
+                if (!isDelimiterRow(input, start, end)) {
+                    List<String> cells = parseCells(input, start + 1, end - 1);
+                    maxColumns = Math.max(maxColumns, cells.size());
+                    rows.add(cells);
+                }
+            } else {
+                if (rows != null) {
+                    addTable(segments, text, rows, maxColumns);
+                    rows = null;
+                }
+                if (end > start) {
+                    text.append(input, lineStart, lineEnd).append('\n');
+                }
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        if (rows != null) {
+            addTable(segments, text, rows, maxColumns);
+        }
+        flushText(segments, text);
+
+        trimOuterText(segments);
+        return segments;
+    }
+
+    /**
+     * A row made only of pipes, dashes, colons and whitespace, e.g. |---|:--:|.
+     * Whitespace is what regex {@code \s} accepts.
+     */
+    private static boolean isDelimiterRow(String input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c != '|' && c != '-' && c != ':' && c != ' ' && (c < '\t' || c > '\r')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits the row content (outer pipes already excluded) on unescaped pipes.
+     * Escaped pipes become literal ones, and cells are trimmed.
+     *
+     * Columns follow {@code String.split}: content without a separator is one
+     * cell even if empty, and otherwise every trailing cell with no raw content
+     * at all is dropped, so "| a | b |||" has two columns.
+     */
+    private static List<String> parseCells(String input, int start, int end) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        int rawCellLength = 0;
+        // Cells up to this index had raw content; anything after is trailing empties
+        int keep = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '|' && (i == start || input.charAt(i - 1) != '\\')) {
+                cells.add(cell.toString().trim());
+                if (rawCellLength > 0) keep = cells.size();
+                cell.setLength(0);
+                rawCellLength = 0;
+            } else if (c == '\\' && i + 1 < end && input.charAt(i + 1) == '|') {
+                // Drop the escape, the pipe is appended on the next iteration
+                rawCellLength++;
+            } else {
+                cell.append(c);
+                rawCellLength++;
+            }
+        }
+
+        if (cells.isEmpty()) {
+            cells.add(cell.toString().trim());
+            return cells;
+        }
+        if (rawCellLength > 0) {
+            cells.add(cell.toString().trim());
+            return cells;
+        }
+        return cells.subList(0, keep);
+    }
+
+    /**
+     * Emits the table after any text preceding it. A block of delimiter rows only
+     * has no content, so it is dropped and the surrounding text stays one segment.
+     */
+    private static void addTable(List<Segment> segments, StringBuilder text,
+                                 List<List<String>> rows, int maxColumns) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        flushText(segments, text);
+
+        String[][] table = new String[rows.size()][maxColumns];
+        for (int i = 0; i < rows.size(); i++) {
+            List<String> row = rows.get(i);
+            for (int j = 0; j < maxColumns; j++) {
+                // Fill with empty string if column doesn't exist in original row
+                table[i][j] = j < row.size() ? row.get(j) : "";
+            }
+        }
+        segments.add(new Segment(null, table));
+    }
+
+    private static void flushText(List<Segment> segments, StringBuilder text) {
+        if (text.length() > 0) {
+            segments.add(new Segment(text.toString(), null));
+            text.setLength(0);
+        }
+    }
+
+    private static void trimOuterText(List<Segment> segments) {
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        Segment first = segments.get(0);
+        if (!first.isTable()) {
+            segments.set(0, new Segment(trimLeading(first.text), null));
+        }
+
+        int lastIndex = segments.size() - 1;
+        Segment last = segments.get(lastIndex);
+        if (!last.isTable()) {
+            String trimmed = trimTrailing(last.text);
+            if (trimmed.isEmpty()) {
+                segments.remove(lastIndex);
+            } else {
+                segments.set(lastIndex, new Segment(trimmed, null));
+            }
+        }
+    }
+
+    private static String trimLeading(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') start++;
+        return value.substring(start);
+    }
+
+    private static String trimTrailing(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ') end--;
+        return value.substring(0, end);
+    }
+}
@@ -0,0 +1,140 @@
+package com.philonet.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix index over the people who can be mentioned in a room.
+ *
+ * Every word of a name is a key, so "ann" finds both "Ann Lee" and "Mary Ann".
+ * Keys live in one sorted array; a lookup is a binary search for the first key
+ * with the prefix followed by a short forward walk, and never allocates more than
+ * the result. Adding people merges a sorted batch into the array instead of
+ * re-sorting it. Not thread safe; use from one thread.
+ */
+public class MentionIndex {
+
+    public static final class Person {
+        public final String userId;
+        public final String name;
+        public final String avatar;
+        /** Text that replaces the typed @-token, e.g. "@ann_lee". */
+        public final String mention;
+
+        public Person(String userId, String name, String avatar, String mention) {
+            this.userId = userId;
+            this.name = name;
+            this.avatar = avatar;
+            this.mention = mention;
+        }
+    }
+
+    private static final class Key implements Comparable<Key> {
+        final String word;
+        final Person person;
+
+        Key(String word, Person person) {
+            this.word = word;
+            this.person = person;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return word.compareTo(other.word);
+        }
+    }
+
+    private Key[] keys = new Key[0];
+    private final Map<String, Person> people = new HashMap<>();
+
+    public int size() {
+        return people.size();
+    }
+
+    public boolean contains(String userId) {
+        return people.containsKey(userId);
+    }
+
+    /**
+     * Adds people not indexed yet. Known user ids are skipped, so feeding the same
+     * participants again is cheap.
+     */
+    public void addAll(List<Person> added) {
+        List<Key> batch = new ArrayList<>();
+        for (Person person : added) {
+            if (person.userId == null || person.name == null || people.containsKey(person.userId)) continue;
+            people.put(person.userId, person);
+            for (String word : wordsOf(person.name)) {
+                batch.add(new Key(word, person));
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        Key[] incoming = batch.toArray(new Key[0]);
+        Arrays.sort(incoming);
+        Key[] merged = new Key[keys.length + incoming.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < keys.length && j < incoming.length) {
+            merged[k++] = keys[i].compareTo(incoming[j]) <= 0 ? keys[i++] : incoming[j++];
+        }
+        System.arraycopy(keys, i, merged, k, keys.length - i);
+        k += keys.length - i;
+        System.arraycopy(incoming, j, merged, k, incoming.length - j);
+        keys = merged;
+    }
+
+    /**
+     * Up to {@code limit} people with a name word starting with {@code prefix},
+     * in alphabetical order of the matching word. An empty prefix matches nobody.
+     */
+    public List<Person> search(String prefix, int limit) {
+        String needle = normalize(prefix);
+        if (needle.isEmpty() || limit <= 0) return new ArrayList<>(0);
+
+        // Several words of one name can match; keep each person once
+        Map<String, Person> matches = new LinkedHashMap<>();
+        for (int i = lowerBound(needle); i < keys.length && matches.size() < limit; i++) {
+            Key key = keys[i];
+            if (!key.word.startsWith(needle)) break;
+            if (!matches.containsKey(key.person.userId)) {
+                matches.put(key.person.userId, key.person);
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private int lowerBound(String needle) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].word.compareTo(needle) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<String> wordsOf(String name) {
+        List<String> words = new ArrayList<>(2);
+        for (String word : normalize(name).split("\\s+")) {
+            if (!word.isEmpty() && !words.contains(word)) words.add(word);
+        }
+        return words;
+    }
+
+    static String normalize(String text) {
+        String trimmed = text.trim();
+        if (trimmed.startsWith("@")) trimmed = trimmed.substring(1);
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,117 @@
+package com.philonet.ai;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.ListPopupWindow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @-mention lookup for the message input.
+ *
+ * Watches the @-token before the cursor, lists {@link MentionSuggester} matches
+ * in a popup under the input and replaces the token with the picked person's
+ * mention. Local matches show on the keystroke; the suggester decides whether the
+ * API is asked at all. Main thread only.
+ */
+public class MentionPopup implements TextWatcher {
+
+    private final EditText input;
+    private final MentionSuggester suggester;
+    private final ListPopupWindow popup;
+    private final ArrayAdapter<String> labels;
+
+    private final List<MentionIndex.Person> shown = new ArrayList<>();
+    private int tokenStart = -1;
+    private String token;
+    private boolean replacing;
+
+    public MentionPopup(EditText input, MentionSuggester suggester) {
+        this.input = input;
+        this.suggester = suggester;
+        labels = new ArrayAdapter<>(input.getContext(), android.R.layout.simple_list_item_1, new ArrayList<>());
+        popup = new ListPopupWindow(input.getContext());
+        popup.setAnchorView(input);
+        popup.setAdapter(labels);
+        popup.setOnItemClickListener((parent, view, position, id) -> pick(position));
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+    @Override
+    public void afterTextChanged(Editable text) {
+        if (replacing) return;
+        int cursor = input.getSelectionEnd();
+        int start = tokenStart(text, cursor);
+        if (start < 0) {
+            dismiss();
+            return;
+        }
+        String current = text.subSequence(start, cursor).toString();
+        if (current.equals(token)) return;
+        tokenStart = start;
+        token = current;
+        suggester.query(current, MentionSuggester.DEFAULT_LIMIT, this::show);
+    }
+
+    /**
+     * Index of the '@' starting the word that ends at {@code cursor}, or -1 when
+     * that word isn't a mention with at least one character after the '@'.
+     */
+    static int tokenStart(CharSequence text, int cursor) {
+        if (cursor < 2 || cursor > text.length()) return -1;
+        for (int i = cursor - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) return -1;
+            if (c == '@') {
+                boolean wordStart = i == 0 || Character.isWhitespace(text.charAt(i - 1));
+                return wordStart && cursor - i >= 2 ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    private void show(String query, List<MentionIndex.Person> suggestions) {
+        // The user typed on while the API answered
+        if (!query.equals(token)) return;
+        shown.clear();
+        shown.addAll(suggestions);
+        labels.clear();
+        for (MentionIndex.Person person : suggestions) {
+            labels.add(person.name);
+        }
+        if (shown.isEmpty()) {
+            popup.dismiss();
+        } else if (!popup.isShowing()) {
+            popup.show();
+        }
+    }
+
+    private void pick(int position) {
+        if (position < 0 || position >= shown.size() || tokenStart < 0) return;
+        MentionIndex.Person person = shown.get(position);
+        Editable text = input.getText();
+        int end = Math.min(input.getSelectionEnd(), text.length());
+        replacing = true;
+        text.replace(tokenStart, end, person.mention + " ");
+        replacing = false;
+        dismiss();
+    }
+
+    /**
+     * Hides the list and drops any pending API search, e.g. after sending.
+     */
+    public void dismiss() {
+        tokenStart = -1;
+        token = null;
+        suggester.cancel();
+        if (popup.isShowing()) popup.dismiss();
+    }
+}
@@ -0,0 +1,184 @@
+package com.philonet.ai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Mention suggestions for the message input, answered from a local
+ * {@link MentionIndex} of the room's participants.
+ *
+ * The API is only asked when the index has fewer than the requested matches,
+ * after the user stops typing for {@link #REMOTE_DEBOUNCE_MS}. A newer query
+ * cancels the pending or in-flight one. People found remotely are added to the
+ * index, so refining the same query stays local. Main thread only.
+ */
+public class MentionSuggester {
+
+    private static final String TAG = "MentionSuggester";
+    // Same endpoint the web composer's mention service uses
+    private static final String SEARCH_URL = "https://api.typepilot.app/v1/interactions/taggable-users";
+
+    public static final int DEFAULT_LIMIT = 5;
+    public static final long REMOTE_DEBOUNCE_MS = 250;
+
+    public interface Callback {
+        /**
+         * Called with the local matches right away and, if the API was asked, once
+         * more with the combined list.
+         */
+        void onSuggestions(String query, List<MentionIndex.Person> suggestions);
+    }
+
+    private final MentionIndex index = new MentionIndex();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final String access;
+
+    private Runnable pendingRemote;
+    private Call inFlight;
+
+    public MentionSuggester(String access) {
+        this.access = access;
+    }
+
+    /**
+     * Indexes participants as the drawer pages them in; already known ones are skipped.
+     */
+    public void addParticipants(List<Participant> participants) {
+        List<MentionIndex.Person> people = new ArrayList<>(participants.size());
+        for (Participant participant : participants) {
+            if (participant.user_id != null && participant.name != null && !index.contains(participant.user_id)) {
+                // The drawer has no usernames, so local picks mention the display name
+                people.add(new MentionIndex.Person(participant.user_id, participant.name,
+                        participant.display_pic, "@" + participant.name));
+            }
+        }
+        index.addAll(people);
+    }
+
+    public void query(String query, int limit, Callback callback) {
+        cancel();
+        List<MentionIndex.Person> local = index.search(query, limit);
+        callback.onSuggestions(query, local);
+
+        if (local.size() >= limit || MentionIndex.normalize(query).isEmpty()) return;
+        pendingRemote = () -> {
+            pendingRemote = null;
+            searchRemote(query, limit, callback);
+        };
+        handler.postDelayed(pendingRemote, REMOTE_DEBOUNCE_MS);
+    }
+
+    /**
+     * Drops any pending or running API search, e.g. when the mention is finished.
+     */
+    public void cancel() {
+        if (pendingRemote != null) {
+            handler.removeCallbacks(pendingRemote);
+            pendingRemote = null;
+        }
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+
+    private void searchRemote(String query, int limit, Callback callback) {
+        HttpUrl url = HttpUrl.parse(SEARCH_URL).newBuilder()
+                .addQueryParameter("search", MentionIndex.normalize(query))
+                .addQueryParameter("limit", String.valueOf(limit))
+                .addQueryParameter("exclude_current", "true")
+                .build();
+        Request request = new Request.Builder()
+                .url(url)
+                .get()
+                .addHeader("Authorization", "Bearer " + access)
+                .build();
+
+        Call call = NetworkMetrics.client().newCall(request);
+        inFlight = call;
+        call.enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                if (!call.isCanceled()) {
+                    Log.w(TAG, "Mention search failed", e);
+                }
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+                String body = response.body() != null ? response.body().string() : "";
+                if (!response.isSuccessful()) {
+                    Log.w(TAG, "Mention search returned " + response.code());
+                    return;
+                }
+                List<MentionIndex.Person> found;
+                try {
+                    found = parseUsers(body);
+                } catch (JSONException e) {
+                    Log.e(TAG, "Bad mention search response", e);
+                    return;
+                }
+                handler.post(() -> {
+                    // A newer query replaced this one while it was running
+                    if (inFlight != call) return;
+                    inFlight = null;
+                    index.addAll(found);
+                    callback.onSuggestions(query, combine(index.search(query, limit), found, limit));
+                });
+            }
+        });
+    }
+
+    /**
+     * Local matches first, then people only the API matched (e.g. by username).
+     */
+    private static List<MentionIndex.Person> combine(List<MentionIndex.Person> local,
+                                                     List<MentionIndex.Person> remote, int limit) {
+        List<MentionIndex.Person> combined = new ArrayList<>(local);
+        for (MentionIndex.Person person : remote) {
+            if (combined.size() >= limit) break;
+            boolean listed = false;
+            for (MentionIndex.Person existing : combined) {
+                if (existing.userId.equals(person.userId)) {
+                    listed = true;
+                    break;
+                }
+            }
+            if (!listed) combined.add(person);
+        }
+        return combined;
+    }
+
+    private static List<MentionIndex.Person> parseUsers(String body) throws JSONException {
+        JSONArray users = new JSONObject(body).optJSONArray("users");
+        List<MentionIndex.Person> people = new ArrayList<>();
+        if (users == null) return people;
+        for (int i = 0; i < users.length(); i++) {
+            JSONObject user = users.getJSONObject(i);
+            String userId = user.optString("user_id", null);
+            if (userId == null) continue;
+            String name = user.optString("display_name", "");
+            if (name.isEmpty()) name = user.optString("name", "");
+            String mention = user.optString("tag", "");
+            if (mention.isEmpty()) mention = "@" + user.optString("username", name);
+            people.add(new MentionIndex.Person(userId, name, user.optString("avatar", null), mention));
+        }
+        return people;
+    }
+}
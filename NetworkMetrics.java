@@ -0,0 +1,284 @@
+package com.philonet.ai;
+
+import android.os.SystemClock;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Per-endpoint latency and payload histograms for api.typepilot.app calls.
+ *
+ * Every call made through {@link #client()} is timed phase by phase (DNS,
+ * connect, TLS, time to first byte, body read) by an OkHttp {@link EventListener}.
+ * Callers add JSON decode time with {@link #recordDecode}. Endpoints are grouped
+ * by path with numeric ids folded, e.g. /article/{id}/check-access.
+ */
+public final class NetworkMetrics {
+
+
+    // Debug builds only: session recording or replay, see ThreadSessionRecorder
+    private static volatile Interceptor debugInterceptor;
+
+    private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
+            .addInterceptor(chain -> {
+                Interceptor interceptor = debugInterceptor;
+                return interceptor != null ? interceptor.intercept(chain) : chain.proceed(chain.request());
+            })
+            .eventListenerFactory(call -> new CallTimer())
+            .build();
+
+    private static final Map<String, EndpointStats> STATS = new TreeMap<>();
+
+    private static class EndpointStats {
+        final LatencyHistogram total = new LatencyHistogram();
+        final LatencyHistogram dns = new LatencyHistogram();
+        final LatencyHistogram connect = new LatencyHistogram();
+        final LatencyHistogram tls = new LatencyHistogram();
+        final LatencyHistogram ttfb = new LatencyHistogram();
+        final LatencyHistogram bodyRead = new LatencyHistogram();
+        final LatencyHistogram decode = new LatencyHistogram();
+        final LatencyHistogram requestBytes = LatencyHistogram.forBytes();
+        final LatencyHistogram responseBytes = LatencyHistogram.forBytes();
+        long failures;
+    }
+
+    private NetworkMetrics() {
+    }
+
+    /**
+     * Shared, instrumented client. Use {@code client().newBuilder()} for custom
+     * timeouts; derived clients keep the listener and share the connection pool.
+     */
+    public static OkHttpClient client() {
+        return CLIENT;
+    }
+
+    /**
+     * Routes every call through {@code interceptor}, or back to the network when null.
+     */
+    public static void setDebugInterceptor(Interceptor interceptor) {
+        debugInterceptor = interceptor;
+    }
+
+    public static void recordDecode(String url, long decodeMs) {
+        synchronized (STATS) {
+            statsFor(endpointOf(url)).decode.record(decodeMs);
+        }
+    }
+
+    /**
+     * "/room/subcommentsnew", "/article/{id}/check-access" ... from a full URL.
+     */
+    static String endpointOf(String url) {
+        int schemeEnd = url.indexOf("://");
+        int pathStart = url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        if (pathStart < 0) return "/";
+        int pathEnd = url.indexOf('?', pathStart);
+        String path = pathEnd < 0 ? url.substring(pathStart) : url.substring(pathStart, pathEnd);
+        if (path.startsWith("/v1/")) {
+            path = path.substring(3);
+        }
+
+        StringBuilder endpoint = new StringBuilder(path.length());
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            endpoint.append('/').append(isNumeric(segment) ? "{id}" : segment);
+        }
+        return endpoint.length() == 0 ? "/" : endpoint.toString();
+    }
+
+    private static boolean isNumeric(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static EndpointStats statsFor(String endpoint) {
+        EndpointStats stats = STATS.get(endpoint);
+        if (stats == null) {
+            stats = new EndpointStats();
+            STATS.put(endpoint, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Human-readable table of every endpoint, for logcat or a debug screen.
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder("Network metrics (ms, sizes in bytes)\n");
+        synchronized (STATS) {
+            for (Map.Entry<String, EndpointStats> entry : STATS.entrySet()) {
+                EndpointStats stats = entry.getValue();
+                out.append(entry.getKey())
+                        .append(" failures=").append(stats.failures)
+                        .append("\n  total    ").append(stats.total)
+                        .append("\n  dns      ").append(stats.dns)
+                        .append("\n  connect  ").append(stats.connect)
+                        .append("\n  tls      ").append(stats.tls)
+                        .append("\n  ttfb     ").append(stats.ttfb)
+                        .append("\n  body     ").append(stats.bodyRead)
+                        .append("\n  decode   ").append(stats.decode)
+                        .append("\n  req B    ").append(stats.requestBytes)
+                        .append("\n  resp B   ").append(stats.responseBytes)
+                        .append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reports one summary per endpoint and resets the stats.
+     */
+    public static void flush() {
+        synchronized (STATS) {
+            for (Map.Entry<String, EndpointStats> entry : STATS.entrySet()) {
+                EndpointStats stats = entry.getValue();
+                Map<String, Object> dimensions = new HashMap<>();
+                dimensions.put("endpoint", entry.getKey());
+                dimensions.put("failures", stats.failures);
+                dimensions.put("dns_p50_ms", stats.dns.percentile(50));
+                dimensions.put("connect_p50_ms", stats.connect.percentile(50));
+                dimensions.put("tls_p50_ms", stats.tls.percentile(50));
+                dimensions.put("ttfb_p50_ms", stats.ttfb.percentile(50));
+                dimensions.put("ttfb_p90_ms", stats.ttfb.percentile(90));
+                dimensions.put("body_p50_ms", stats.bodyRead.percentile(50));
+                dimensions.put("decode_p50_ms", stats.decode.percentile(50));
+                dimensions.put("decode_p90_ms", stats.decode.percentile(90));
+                dimensions.put("request_bytes_p50", stats.requestBytes.percentile(50));
+                dimensions.put("response_bytes_p50", stats.responseBytes.percentile(50));
+                dimensions.put("response_bytes_max", stats.responseBytes.getMax());
+                PerformanceReporter.reportHistogram("network_call", dimensions, stats.total);
+            }
+            STATS.clear();
+        }
+    }
+
+    /**
+     * Timestamps for one call. OkHttp creates one listener per call and drives it
+     * from a single thread at a time.
+     */
+    private static class CallTimer extends EventListener {
+        private long callStart;
+        private long dnsStart;
+        private long dnsMs = -1;
+        private long connectStart;
+        private long connectMs = -1;
+        private long tlsStart;
+        private long tlsMs = -1;
+        private long requestSent;
+        private long ttfbMs = -1;
+        private long bodyStart;
+        private long bodyMs = -1;
+        private long requestBytes;
+        private long responseBytes;
+
+        private static long now() {
+            return SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = now();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = now();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dnsMs = now() - dnsStart;
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = now();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectMs = now() - connectStart;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = now();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsMs = now() - tlsStart;
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestSent = now();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestBytes = byteCount;
+            requestSent = now();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            ttfbMs = now() - requestSent;
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            bodyStart = now();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            responseBytes = byteCount;
+            bodyMs = now() - bodyStart;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish(call, false);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            finish(call, true);
+        }
+
+        private void finish(Call call, boolean failed) {
+            String endpoint = endpointOf(call.request().url().toString());
+            synchronized (STATS) {
+                EndpointStats stats = statsFor(endpoint);
+                stats.total.record(now() - callStart);
+                // Phases skipped on a reused connection aren't recorded as zeros
+                if (dnsMs >= 0) stats.dns.record(dnsMs);
+                if (connectMs >= 0) stats.connect.record(connectMs);
+                if (tlsMs >= 0) stats.tls.record(tlsMs);
+                if (ttfbMs >= 0) stats.ttfb.record(ttfbMs);
+                if (bodyMs >= 0) stats.bodyRead.record(bodyMs);
+                stats.requestBytes.record(requestBytes);
+                stats.responseBytes.record(responseBytes);
+                if (failed) stats.failures++;
+            }
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.philonet.ai;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Paged participant list for the thread drawer.
+ *
+ * The last first page is cached on disk and shown right away while the fresh one
+ * loads; the fresh page then replaces it through a diff. Later pages are fetched
+ * ahead of the scroll position and appended, skipping people already listed.
+ * Presence from the socket is merged without a refetch: a joiner not on a loaded
+ * page is inserted right after the thread starter, and a listed person's row is
+ * rebound when they come or go. All state lives on a private
+ * serial thread, and each change is handed to the {@link Listener} through the
+ * publish executor as a snapshot plus the adapter updates that produce it.
+ */
+public class ParticipantPager {
+
+    private static final String TAG = "ParticipantPager";
+    private static final String API_URL = "https://api.typepilot.app/v1/room/conversation-people";
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final Gson GSON = new Gson();
+
+    public static final int PAGE_SIZE = 25;
+    // Start loading the next page this many rows before the end
+    public static final int PREFETCH_DISTANCE = 10;
+
+    public interface Listener {
+        /**
+         * Make the adapter's list equal to {@code snapshot}, then dispatch
+         * {@code update} to the adapter.
+         */
+        void onParticipantsChanged(List<Participant> snapshot, Update update);
+
+        void onLoadingChanged(boolean loading);
+
+        void onLoadFailed(int page);
+    }
+
+    /** Adapter notifications that turn the previous snapshot into the new one. */
+    public interface Update {
+        void dispatchTo(ListUpdateCallback callback);
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, TAG));
+    private final Executor publisher;
+    private final Listener listener;
+    private final File cacheFile;
+    private final int articleId;
+    private final int commentId;
+    private final String access;
+
+    // Worker thread only
+    private List<Participant> participants = Collections.emptyList();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Set<String> online = new HashSet<>();
+    // Inserted from presence, not yet seen on a fresh first page
+    private final List<Participant> joined = new ArrayList<>();
+    private int firstPageSize;
+    private int page;
+    private boolean hasNextPage;
+    private boolean loading;
+    // Last visible row the list reported, -1 before it laid out
+    private int lastVisible = -1;
+
+    // Publish executor only
+    private Set<String> onlineSnapshot = Collections.emptySet();
+
+    public ParticipantPager(File cacheDir, int articleId, int commentId, String access,
+                            Executor publisher, Listener listener) {
+        this.cacheFile = new File(cacheDir, "participants_" + articleId + "_" + commentId + ".json");
+        this.articleId = articleId;
+        this.commentId = commentId;
+        this.access = access;
+        this.publisher = publisher;
+        this.listener = listener;
+    }
+
+    /**
+     * Shows the cached first page, if any, and fetches the fresh one.
+     */
+    public void start() {
+        run(() -> {
+            ConversationResponse cached = readCache();
+            if (cached != null && cached.participants != null) {
+                replaceFirstPage(cached.participants);
+            }
+            fetch(1);
+        });
+    }
+
+    /**
+     * Call from the scroll listener, layout passes included; loads the next page
+     * once the last visible row is within {@link #PREFETCH_DISTANCE} of the end.
+     * The check is repeated after every page, so a page that still leaves the
+     * end in view loads the next one without another scroll.
+     */
+    public void onScrolled(int lastVisiblePosition) {
+        run(() -> {
+            lastVisible = lastVisiblePosition;
+            prefetchIfNeeded();
+        });
+    }
+
+    public void onUserJoined(String userId, String userName) {
+        run(() -> userJoined(userId, userName));
+    }
+
+    public void onUserLeft(String userId) {
+        run(() -> userLeft(userId));
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shut down with the screen
+        }
+    }
+
+    private void prefetchIfNeeded() {
+        // Never page past a cached first page; its cursor may be stale
+        if (loading || !hasNextPage || page < 1 || lastVisible < 0) return;
+        if (lastVisible >= participants.size() - PREFETCH_DISTANCE) {
+            fetch(page + 1);
+        }
+    }
+
+    private void fetch(int pageToLoad) {
+        loading = true;
+        publisher.execute(() -> listener.onLoadingChanged(true));
+
+        String json = String.format(Locale.US, "{\"articleId\":\"%s\", \"commentId\":\"%s\", \"page\":%d, \"limit\":%d}",
+                articleId, commentId, pageToLoad, PAGE_SIZE);
+        Request request = new Request.Builder()
+                .url(API_URL)
+                .post(RequestBody.create(JSON, json))
+                .addHeader("Content-Type", "application/json")
+                .addHeader("Authorization", "Bearer " + access)
+                .build();
+
+        NetworkMetrics.client().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, "Page " + pageToLoad + " failed", e);
+                run(() -> failed(pageToLoad));
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+                String body = response.body() != null ? response.body().string() : "";
+                if (!response.isSuccessful()) {
+                    Log.w(TAG, "Page " + pageToLoad + " returned " + response.code());
+                    run(() -> failed(pageToLoad));
+                    return;
+                }
+                run(() -> loaded(pageToLoad, body));
+            }
+        });
+    }
+
+    private void failed(int pageToLoad) {
+        loading = false;
+        publisher.execute(() -> {
+            listener.onLoadingChanged(false);
+            listener.onLoadFailed(pageToLoad);
+        });
+    }
+
+    private void loaded(int pageToLoad, String body) {
+        ConversationResponse data;
+        try {
+            data = GSON.fromJson(body, ConversationResponse.class);
+        } catch (JsonParseException e) {
+            Log.e(TAG, "Bad page " + pageToLoad, e);
+            failed(pageToLoad);
+            return;
+        }
+
+        loading = false;
+        page = pageToLoad;
+        hasNextPage = data != null && data.pagination != null && data.pagination.hasNextPage;
+        List<Participant> loadedPage = data != null && data.participants != null
+                ? data.participants : Collections.emptyList();
+        if (pageToLoad == 1) {
+            writeCache(body);
+            replaceFirstPage(loadedPage);
+        } else {
+            append(loadedPage);
+        }
+        publisher.execute(() -> listener.onLoadingChanged(false));
+        prefetchIfNeeded();
+    }
+
+    private void replaceFirstPage(List<Participant> firstPage) {
+        List<Participant> previous = participants;
+        List<Participant> next = new ArrayList<>(previous.size() + firstPage.size());
+        Set<String> seen = new HashSet<>();
+        for (Participant participant : firstPage) {
+            if (seen.add(idOf(participant))) next.add(participant);
+        }
+        // Live joiners the fresh page doesn't have yet stay right after the starter
+        int joinerAt = Math.min(1, next.size());
+        for (Iterator<Participant> it = joined.iterator(); it.hasNext(); ) {
+            Participant joiner = it.next();
+            if (seen.add(idOf(joiner))) {
+                next.add(joinerAt++, joiner);
+            } else {
+                it.remove();
+            }
+        }
+        int newFirstPageSize = next.size();
+        // Rows from later pages stay unless the new first page already has them
+        for (int i = firstPageSize; i < previous.size(); i++) {
+            Participant participant = previous.get(i);
+            if (seen.add(idOf(participant))) next.add(participant);
+        }
+        firstPageSize = newFirstPageSize;
+        reindex(next);
+
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return previous.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return next.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return idOf(previous.get(oldPosition)).equals(idOf(next.get(newPosition)));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                Participant before = previous.get(oldPosition);
+                Participant after = next.get(newPosition);
+                return Objects.equals(before.name, after.name)
+                        && Objects.equals(before.display_pic, after.display_pic);
+            }
+        }, false);
+        publish(next, diff::dispatchUpdatesTo);
+    }
+
+    private void append(List<Participant> loadedPage) {
+        List<Participant> next = new ArrayList<>(participants.size() + loadedPage.size());
+        next.addAll(participants);
+        for (Participant participant : loadedPage) {
+            // Offset paging shifts when people join, so a page can repeat rows
+            String id = idOf(participant);
+            if (!positions.containsKey(id)) {
+                positions.put(id, next.size());
+                next.add(participant);
+            }
+        }
+        int start = participants.size();
+        int count = next.size() - start;
+        if (count == 0) return;
+        publish(next, callback -> callback.onInserted(start, count));
+    }
+
+    private void userJoined(String userId, String userName) {
+        if (userId == null) return;
+        boolean changed = online.add(userId);
+        Integer position = positions.get(userId);
+        if (position != null) {
+            if (changed) publish(participants, callback -> callback.onChanged(position, 1, null));
+            return;
+        }
+
+        // Not on a loaded page, so later pages may never list them
+        JsonObject fields = new JsonObject();
+        fields.addProperty("user_id", userId);
+        fields.addProperty("name", userName);
+        Participant joiner = GSON.fromJson(fields, Participant.class);
+        joined.add(joiner);
+
+        int at = Math.min(1, participants.size());
+        List<Participant> next = new ArrayList<>(participants.size() + 1);
+        next.addAll(participants);
+        next.add(at, joiner);
+        firstPageSize++;
+        reindex(next);
+        publish(next, callback -> callback.onInserted(at, 1));
+    }
+
+    private void userLeft(String userId) {
+        if (userId == null || !online.remove(userId)) return;
+        // They stay listed, like anyone else from the pages, just offline
+        Integer position = positions.get(userId);
+        if (position == null) return;
+        publish(participants, callback -> callback.onChanged(position, 1, null));
+    }
+
+    private void reindex(List<Participant> next) {
+        positions.clear();
+        for (int i = 0; i < next.size(); i++) {
+            positions.put(idOf(next.get(i)), i);
+        }
+    }
+
+    /**
+     * {@code positions} must already index {@code next}.
+     */
+    private void publish(List<Participant> next, Update update) {
+        List<Participant> snapshot = next == participants ? next : Collections.unmodifiableList(next);
+        participants = snapshot;
+        Set<String> onlineNow = Collections.unmodifiableSet(new HashSet<>(online));
+        publisher.execute(() -> {
+            onlineSnapshot = onlineNow;
+            listener.onParticipantsChanged(snapshot, update);
+        });
+    }
+
+    /**
+     * Whether {@code userId} is in the room, as of the last published snapshot.
+     * Call on the publish executor, e.g. while drawing the rows.
+     */
+    public boolean isOnline(String userId) {
+        return onlineSnapshot.contains(userId);
+    }
+
+    private static String idOf(Participant participant) {
+        // Rows without an id are never treated as duplicates of each other
+        return participant.user_id != null
+                ? participant.user_id : "#" + System.identityHashCode(participant);
+    }
+
+    private ConversationResponse readCache() {
+        if (!cacheFile.exists()) return null;
+        try (Reader reader = new FileReader(cacheFile)) {
+            return GSON.fromJson(reader, ConversationResponse.class);
+        } catch (IOException | JsonParseException e) {
+            Log.w(TAG, "Dropping unreadable cache " + cacheFile, e);
+            cacheFile.delete();
+            return null;
+        }
+    }
+
+    private void writeCache(String body) {
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        try (Writer writer = new FileWriter(tmp)) {
+            writer.write(body);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot cache participants", e);
+            return;
+        }
+        if (!tmp.renameTo(cacheFile)) {
+            tmp.delete();
+        }
+    }
+}
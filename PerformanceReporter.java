@@ -0,0 +1,53 @@
+package com.philonet.ai;
+
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends performance aggregates through {@link Telemetry} as perf metric events.
+ *
+ * Aggregates are built on the device, so one event carries a whole histogram
+ * summary instead of one event per frame or request, and every report is kept.
+ * Reports made before {@link Telemetry#initialize} are dropped.
+ */
+public final class PerformanceReporter {
+
+    private static final String TAG = "PerformanceReporter";
+
+    private PerformanceReporter() {
+    }
+
+    /**
+     * Reports a histogram summary; empty histograms are skipped.
+     */
+    public static void reportHistogram(String metric, Map<String, Object> dimensions,
+                                       LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+
+        Map<String, Object> params = new HashMap<>(dimensions);
+        params.put("count", histogram.getCount());
+        params.put("p50_ms", histogram.percentile(50));
+        params.put("p90_ms", histogram.percentile(90));
+        params.put("p99_ms", histogram.percentile(99));
+        params.put("max_ms", histogram.getMax());
+        params.put("mean_ms", histogram.getMean());
+        report(metric, params);
+    }
+
+    public static void report(String metric, Map<String, Object> params) {
+        Telemetry telemetry;
+        try {
+            telemetry = Telemetry.getInstance();
+        } catch (IllegalStateException e) {
+            Log.d(TAG, "Telemetry not initialized, dropping " + metric);
+            return;
+        }
+        telemetry.trackPerfMetric(metric, new JSONObject(params).toString());
+    }
+}
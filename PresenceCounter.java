@@ -0,0 +1,156 @@
+package com.philonet.ai;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * People in the conversation: the server's last {@code participant_count} plus
+ * the joins and leaves seen since.
+ *
+ * Join and leave events are deduplicated per user for {@link #DEDUP_WINDOW_MS},
+ * so a repeated join, or a leave followed by a rejoin, does not move the count
+ * twice. An authoritative count replaces the estimate and marks everything seen
+ * so far as included in it. The {@link Listener} is called on the handler's
+ * thread at most once per {@link #RENDER_INTERVAL_MS}, and only when the count
+ * changed.
+ */
+public class PresenceCounter {
+
+    public static final long DEDUP_WINDOW_MS = 60_000;
+    public static final long RENDER_INTERVAL_MS = 250;
+
+    public interface Listener {
+        void onCountChanged(int count);
+    }
+
+    private static final class Seen {
+        boolean present;
+        long at;
+        // +1 or -1 until an authoritative count includes it, then 0
+        int pending;
+
+        Seen(boolean present, long at, int pending) {
+            this.present = present;
+            this.at = at;
+            this.pending = pending;
+        }
+    }
+
+    private final Handler handler;
+    private final Listener listener;
+    private final Runnable render = this::render;
+
+    // Guarded by this
+    private final Map<String, Seen> seen = new HashMap<>();
+    private int authoritative;
+    private int pending;
+    private boolean renderScheduled;
+    private long expiredAt;
+
+    // Handler thread only
+    private int shownCount = -1;
+
+    public PresenceCounter(Handler handler, Listener listener) {
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    /** Any thread. */
+    public synchronized void onUserJoined(String userId) {
+        record(userId, true);
+    }
+
+    /** Any thread. */
+    public synchronized void onUserLeft(String userId) {
+        record(userId, false);
+    }
+
+    /**
+     * Any thread. The server's count, e.g. {@code participant_count} of a room
+     * update; it already reflects every event received before it.
+     */
+    public synchronized void reconcile(int count) {
+        authoritative = count;
+        pending = 0;
+        for (Seen entry : seen.values()) {
+            entry.pending = 0;
+        }
+        scheduleRender();
+    }
+
+    public synchronized int getCount() {
+        return Math.max(0, authoritative + pending);
+    }
+
+    public void release() {
+        synchronized (this) {
+            renderScheduled = false;
+        }
+        handler.removeCallbacks(render);
+    }
+
+    // Holding the lock
+    private void record(String userId, boolean present) {
+        if (userId == null) return;
+        long now = SystemClock.uptimeMillis();
+        expire(now);
+
+        Seen entry = seen.get(userId);
+        if (entry != null && entry.present == present) {
+            // Duplicate delivery or a reconnect; already counted
+            entry.at = now;
+            return;
+        }
+        int delta = present ? 1 : -1;
+        if (entry == null) {
+            seen.put(userId, new Seen(present, now, delta));
+            pending += delta;
+        } else {
+            // Flip within the window: undo the unconfirmed event, or count the new one
+            int contribution = entry.pending != 0 ? 0 : delta;
+            pending += contribution - entry.pending;
+            entry.present = present;
+            entry.at = now;
+            entry.pending = contribution;
+        }
+        scheduleRender();
+    }
+
+    // Holding the lock
+    private void expire(long now) {
+        // A sweep per second is plenty for a one minute window
+        if (now - expiredAt < 1000) return;
+        expiredAt = now;
+        for (Iterator<Seen> it = seen.values().iterator(); it.hasNext(); ) {
+            Seen entry = it.next();
+            if (now - entry.at < DEDUP_WINDOW_MS) continue;
+            // Still unconfirmed: keep it in the estimate, just stop deduplicating
+            authoritative += entry.pending;
+            pending -= entry.pending;
+            it.remove();
+        }
+    }
+
+    // Holding the lock
+    private void scheduleRender() {
+        if (renderScheduled) return;
+        renderScheduled = true;
+        handler.postDelayed(render, RENDER_INTERVAL_MS);
+    }
+
+    private void render() {
+        int count;
+        synchronized (this) {
+            renderScheduled = false;
+            count = getCount();
+        }
+        if (count != shownCount) {
+            shownCount = count;
+            listener.onCountChanged(count);
+        }
+    }
+}
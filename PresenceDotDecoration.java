@@ -0,0 +1,54 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Draws an online dot at the end of each participant row whose person is in the
+ * room, over whatever the row's own adapter binds.
+ *
+ * The dot is drawn from the current online state on every frame, so a presence
+ * change only needs the row to redraw.
+ */
+public class PresenceDotDecoration extends RecyclerView.ItemDecoration {
+
+    private static final float RADIUS_DP = 4;
+    private static final float END_INSET_DP = 16;
+    private static final int ONLINE_COLOR = 0xFF34C759;
+
+    public interface OnlineLookup {
+        boolean isOnline(int adapterPosition);
+    }
+
+    private final OnlineLookup lookup;
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float radius;
+    private final float endInset;
+
+    public PresenceDotDecoration(Context context, OnlineLookup lookup) {
+        this.lookup = lookup;
+        float density = context.getResources().getDisplayMetrics().density;
+        radius = RADIUS_DP * density;
+        endInset = END_INSET_DP * density;
+        paint.setColor(ONLINE_COLOR);
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas canvas, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        boolean rtl = parent.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View row = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(row);
+            if (position == RecyclerView.NO_POSITION || !lookup.isOnline(position)) continue;
+
+            float x = rtl ? row.getLeft() + endInset + radius : row.getRight() - endInset - radius;
+            float y = row.getTop() + row.getHeight() / 2f;
+            canvas.drawCircle(x + row.getTranslationX(), y + row.getTranslationY(), radius, paint);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.philonet.ai;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Running reaction totals for one target: per-type counts, the total, the most
+ * used type and the current user's type.
+ *
+ * Counts are indexed by {@link ReactionType} ordinal and every update is O(1);
+ * only lowering the current leader rescans the (fixed, ten entry) table. A new
+ * reactions_summary is applied in place as per-type deltas, so a socket event
+ * allocates nothing.
+ */
+public class ReactionAggregate {
+
+    private final int[] counts = new int[ReactionType.count()];
+    private int unknownCount;
+    private int total;
+    private int primary = -1;
+    private ReactionType userType;
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        unknownCount = 0;
+        total = 0;
+        primary = -1;
+        userType = null;
+    }
+
+    public void copyFrom(ReactionAggregate other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        unknownCount = other.unknownCount;
+        total = other.total;
+        primary = other.primary;
+        userType = other.userType;
+    }
+
+    /**
+     * Sets the count of one type. Types the client doesn't know (null) still count
+     * towards the total.
+     */
+    public void setCount(ReactionType type, int count) {
+        count = Math.max(0, count);
+        if (type == null) {
+            total += count - unknownCount;
+            unknownCount = count;
+            return;
+        }
+
+        int index = type.ordinal();
+        int previous = counts[index];
+        counts[index] = count;
+        total += count - previous;
+
+        if (primary == -1 || count > counts[primary]) {
+            primary = count > 0 ? index : primary;
+        } else if (index == primary && count < previous) {
+            rescanPrimary();
+        }
+    }
+
+    /**
+     * Makes the counts equal to a reactions_summary array of
+     * {@code {reaction_type, count}}. Types missing from it drop to zero; the
+     * current user's type is kept.
+     */
+    public void applySummary(JSONArray reactionsSummary) {
+        int seen = 0;
+        int unknown = 0;
+        for (int i = 0; i < reactionsSummary.length(); i++) {
+            JSONObject reaction = reactionsSummary.optJSONObject(i);
+            if (reaction == null) continue;
+            ReactionType type = ReactionType.fromKey(reaction.optString("reaction_type", null));
+            int count = reaction.optInt("count", 0);
+            if (type == null) {
+                unknown += count;
+            } else {
+                setCount(type, count);
+                seen |= 1 << type.ordinal();
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if ((seen & (1 << i)) == 0 && counts[i] != 0) {
+                setCount(ReactionType.at(i), 0);
+            }
+        }
+        setCount(null, unknown);
+    }
+
+    public void add(ReactionType type, int delta) {
+        setCount(type, (type != null ? counts[type.ordinal()] : unknownCount) + delta);
+    }
+
+    public void setUserType(ReactionType userType) {
+        this.userType = userType;
+    }
+
+    public int getCount(ReactionType type) {
+        return counts[type.ordinal()];
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the most used type, or null if there are no known reactions
+     */
+    public ReactionType getPrimaryType() {
+        return primary >= 0 ? ReactionType.at(primary) : null;
+    }
+
+    public ReactionType getUserType() {
+        return userType;
+    }
+
+    private void rescanPrimary() {
+        primary = -1;
+        int max = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > max) {
+                max = counts[i];
+                primary = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.philonet.ai;
+
+import android.os.Handler;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collapses rapid react/unreact taps into a single request per target.
+ *
+ * Every tap only records the user's intended final reaction. After a short quiet
+ * window the intent is compared with the last server-confirmed reaction and, if
+ * they differ, exactly one react or unreact call is sent carrying the net state.
+ * Taps that arrive while a request is in flight are folded into the next flush.
+ */
+public class ReactionDispatcher {
+
+    private static final String TAG = "ReactionDispatcher";
+    private static final long DEFAULT_WINDOW_MS = 400;
+
+    /**
+     * Performs the network call for one target. Implementations must call
+     * {@link Completion#onComplete} exactly once, from any thread.
+     */
+    public interface Sender {
+        void send(String targetId, String reactionType, boolean isUnreact, Completion completion);
+    }
+
+    public interface Completion {
+        /**
+         * @param success           whether the server accepted the request
+         * @param confirmedReaction the reaction the server now holds for the user, null if none
+         */
+        void onComplete(boolean success, String confirmedReaction);
+    }
+
+    public interface OnRevertedListener {
+        /**
+         * A request failed and nothing newer was tapped, so the UI should go back to
+         * {@code serverReaction} (null if none). Called on the dispatcher's handler.
+         */
+        void onReverted(String targetId, String serverReaction);
+    }
+
+    private static class TargetState {
+        String confirmed;
+        String intended;
+        boolean inFlight;
+        long version;
+        Runnable pendingFlush;
+        Sender sender;
+    }
+
+    private final Handler handler;
+    private final long windowMs;
+    private final Map<String, TargetState> targets = new HashMap<>();
+    private int requestsSent = 0;
+    private OnRevertedListener onRevertedListener;
+
+    public ReactionDispatcher(Handler handler) {
+        this(handler, DEFAULT_WINDOW_MS);
+    }
+
+    public ReactionDispatcher(Handler handler, long windowMs) {
+        this.handler = handler;
+        this.windowMs = windowMs;
+    }
+
+    public void setOnRevertedListener(OnRevertedListener listener) {
+        this.onRevertedListener = listener;
+    }
+
+    /**
+     * Records the reaction the server reports for the current user, e.g. from
+     * reaction_status or the adapter model. Ignored while the user has unsent or
+     * in-flight changes for the target, since those will overwrite it anyway.
+     */
+    public void seed(String targetId, String serverReaction) {
+        TargetState state = stateFor(targetId);
+        if (state.inFlight || state.pendingFlush != null) {
+            return;
+        }
+        state.confirmed = emptyToNull(serverReaction);
+        state.intended = state.confirmed;
+    }
+
+    /**
+     * Records a tap. The request is sent once taps for this target stop for the
+     * dispatch window.
+     */
+    public void submit(String targetId, String reactionType, boolean isUnreact, Sender sender) {
+        TargetState state = stateFor(targetId);
+        state.intended = isUnreact ? null : emptyToNull(reactionType);
+        state.sender = sender;
+        state.version++;
+
+        if (state.pendingFlush != null) {
+            handler.removeCallbacks(state.pendingFlush);
+        }
+        state.pendingFlush = () -> {
+            state.pendingFlush = null;
+            flush(targetId, state);
+        };
+        handler.postDelayed(state.pendingFlush, windowMs);
+    }
+
+    /**
+     * Returns the reaction the UI should show: the user's latest intent, whether
+     * or not it has reached the server yet.
+     */
+    public String getIntendedReaction(String targetId) {
+        TargetState state = targets.get(targetId);
+        return state != null ? state.intended : null;
+    }
+
+    /**
+     * Sends every pending intent immediately, e.g. before the screen goes away.
+     */
+    public void flushAll() {
+        for (Map.Entry<String, TargetState> entry : targets.entrySet()) {
+            TargetState state = entry.getValue();
+            if (state.pendingFlush != null) {
+                handler.removeCallbacks(state.pendingFlush);
+                state.pendingFlush = null;
+                flush(entry.getKey(), state);
+            }
+        }
+    }
+
+    public void cancelAll() {
+        for (TargetState state : targets.values()) {
+            if (state.pendingFlush != null) {
+                handler.removeCallbacks(state.pendingFlush);
+                state.pendingFlush = null;
+            }
+        }
+        targets.clear();
+    }
+
+    public int getRequestsSent() {
+        return requestsSent;
+    }
+
+    private void flush(String targetId, TargetState state) {
+        if (state.inFlight || state.sender == null) {
+            // The completion of the in-flight request re-checks the intent
+            return;
+        }
+        if (equals(state.intended, state.confirmed)) {
+            Log.d(TAG, "Net reaction unchanged for " + targetId + ", nothing to send");
+            return;
+        }
+
+        final String intended = state.intended;
+        final long sentVersion = state.version;
+        final boolean isUnreact = intended == null;
+        final String typeToSend = isUnreact ? state.confirmed : intended;
+
+        state.inFlight = true;
+        requestsSent++;
+        Log.d(TAG, "Sending " + (isUnreact ? "unreact " : "react ") + typeToSend + " for " + targetId);
+
+        state.sender.send(targetId, typeToSend, isUnreact, (success, confirmedReaction) -> handler.post(() -> {
+            state.inFlight = false;
+            if (success) {
+                state.confirmed = emptyToNull(confirmedReaction);
+            } else if (state.version == sentVersion) {
+                // Nothing newer was tapped - fall back to what the server still holds
+                state.intended = state.confirmed;
+                if (onRevertedListener != null) {
+                    onRevertedListener.onReverted(targetId, state.confirmed);
+                }
+                return;
+            }
+
+            if (state.pendingFlush == null && !equals(state.intended, state.confirmed)) {
+                flush(targetId, state);
+            }
+        }));
+    }
+
+    private TargetState stateFor(String targetId) {
+        TargetState state = targets.get(targetId);
+        if (state == null) {
+            state = new TargetState();
+            targets.put(targetId, state);
+        }
+        return state;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,198 @@
+package com.philonet.ai;
+
+import org.json.JSONArray;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the reaction state of each target as the last server state plus the
+ * current user's pending (not yet confirmed) change.
+ *
+ * The server sends no version or timestamp with reaction states, so ordering comes
+ * from the socket: events on one connection arrive in the order they were sent.
+ * An HTTP response can overtake or trail them, so it is only applied if no socket
+ * event for the target arrived while its request was out; otherwise the socket,
+ * which also echoes our own change, is newer. The count shown in the UI is always
+ * "server + pending", which means a tap is reflected immediately and never
+ * double-counted once the server echoes it back.
+ */
+public class ReactionStateStore {
+
+    public static class Snapshot {
+        public final int total;
+        public final String primaryType;
+        public final String userReaction;
+        /** User's emoji if they reacted, otherwise the most used one. */
+        public final String displayEmoji;
+        public final boolean pending;
+
+        Snapshot(int total, String primaryType, String userReaction, String displayEmoji, boolean pending) {
+            this.total = total;
+            this.primaryType = primaryType;
+            this.userReaction = userReaction;
+            this.displayEmoji = displayEmoji;
+            this.pending = pending;
+        }
+    }
+
+    private static class TargetState {
+        // Socket events applied so far
+        long socketSequence;
+        boolean hasServerCounts;
+        final ReactionAggregate server = new ReactionAggregate();
+        final ReactionAggregate display = new ReactionAggregate();
+        ReactionType fallbackType;
+
+        boolean hasPending;
+        ReactionType pendingType;
+
+        Snapshot snapshot;
+    }
+
+    private final Map<String, TargetState> targets = new HashMap<>();
+
+    /**
+     * Seeds a target from data that only has totals (intent extras, comment details).
+     * Does nothing if a real server state has already been applied.
+     */
+    public synchronized void seed(String targetId, int total, String userReaction, String latestType) {
+        TargetState state = stateFor(targetId);
+        if (state.hasServerCounts) {
+            return;
+        }
+        // Only the total is known; the user's own reaction is the one type we can place
+        ReactionType userType = ReactionType.fromKey(userReaction);
+        int unplaced = Math.max(0, total);
+        state.server.reset();
+        if (userType != null && unplaced > 0) {
+            state.server.setCount(userType, 1);
+            unplaced--;
+        }
+        state.server.setCount(null, unplaced);
+        state.server.setUserType(userType);
+        state.fallbackType = ReactionType.fromKey(latestType);
+        recompute(state);
+    }
+
+    /**
+     * Call when a react or unreact request is sent; pass the result to
+     * {@link #applyResponse} with the request's answer.
+     */
+    public synchronized long requestSent(String targetId) {
+        return stateFor(targetId).socketSequence;
+    }
+
+    /**
+     * Applies the state from a reaction_updated socket event.
+     *
+     * @param reactionsSummary  the payload's reactions_summary
+     * @param userReactionKnown whether the payload tells us the current user's reaction
+     * @param userReaction      the current user's reaction on the server, null if none
+     */
+    public synchronized void applySocket(String targetId, JSONArray reactionsSummary,
+                                         boolean userReactionKnown, String userReaction) {
+        TargetState state = stateFor(targetId);
+        state.socketSequence++;
+        apply(state, reactionsSummary, userReactionKnown, userReaction);
+    }
+
+    /**
+     * Applies the state from a react or unreact response.
+     *
+     * @param sentAt what {@link #requestSent} returned for the request
+     * @see #applySocket
+     * @return false if a socket event arrived meanwhile and the response was dropped
+     */
+    public synchronized boolean applyResponse(String targetId, long sentAt, JSONArray reactionsSummary,
+                                              boolean userReactionKnown, String userReaction) {
+        TargetState state = stateFor(targetId);
+        if (state.socketSequence != sentAt) {
+            return false;
+        }
+        apply(state, reactionsSummary, userReactionKnown, userReaction);
+        return true;
+    }
+
+    private void apply(TargetState state, JSONArray reactionsSummary,
+                       boolean userReactionKnown, String userReaction) {
+        ReactionType serverUserType = userReactionKnown
+                ? ReactionType.fromKey(userReaction)
+                : state.server.getUserType();
+        state.server.applySummary(reactionsSummary);
+        state.server.setUserType(serverUserType);
+        state.hasServerCounts = true;
+
+        // The server already includes our change - fold the pending delta in
+        if (userReactionKnown && state.hasPending && state.pendingType == serverUserType) {
+            state.hasPending = false;
+            state.pendingType = null;
+        }
+        recompute(state);
+    }
+
+    /**
+     * Records the user's intended reaction (null to unreact) before it is confirmed.
+     */
+    public synchronized void setPending(String targetId, String reaction) {
+        TargetState state = stateFor(targetId);
+        ReactionType intended = ReactionType.fromKey(reaction);
+        state.hasPending = intended != state.server.getUserType();
+        state.pendingType = state.hasPending ? intended : null;
+        recompute(state);
+    }
+
+    /**
+     * Returns the precomputed display values; no counting happens here.
+     */
+    public synchronized Snapshot snapshot(String targetId) {
+        TargetState state = stateFor(targetId);
+        if (state.snapshot == null) {
+            recompute(state);
+        }
+        return state.snapshot;
+    }
+
+    /**
+     * Rebuilds the display aggregate as server + pending. Copying the fixed-size
+     * table and applying at most two deltas keeps this O(1) per event.
+     */
+    private void recompute(TargetState state) {
+        ReactionAggregate display = state.display;
+        display.copyFrom(state.server);
+
+        if (state.hasPending) {
+            ReactionType serverUserType = state.server.getUserType();
+            if (serverUserType != null) {
+                display.add(serverUserType, -1);
+            }
+            if (state.pendingType != null) {
+                display.add(state.pendingType, 1);
+            }
+            display.setUserType(state.pendingType);
+        }
+
+        ReactionType primaryType = display.getPrimaryType();
+        if (primaryType == null) {
+            primaryType = state.fallbackType != null ? state.fallbackType : ReactionType.LIKE;
+        }
+        ReactionType userType = display.getUserType();
+
+        state.snapshot = new Snapshot(
+                display.getTotal(),
+                primaryType.key,
+                userType != null ? userType.key : null,
+                userType != null ? userType.emoji : primaryType.emoji,
+                state.hasPending
+        );
+    }
+
+    private TargetState stateFor(String targetId) {
+        TargetState state = targets.get(targetId);
+        if (state == null) {
+            state = new TargetState();
+            targets.put(targetId, state);
+        }
+        return state;
+    }
+}
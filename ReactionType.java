@@ -0,0 +1,63 @@
+package com.philonet.ai;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The reaction types the API knows about, with their emoji.
+ *
+ * Lookups go through tables built once at class load, so resolving a type from
+ * a socket payload or a card update doesn't allocate.
+ */
+public enum ReactionType {
+    LIKE("like", "👍"),
+    LOVE("love", "❤️"),
+    CURIOUS("curious", "🤔"),
+    INSIGHTFUL("insightful", "💡"),
+    CELEBRATE("celebrate", "🎉"),
+    SUPPORT("support", "🤝"),
+    FUNNY("funny", "😂"),
+    SURPRISED("surprised", "😮"),
+    SAD("sad", "😢"),
+    ANGRY("angry", "😠");
+
+    private static final ReactionType[] VALUES = values();
+    private static final Map<String, ReactionType> BY_KEY = new HashMap<>();
+
+    static {
+        for (ReactionType type : VALUES) {
+            BY_KEY.put(type.key, type);
+        }
+    }
+
+    public final String key;
+    public final String emoji;
+
+    ReactionType(String key, String emoji) {
+        this.key = key;
+        this.emoji = emoji;
+    }
+
+    /**
+     * @return the type for an API key, or null if the key is unknown
+     */
+    public static ReactionType fromKey(String key) {
+        return key != null ? BY_KEY.get(key) : null;
+    }
+
+    /**
+     * @return the emoji for an API key, falling back to 👍 for unknown keys
+     */
+    public static String emojiFor(String key) {
+        ReactionType type = fromKey(key);
+        return type != null ? type.emoji : LIKE.emoji;
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static ReactionType at(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,135 @@
+package com.philonet.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Newest reply and the most recent distinct reply avatars of a thread, kept up
+ * to date as replies come and go so reading them never scans the list.
+ *
+ * Adding replies costs O(added x {@link #AVATAR_COUNT}). A full rescan only
+ * happens when a reply that is the newest one or supplies an avatar is removed.
+ * Immutable.
+ */
+public final class RecentReplies {
+
+    public static final int AVATAR_COUNT = 3;
+
+    public static final RecentReplies EMPTY = new RecentReplies(null, 0, Collections.emptyList());
+
+    private static final class Avatar {
+        final String url;
+        final String replyId;
+        final long timestamp;
+
+        Avatar(String url, String replyId, long timestamp) {
+            this.url = url;
+            this.replyId = replyId;
+            this.timestamp = timestamp;
+        }
+    }
+
+    public final String newestId;
+    public final long newestTimestamp;
+    // Most recent first, distinct urls
+    private final List<Avatar> avatars;
+
+    private RecentReplies(String newestId, long newestTimestamp, List<Avatar> avatars) {
+        this.newestId = newestId;
+        this.newestTimestamp = newestTimestamp;
+        this.avatars = avatars;
+    }
+
+    public static RecentReplies of(List<Opinion> replies) {
+        return EMPTY.withAdded(replies);
+    }
+
+    public boolean isEmpty() {
+        return newestId == null;
+    }
+
+    /**
+     * Avatar urls of the most recent distinct repliers, newest first.
+     */
+    public ArrayList<String> getAvatars() {
+        ArrayList<String> urls = new ArrayList<>(avatars.size());
+        for (Avatar avatar : avatars) {
+            urls.add(avatar.url);
+        }
+        return urls;
+    }
+
+    public RecentReplies withAdded(Opinion reply) {
+        return withAdded(Collections.singletonList(reply));
+    }
+
+    public RecentReplies withAdded(List<Opinion> added) {
+        if (added.isEmpty()) return this;
+
+        String newest = newestId;
+        long newestTime = newestTimestamp;
+        List<Avatar> recent = null;
+        for (Opinion reply : added) {
+            // Strictly newer, so the first of equal timestamps stays newest
+            if (newest == null || reply.getTimestamp() > newestTime) {
+                newest = reply.getId();
+                newestTime = reply.getTimestamp();
+            }
+            List<Avatar> updated = withAvatar(recent != null ? recent : avatars, reply);
+            if (updated != null) {
+                recent = updated;
+            }
+        }
+        return new RecentReplies(newest, newestTime, recent != null ? recent : avatars);
+    }
+
+    /**
+     * Avatar list with {@code reply}'s avatar placed, or null if it doesn't change.
+     */
+    private static List<Avatar> withAvatar(List<Avatar> current, Opinion reply) {
+        String url = reply.getProfileImage();
+        if (url == null || url.isEmpty()) return null;
+        long timestamp = reply.getTimestamp();
+
+        int existing = -1;
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i).url.equals(url)) {
+                existing = i;
+                break;
+            }
+        }
+        if (existing != -1 && current.get(existing).timestamp >= timestamp) return null;
+        if (existing == -1 && current.size() >= AVATAR_COUNT
+                && current.get(current.size() - 1).timestamp >= timestamp) {
+            return null;
+        }
+
+        List<Avatar> updated = new ArrayList<>(AVATAR_COUNT + 1);
+        for (int i = 0; i < current.size(); i++) {
+            if (i != existing) updated.add(current.get(i));
+        }
+        int position = 0;
+        while (position < updated.size() && updated.get(position).timestamp >= timestamp) {
+            position++;
+        }
+        updated.add(position, new Avatar(url, reply.getId(), timestamp));
+        if (updated.size() > AVATAR_COUNT) {
+            updated.remove(updated.size() - 1);
+        }
+        return updated;
+    }
+
+    /**
+     * State after {@code removed} left the thread; {@code remaining} is the list
+     * without it, rescanned only if the removed reply was tracked here.
+     */
+    public RecentReplies withRemoved(Opinion removed, List<Opinion> remaining) {
+        String id = removed.getId();
+        boolean tracked = id.equals(newestId);
+        for (int i = 0; !tracked && i < avatars.size(); i++) {
+            tracked = avatars.get(i).replyId.equals(id);
+        }
+        return tracked ? of(remaining) : this;
+    }
+}
@@ -0,0 +1,82 @@
+package com.philonet.ai;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * "5 minutes ago" style labels for the API's ISO 8601 timestamps.
+ *
+ * The caller passes the current time, so results are deterministic for a given
+ * input. Date formats are created once per thread instead of on every call.
+ */
+public final class RelativeTime {
+
+    private static final ThreadLocal<SimpleDateFormat> ISO_FORMAT = ThreadLocal.withInitial(() -> {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    });
+
+    private static final ThreadLocal<SimpleDateFormat> FALLBACK_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("MMM d, yyyy"));
+
+    private RelativeTime() {
+    }
+
+    public static String format(String isoTimestamp, long nowMs) {
+        Date date;
+        try {
+            date = ISO_FORMAT.get().parse(isoTimestamp);
+        } catch (ParseException | RuntimeException e) {
+            return "Unknown time";
+        }
+
+        long seconds = (nowMs - date.getTime()) / 1000;
+
+        // Future timestamps
+        if (seconds < 0) {
+            return "in the future";
+        }
+        if (seconds < 60) {
+            return seconds <= 1 ? "just now" : seconds + " seconds ago";
+        }
+
+        long minutes = seconds / 60;
+        if (minutes < 60) {
+            return minutes == 1 ? "1 minute ago" : minutes + " minutes ago";
+        }
+
+        long hours = minutes / 60;
+        if (hours < 24) {
+            return hours == 1 ? "1 hour ago" : hours + " hours ago";
+        }
+
+        long days = hours / 24;
+        if (days < 7) {
+            return days == 1 ? "1 day ago" : days + " days ago";
+        }
+
+        long weeks = days / 7;
+        if (weeks < 4) {
+            return weeks == 1 ? "1 week ago" : weeks + " weeks ago";
+        }
+
+        // Months (approximate)
+        long months = days / 30;
+        if (months < 12) {
+            return months == 1 ? "1 month ago" : months + " months ago";
+        }
+
+        long years = days / 365;
+        if (years == 1) {
+            return "1 year ago";
+        } else if (years < 5) {
+            return years + " years ago";
+        }
+
+        // For very old timestamps, fall back to date format
+        return FALLBACK_FORMAT.get().format(date);
+    }
+}
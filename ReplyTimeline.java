@@ -0,0 +1,106 @@
+package com.philonet.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Insertion into a reply list kept in ascending timestamp order.
+ *
+ * New replies almost always belong at the end, so both operations check that
+ * first. Out-of-order arrivals are placed by binary search (one reply) or by a
+ * linear merge of two sorted runs (a batch); the list is never re-sorted. Replies
+ * with equal timestamps keep their arrival order.
+ */
+public final class ReplyTimeline {
+
+    private static final Comparator<Opinion> BY_TIMESTAMP =
+            (o1, o2) -> Long.compare(o1.getTimestamp(), o2.getTimestamp());
+
+    private ReplyTimeline() {
+    }
+
+    /**
+     * Index after the last reply with a timestamp at or before {@code timestamp}.
+     */
+    public static int insertionPoint(List<Opinion> ordered, long timestamp) {
+        int low = 0;
+        int high = ordered.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ordered.get(mid).getTimestamp() <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * New list with {@code reply} at its chronological position.
+     */
+    public static List<Opinion> insert(List<Opinion> ordered, Opinion reply) {
+        List<Opinion> result = new ArrayList<>(ordered.size() + 1);
+        int size = ordered.size();
+        if (size == 0 || ordered.get(size - 1).getTimestamp() <= reply.getTimestamp()) {
+            result.addAll(ordered);
+            result.add(reply);
+            return result;
+        }
+        int index = insertionPoint(ordered, reply.getTimestamp());
+        result.addAll(ordered.subList(0, index));
+        result.add(reply);
+        result.addAll(ordered.subList(index, size));
+        return result;
+    }
+
+    /**
+     * New list with every reply of {@code batch} merged in. The batch is usually a
+     * page in server order already; it is only sorted (k log k) when it isn't.
+     */
+    public static List<Opinion> merge(List<Opinion> ordered, List<Opinion> batch) {
+        List<Opinion> incoming = batch;
+        if (!isOrdered(incoming)) {
+            incoming = new ArrayList<>(batch);
+            Collections.sort(incoming, BY_TIMESTAMP);
+        }
+
+        List<Opinion> result = new ArrayList<>(ordered.size() + incoming.size());
+        int size = ordered.size();
+        if (incoming.isEmpty()) {
+            result.addAll(ordered);
+            return result;
+        }
+
+        // Everything before the first new reply is copied as is
+        int i = insertionPoint(ordered, incoming.get(0).getTimestamp());
+        result.addAll(ordered.subList(0, i));
+        int j = 0;
+        while (i < size && j < incoming.size()) {
+            // Existing replies win ties so equal timestamps keep arrival order
+            if (ordered.get(i).getTimestamp() <= incoming.get(j).getTimestamp()) {
+                result.add(ordered.get(i++));
+            } else {
+                result.add(incoming.get(j++));
+            }
+        }
+        if (i < size) {
+            result.addAll(ordered.subList(i, size));
+        }
+        if (j < incoming.size()) {
+            result.addAll(incoming.subList(j, incoming.size()));
+        }
+        return result;
+    }
+
+    private static boolean isOrdered(List<Opinion> replies) {
+        for (int i = 1; i < replies.size(); i++) {
+            if (replies.get(i - 1).getTimestamp() > replies.get(i).getTimestamp()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.text.Spannable;
+import android.text.SpannableStringBuilder;
+import android.text.SpannedString;
+import android.text.style.BackgroundColorSpan;
+import android.text.style.UnderlineSpan;
+import android.util.LruCache;
+
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Turns an AI summary plus its highlights into a ready-to-bind render model.
+ *
+ * Parsing, paragraph formatting, highlight spans and text measurement are all
+ * done off the UI thread. The formatted sections are kept in a process-wide cache keyed by a
+ * hash of the summary, the highlight phrases, the theme and the text size, so reopening an
+ * article or rotating the screen only measures the text again. The cache holds immutable
+ * {@link SpannedString}s; every render measures them into new precomputed text, so a view
+ * that adds spans to its text can't change what the next screen gets.
+ */
+public class SummaryRenderer {
+
+    private static final int CACHE_SIZE = 8;
+    private static final int HIGHLIGHT_COLOR_LIGHT = 0xFFBDD1F9;
+    private static final int HIGHLIGHT_COLOR_DARK = 0xFF4FA4E9;
+
+    private static final LruCache<String, List<Section>> CACHE = new LruCache<>(CACHE_SIZE);
+
+    /**
+     * One item of the rendered summary: either formatted text or a table.
+     */
+    public static class Section {
+        public final CharSequence text;
+        public final String[][] table;
+
+        private Section(CharSequence text, String[][] table) {
+            this.text = text;
+            this.table = table;
+        }
+
+        public boolean isTable() {
+            return table != null;
+        }
+    }
+
+    public static class RenderModel {
+        public final List<Section> sections;
+
+        RenderModel(List<Section> sections) {
+            this.sections = Collections.unmodifiableList(sections);
+        }
+    }
+
+    /**
+     * Content key for a summary render. Cheap enough for the UI thread.
+     */
+    public static String cacheKey(String summary, List<String> phrases, boolean darkMode,
+                                  PrecomputedTextCompat.Params textParams) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(summary.getBytes(StandardCharsets.UTF_8));
+            for (String phrase : phrases) {
+                digest.update((byte) 0);
+                digest.update(phrase.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) (darkMode ? 1 : 0));
+            // Precomputed text only binds to views with the same metrics
+            int textSizeBits = Float.floatToIntBits(textParams.getTextPaint().getTextSize());
+            digest.update(new byte[]{
+                    (byte) (textSizeBits >>> 24), (byte) (textSizeBits >>> 16),
+                    (byte) (textSizeBits >>> 8), (byte) textSizeBits
+            });
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return summary.hashCode() + ":" + phrases.hashCode() + ":" + darkMode
+                    + ":" + textParams.getTextPaint().getTextSize();
+        }
+    }
+
+    /**
+     * Builds a render model, formatting the summary only if it isn't cached.
+     * Subscribe on a background scheduler.
+     *
+     * @param context    an application context; the cache outlives any activity
+     * @param textParams metrics of the views the text will be shown in
+     */
+    public static Single<RenderModel> render(Context context, String key, String summary,
+                                             List<String> phrases, boolean darkMode,
+                                             PrecomputedTextCompat.Params textParams) {
+        return Single.fromCallable(() -> {
+            List<Section> formatted = CACHE.get(key);
+            if (formatted == null) {
+                formatted = format(context, summary, phrases, darkMode);
+                CACHE.put(key, formatted);
+            }
+            return measure(formatted, textParams);
+        });
+    }
+
+    /**
+     * Measures glyphs here so binding a section doesn't.
+     */
+    private static RenderModel measure(List<Section> formatted, PrecomputedTextCompat.Params textParams) {
+        List<Section> sections = new ArrayList<>(formatted.size());
+        for (Section section : formatted) {
+            sections.add(section.isTable()
+                    ? section
+                    : new Section(PrecomputedTextCompat.create(section.text, textParams), null));
+        }
+        return new RenderModel(sections);
+    }
+
+    private static List<Section> format(Context context, String summary, List<String> phrases, boolean darkMode) {
+        HighlightMatcher highlightMatcher = HighlightMatcher.build(phrases);
+        int highlightColor = darkMode ? HIGHLIGHT_COLOR_DARK : HIGHLIGHT_COLOR_LIGHT;
+
+        List<Section> sections = new ArrayList<>();
+        for (MarkdownTableTokenizer.Segment segment : MarkdownTableTokenizer.tokenize(summary)) {
+            if (segment.isTable()) {
+                sections.add(new Section(null, segment.table));
+                continue;
+            }
+
+            SpannableStringBuilder formattedText = new SpannableStringBuilder(
+                    StandardParagraphFormatter.formatParagraphs(
+                            segment.text.replace("#", ""),
+                            darkMode,
+                            context
+                    )
+            );
+
+            // Apply highlights to every occurrence in this text section, in one pass
+            int[] ranges = highlightMatcher.findRanges(formattedText);
+            for (int r = 0; r < ranges.length; r += 2) {
+                formattedText.setSpan(new BackgroundColorSpan(highlightColor),
+                        ranges[r], ranges[r + 1], Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+                formattedText.setSpan(new UnderlineSpan(),
+                        ranges[r], ranges[r + 1], Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+            sections.add(new Section(new SpannedString(formattedText), null));
+        }
+
+        return Collections.unmodifiableList(sections);
+    }
+}
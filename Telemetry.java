@@ -0,0 +1,114 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Off-main-thread front for {@link HistoryManager} and {@link AnalyticsManager}
+ * tracking calls and for {@link PerformanceReporter} aggregates.
+ *
+ * Each call only records the event in a {@link TelemetryPipeline}; the real
+ * manager call happens later, in a batch, on the pipeline thread. Events survive
+ * process death on disk and are delivered by the next process if needed.
+ */
+public final class Telemetry {
+
+    private static final String TAG = "Telemetry";
+    private static final String PERF_TAG = "PerfMetric";
+
+    private static final String KIND_COMMENT_CREATED = "comment_created";
+    private static final String KIND_AI_QUERY = "ai_query";
+    private static final String KIND_PERF_METRIC = "perf_metric";
+
+    private static volatile Telemetry instance;
+
+    private final TelemetryPipeline pipeline;
+
+    private Telemetry(Context context) {
+        Context app = context.getApplicationContext();
+        pipeline = new TelemetryPipeline(new File(app.getFilesDir(), "telemetry"), Telemetry::deliver);
+    }
+
+    /**
+     * Safe to call from every screen; the first call wins. The managers events are
+     * forwarded to must be initialized too.
+     */
+    public static void initialize(Context context) {
+        if (instance != null) return;
+        synchronized (Telemetry.class) {
+            if (instance == null) {
+                instance = new Telemetry(context);
+            }
+        }
+    }
+
+    public static Telemetry getInstance() {
+        Telemetry telemetry = instance;
+        if (telemetry == null) {
+            throw new IllegalStateException("Telemetry.initialize() was not called");
+        }
+        return telemetry;
+    }
+
+    public void trackCommentCreated(int articleId, String commentId, String content, String title,
+                                    int parentCommentId, String source) {
+        pipeline.track(KIND_COMMENT_CREATED, articleId, commentId, content, title, parentCommentId, source);
+    }
+
+    public void trackAIQuery(String contentId, String feature, String mode, int queryLength, boolean voiceInput,
+                             boolean hasContext, long responseTimeMs, boolean success, boolean cached,
+                             String targetScreen) {
+        pipeline.track(KIND_AI_QUERY, contentId, feature, mode, queryLength, voiceInput, hasContext,
+                responseTimeMs, success, cached, targetScreen);
+    }
+
+    /**
+     * @param params the aggregate as a JSON object, see {@link PerformanceReporter}
+     */
+    public void trackPerfMetric(String metric, String params) {
+        pipeline.track(KIND_PERF_METRIC, metric, params);
+    }
+
+    /**
+     * Persists what was tracked so far, e.g. from onPause.
+     */
+    public void flush() {
+        pipeline.flush();
+    }
+
+    // Pipeline thread. Record layout: kind, time, then the track* arguments in order
+    private static void deliver(JSONArray record) throws IOException {
+        String kind = record.optString(0);
+        try {
+            switch (kind) {
+                case KIND_COMMENT_CREATED:
+                    HistoryManager.getInstance().trackCommentCreated(
+                            String.valueOf(record.optInt(2)), record.optString(3), record.optString(4),
+                            record.optString(5), String.valueOf(record.optInt(6)),
+                            "", 0, 0, "", 0, 0, record.optString(7));
+                    break;
+                case KIND_AI_QUERY:
+                    AnalyticsManager.getInstance().trackAIQuery(
+                            record.optString(2), record.optString(3), record.optString(4), record.optInt(5),
+                            record.optBoolean(6), record.optBoolean(7), record.optLong(8),
+                            record.optBoolean(9), record.optBoolean(10), record.optString(11));
+                    break;
+                case KIND_PERF_METRIC:
+                    // AnalyticsManager has no generic event call, so metrics are
+                    // delivered to logcat, one line per aggregate
+                    Log.i(PERF_TAG, record.optString(2) + " " + record.optString(3));
+                    break;
+                default:
+                    Log.w(TAG, "Unknown event " + kind);
+            }
+        } catch (RuntimeException e) {
+            // E.g. a manager not initialized in this process yet; this record is retried later
+            throw new IOException("Cannot deliver " + kind, e);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.philonet.ai;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fire-and-forget event pipeline: {@link #track} -> in-memory ring -> append-only
+ * log on disk -> batches -> {@link Sink}.
+ *
+ * Tracking only puts the event in a {@link TelemetryRing}. The first event into an
+ * empty ring schedules a drain {@link #DRAIN_DELAY_MS} later, which writes the
+ * ring to {@code events.log}, one JSON array per line, and flushes it, so a
+ * killed process loses at most the events of that window. The first write after
+ * an upload schedules the next one {@link #UPLOAD_DELAY_MS} later; it, and a run
+ * at start for anything left by a previous process, seals the log into a batch
+ * file and delivers the batches oldest first, one record at a time. With nothing
+ * tracked, the pipeline thread stays asleep.
+ *
+ * Each batch has a progress file with the number of records delivered, written
+ * after every record, so a retry resumes where delivery stopped and a crash
+ * repeats at most the record in flight. A record that fails
+ * {@link #MAX_ATTEMPTS} rounds in a row is moved to {@code quarantine.log} and
+ * delivery goes on, so one bad record can't hold back everything after it.
+ */
+public class TelemetryPipeline {
+
+    private static final String TAG = "TelemetryPipeline";
+
+    public static final long DRAIN_DELAY_MS = 100;
+    public static final long UPLOAD_DELAY_MS = 60_000;
+    private static final int RING_CAPACITY = 4096;
+    private static final int MAX_BATCH_FILES = 50;
+    static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_QUARANTINE_BYTES = 256 * 1024;
+    private static final String LOG_NAME = "events.log";
+    private static final String QUARANTINE_NAME = "quarantine.log";
+    private static final String BATCH_PREFIX = "batch-";
+    private static final String BATCH_SUFFIX = ".log";
+    private static final String PROGRESS_SUFFIX = ".progress";
+
+    /**
+     * Receives sealed records one at a time, in order, on the pipeline thread.
+     * Throwing stops the round; the same record is offered again next round.
+     */
+    public interface Sink {
+        void deliver(JSONArray record) throws IOException;
+    }
+
+    private static final class Event {
+        final String kind;
+        final long at;
+        final Object[] fields;
+
+        Event(String kind, long at, Object[] fields) {
+            this.kind = kind;
+            this.at = at;
+            this.fields = fields;
+        }
+    }
+
+    private final File dir;
+    private final Sink sink;
+    private final TelemetryRing<Event> ring = new TelemetryRing<>(RING_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, TAG));
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Worker thread only
+    private final List<Event> drained = new ArrayList<>();
+    private Writer log;
+    private ScheduledFuture<?> pendingUpload;
+
+    public TelemetryPipeline(File dir, Sink sink) {
+        this.dir = dir;
+        this.sink = sink;
+        worker.execute(this::upload);
+    }
+
+    /**
+     * Records an event; {@code fields} must be strings, numbers or booleans. Never
+     * blocks; if the writer is a full ring behind, the event is dropped and counted.
+     */
+    public void track(String kind, Object... fields) {
+        if (!ring.offer(new Event(kind, System.currentTimeMillis(), fields))) {
+            dropped.incrementAndGet();
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        try {
+            worker.schedule(this::scheduledDrain, DRAIN_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shut down
+        }
+    }
+
+    private void scheduledDrain() {
+        drainScheduled.set(false);
+        drain();
+        // A producer still publishing into its slot, or events tracked meanwhile
+        if (ring.size() > 0) scheduleDrain();
+    }
+
+    private void scheduleUpload() {
+        if (pendingUpload != null) return;
+        pendingUpload = worker.schedule(this::upload, UPLOAD_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes everything tracked so far to disk now, e.g. when the app goes to the
+     * background.
+     */
+    public void flush() {
+        try {
+            worker.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Shut down
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        try {
+            while (ring.drainTo(drained, RING_CAPACITY) > 0) {
+                Writer writer = openLog();
+                for (Event event : drained) {
+                    writer.write(encode(event));
+                    writer.write('\n');
+                }
+                drained.clear();
+                scheduleUpload();
+            }
+            // Reaches the OS, which survives the process being killed
+            if (log != null) log.flush();
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Dropping " + drained.size() + " events", e);
+            drained.clear();
+            closeLog();
+        }
+    }
+
+    private static String encode(Event event) throws JSONException {
+        JSONArray record = new JSONArray();
+        record.put(event.kind);
+        record.put(event.at);
+        for (Object field : event.fields) {
+            record.put(field);
+        }
+        return record.toString();
+    }
+
+    private Writer openLog() throws IOException {
+        if (log == null) {
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            log = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(new File(dir, LOG_NAME), true), StandardCharsets.UTF_8));
+        }
+        return log;
+    }
+
+    private void closeLog() {
+        if (log == null) return;
+        try {
+            log.close();
+        } catch (IOException ignored) {
+            // Reopened in append mode next time
+        }
+        log = null;
+    }
+
+    private void upload() {
+        drain();
+        // This run covers what the drain just wrote
+        if (pendingUpload != null) {
+            pendingUpload.cancel(false);
+            pendingUpload = null;
+        }
+        closeLog();
+        try {
+            seal();
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot seal event log", e);
+        }
+
+        File[] batches = dir.listFiles((d, name) -> name.startsWith(BATCH_PREFIX) && name.endsWith(BATCH_SUFFIX));
+        if (batches == null || batches.length == 0) return;
+        // Names carry the sealing time, so this is oldest first
+        Arrays.sort(batches);
+        for (int i = 0; i < batches.length - MAX_BATCH_FILES; i++) {
+            Log.w(TAG, "Too many pending batches, deleting " + batches[i].getName());
+            batches[i].delete();
+            progressFileOf(batches[i]).delete();
+        }
+        for (int i = Math.max(0, batches.length - MAX_BATCH_FILES); i < batches.length; i++) {
+            if (!deliverBatch(batches[i])) {
+                scheduleUpload();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delivers the records of {@code batch} not delivered yet. True once all are
+     * delivered or quarantined and the batch is deleted; false to retry later.
+     */
+    private boolean deliverBatch(File batch) {
+        File progressFile = progressFileOf(batch);
+        int[] progress = readProgress(progressFile);
+        List<JSONArray> records;
+        try {
+            records = read(batch);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read " + batch.getName(), e);
+            return false;
+        }
+
+        for (int i = progress[0]; i < records.size(); i++) {
+            JSONArray record = records.get(i);
+            try {
+                sink.deliver(record);
+            } catch (IOException | RuntimeException e) {
+                if (++progress[1] < MAX_ATTEMPTS) {
+                    Log.w(TAG, "Delivery failed, keeping " + batch.getName() + " from record " + i, e);
+                    writeProgress(progressFile, i, progress[1]);
+                    return false;
+                }
+                Log.e(TAG, "Quarantining " + record.optString(0) + " after " + MAX_ATTEMPTS + " attempts", e);
+                quarantine(record);
+            }
+            progress[1] = 0;
+            writeProgress(progressFile, i + 1, 0);
+        }
+        batch.delete();
+        progressFile.delete();
+        return true;
+    }
+
+    private static File progressFileOf(File batch) {
+        return new File(batch.getPath() + PROGRESS_SUFFIX);
+    }
+
+    /**
+     * {records delivered, failed attempts at the next one}; zeros when missing or torn.
+     */
+    private static int[] readProgress(File file) {
+        if (!file.exists()) return new int[2];
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String[] parts = reader.readLine().trim().split(" ");
+            return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+        } catch (IOException | RuntimeException e) {
+            // Starting over repeats records, which at-least-once allows
+            Log.w(TAG, "Unreadable progress " + file.getName(), e);
+            return new int[2];
+        }
+    }
+
+    private static void writeProgress(File file, int delivered, int attempts) {
+        File partial = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(partial), StandardCharsets.UTF_8)) {
+            writer.write(delivered + " " + attempts);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot save progress " + file.getName(), e);
+            return;
+        }
+        if (!partial.renameTo(file)) {
+            partial.delete();
+        }
+    }
+
+    private void quarantine(JSONArray record) {
+        File file = new File(dir, QUARANTINE_NAME);
+        if (file.length() > MAX_QUARANTINE_BYTES) {
+            file.delete();
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(record.toString());
+            writer.write('\n');
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot quarantine record", e);
+        }
+    }
+
+    private void seal() throws IOException {
+        File raw = new File(dir, LOG_NAME);
+        if (!raw.exists() || raw.length() == 0) return;
+        File batch = new File(dir, String.format(Locale.US, "%s%013d%s", BATCH_PREFIX, System.currentTimeMillis(), BATCH_SUFFIX));
+        if (!raw.renameTo(batch)) {
+            throw new IOException("Cannot rename " + raw);
+        }
+    }
+
+    private static List<JSONArray> read(File batch) throws IOException {
+        List<JSONArray> records = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(batch), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                try {
+                    records.add(new JSONArray(line));
+                } catch (JSONException e) {
+                    // A line cut short by a crash mid-write
+                    Log.w(TAG, "Skipping torn record in " + batch.getName());
+                }
+            }
+        }
+        return records;
+    }
+
+    public void shutdown() {
+        flush();
+        worker.shutdown();
+    }
+}
@@ -0,0 +1,73 @@
+package com.philonet.ai;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for telemetry events: any number of producers, one
+ * consumer.
+ *
+ * A producer claims a sequence number with one CAS and publishes into that slot;
+ * it never blocks or allocates. When the consumer falls a full ring behind,
+ * {@link #offer} refuses the event instead of waiting, and the caller counts it
+ * as dropped.
+ */
+public final class TelemetryRing<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public TelemetryRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Any thread. False if the ring is full. */
+    public boolean offer(T item) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) return false;
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) (sequence & mask), item);
+        return true;
+    }
+
+    /**
+     * Consumer thread only. Moves up to {@code max} items into {@code out} in offer
+     * order and returns how many. Stops early at a slot that was claimed but not
+     * yet published; the next drain picks it up.
+     */
+    public int drainTo(List<T> out, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            T item = slots.get(index);
+            if (item == null) break;
+            slots.lazySet(index, null);
+            out.add(item);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /** Approximate; for stats only. */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,169 @@
+package com.philonet.ai;
+
+import java.util.List;
+
+/**
+ * Inputs to {@link ThreadReducer}. Every change to the reply list, a reply's
+ * content or reactions, or the pagination state of a thread is described by one of these and applied by
+ * {@link ThreadStateStore}, whatever thread it came from.
+ */
+public abstract class ThreadAction {
+
+    public enum Direction {
+        OLDER, NEWER
+    }
+
+    /** How a page replaces or extends the current replies. */
+    public enum PageKind {
+        /** Initial or focused load: the page becomes the list. */
+        REPLACE,
+        /** Jump to latest: the page becomes the list and the thread is at its end. */
+        LATEST,
+        /** Silent catch-up with the newest page, appending what we don't have yet. */
+        RECENT
+    }
+
+    private ThreadAction() {
+    }
+
+    /** Pagination back to "nothing more to load", keeping the replies. */
+    public static final class ResetPagination extends ThreadAction {
+    }
+
+    /** Stops paging in both directions, keeping the cursors. */
+    public static final class StopPaging extends ThreadAction {
+    }
+
+    /** A page request went out with {@code cursor}. */
+    public static final class PageRequested extends ThreadAction {
+        public final Direction direction;
+        public final String cursor;
+
+        public PageRequested(Direction direction, String cursor) {
+            this.direction = direction;
+            this.cursor = cursor;
+        }
+    }
+
+    /** No usable cursor is left in {@code direction}. */
+    public static final class PagingExhausted extends ThreadAction {
+        public final Direction direction;
+
+        public PagingExhausted(Direction direction) {
+            this.direction = direction;
+        }
+    }
+
+    public static final class PageLoaded extends ThreadAction {
+        public final PageKind kind;
+        public final CommentsResponse response;
+
+        public PageLoaded(PageKind kind, CommentsResponse response) {
+            this.kind = kind;
+            this.response = response;
+        }
+    }
+
+    /** An older or newer page arrived while scrolling. */
+    public static final class MorePageLoaded extends ThreadAction {
+        public final Direction direction;
+        public final CommentsResponse response;
+        public final int pageSize;
+
+        public MorePageLoaded(Direction direction, CommentsResponse response, int pageSize) {
+            this.direction = direction;
+            this.response = response;
+            this.pageSize = pageSize;
+        }
+    }
+
+    /** Someone else's reply arrived over the socket. Own replies are ignored. */
+    public static final class MessageReceived extends ThreadAction {
+        public final Opinion message;
+        public final String currentUserId;
+
+        public MessageReceived(Opinion message, String currentUserId) {
+            this.message = message;
+            this.currentUserId = currentUserId;
+        }
+    }
+
+    /** Replies found to be newer than the newest one shown, e.g. after a resume. */
+    public static final class NewerMessagesFound extends ThreadAction {
+        public final List<Opinion> messages;
+
+        public NewerMessagesFound(List<Opinion> messages) {
+            this.messages = messages;
+        }
+    }
+
+    public static final class OptimisticSent extends ThreadAction {
+        public final Opinion message;
+
+        public OptimisticSent(Opinion message) {
+            this.message = message;
+        }
+    }
+
+    /** The server stored the reply sent as {@code tempId}. */
+    public static final class SendAcked extends ThreadAction {
+        public final String tempId;
+        public final Opinion realMessage;
+
+        public SendAcked(String tempId, Opinion realMessage) {
+            this.tempId = tempId;
+            this.realMessage = realMessage;
+        }
+    }
+
+    public static final class SendFailed extends ThreadAction {
+        public final String tempId;
+
+        public SendFailed(String tempId) {
+            this.tempId = tempId;
+        }
+    }
+
+    /** A reply was deleted; it stays in place showing {@code placeholder}. */
+    public static final class MessageDeleted extends ThreadAction {
+        public final String id;
+        public final String placeholder;
+
+        public MessageDeleted(String id, String placeholder) {
+            this.id = id;
+            this.placeholder = placeholder;
+        }
+    }
+
+    /** The current user edited one of their replies. */
+    public static final class MessageEdited extends ThreadAction {
+        public final String id;
+        public final String message;
+        public final String title;
+
+        public MessageEdited(String id, String message, String title) {
+            this.id = id;
+            this.message = message;
+            this.title = title;
+        }
+    }
+
+    /**
+     * New reaction state of a reply; {@code userReaction} only counts if
+     * {@code userReactionKnown}. A null {@code total} means only the user's own
+     * reaction changed, e.g. on a tap, and the total follows it.
+     */
+    public static final class ReactionChanged extends ThreadAction {
+        public final String targetId;
+        public final Integer total;
+        public final boolean userReactionKnown;
+        public final String userReaction;
+
+        public ReactionChanged(String targetId, Integer total, boolean userReactionKnown, String userReaction) {
+            this.targetId = targetId;
+            this.total = total;
+            this.userReactionKnown = userReactionKnown;
+            this.userReaction = userReaction;
+        }
+    }
+}
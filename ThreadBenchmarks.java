@@ -0,0 +1,628 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * On-device checks for the thread screen's hot paths. Debug builds run them when
+ * the activity is launched with {@code EXTRA_RUN_BENCHMARKS}; each one logs its
+ * result under {@link #TAG} from a background thread and never touches the
+ * network or the views.
+ */
+public final class ThreadBenchmarks {
+
+    public static final String TAG = "ThreadBenchmarks";
+
+    // Read after every timed loop so the JIT can't drop the work
+    private static long sink;
+
+    private ThreadBenchmarks() {
+    }
+
+    /**
+     * @param context an application context; the table benchmark builds views
+     *                that are never attached
+     */
+    public static void runAll(Context context) {
+        HandlerThread thread = new HandlerThread(TAG);
+        thread.start();
+        Handler handler = new Handler(thread.getLooper());
+        handler.post(ThreadBenchmarks::highlightMatching);
+        handler.post(ThreadBenchmarks::tableTokenizing);
+        handler.post(() -> tableLayout(context));
+        handler.post(ThreadBenchmarks::mentionIndex);
+        handler.post(ThreadBenchmarks::pageDecode);
+        handler.post(ThreadBenchmarks::pageMerge);
+        // These run over many frames or seconds, so each starts when the previous one is done
+        handler.post(() -> scrollFling(context,
+                () -> stallWatchdog(handler, () -> reactionTaps(handler, thread::quitSafely))));
+    }
+
+    /**
+     * Average time of {@code op} over {@code iterations} runs, after as many
+     * warm-up runs.
+     */
+    static long nanosPerOp(int iterations, Runnable op) {
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    /**
+     * Random lowercase words from a fixed seed, so every run sees the same text.
+     */
+    static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder(count * 7);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) text.append(i % 12 == 0 ? ". " : " ");
+            int length = 2 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Summary highlighting: the old per-highlight indexOf loop against one
+     * {@link HighlightMatcher} pass, on a 20-section summary with 10, 100 and 1000
+     * highlighted phrases taken from the text.
+     */
+    static void highlightMatching() {
+        Random random = new Random(29);
+        List<String> sections = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sections.add(words(random, 150));
+        }
+        for (int highlightCount : new int[]{10, 100, 1000}) {
+            List<String> highlights = new ArrayList<>();
+            for (int i = 0; i < highlightCount; i++) {
+                String section = sections.get(random.nextInt(sections.size()));
+                int start = random.nextInt(section.length() - 40);
+                highlights.add(section.substring(start, start + 10 + random.nextInt(30)));
+            }
+
+            // The indexOf loop takes milliseconds per pass at 1000 phrases
+            int iterations = highlightCount >= 1000 ? 50 : 500;
+            long indexOfNs = nanosPerOp(iterations, () -> {
+                for (String section : sections) {
+                    for (String highlight : highlights) {
+                        sink += section.indexOf(highlight);
+                    }
+                }
+            });
+            long buildNs = nanosPerOp(iterations, () -> sink += HighlightMatcher.build(highlights).isEmpty() ? 0 : 1);
+            HighlightMatcher matcher = HighlightMatcher.build(highlights);
+            long matcherNs = nanosPerOp(iterations, () -> {
+                for (String section : sections) {
+                    sink += matcher.findRanges(section).length;
+                }
+            });
+            Log.i(TAG, String.format(Locale.US,
+                    "highlights: %d phrases over 20 sections: indexOf %.1f us, matcher %.1f us + build %.1f us (%d)",
+                    highlightCount, indexOfNs / 1000.0, matcherNs / 1000.0, buildNs / 1000.0, sink & 1));
+        }
+    }
+
+    /**
+     * Summary table parsing: the regex and split based parser that
+     * {@link MarkdownTableTokenizer} replaced, against the tokenizer. One summary
+     * has 12 paragraphs and 3 tables of 20 rows by 5 columns (about 9.5 KB); the
+     * other has 16 paragraphs and 4 tables of 30 rows by 24 columns (about 50 KB).
+     */
+    static void tableTokenizing() {
+        Random random = new Random(31);
+        tableTokenizing(tableSummary(random, 3, 20, 5), 1000);
+        tableTokenizing(tableSummary(random, 4, 30, 24), 200);
+    }
+
+    private static void tableTokenizing(String input, int iterations) {
+        long regexNs = nanosPerOp(iterations, () -> sink += regexTables(input));
+        long tokenizerNs = nanosPerOp(iterations, () -> sink += MarkdownTableTokenizer.tokenize(input).size());
+        Log.i(TAG, String.format(Locale.US, "tables: %d chars, regex parser %.1f us, tokenizer %.1f us (%d)",
+                input.length(), regexNs / 1000.0, tokenizerNs / 1000.0, sink & 1));
+    }
+
+    /**
+     * {@code tables} blocks of four 60-word paragraphs followed by a table with a
+     * header, a delimiter row and {@code rows - 1} body rows.
+     */
+    private static String tableSummary(Random random, int tables, int rows, int columns) {
+        StringBuilder summary = new StringBuilder();
+        for (int block = 0; block < tables; block++) {
+            for (int i = 0; i < 4; i++) {
+                summary.append(words(random, 60)).append("\n\n");
+            }
+            for (int row = 0; row < rows; row++) {
+                summary.append('|');
+                for (int column = 0; column < columns; column++) {
+                    summary.append(' ').append(words(random, 2)).append(" |");
+                }
+                summary.append('\n');
+                if (row == 0) {
+                    summary.append('|');
+                    for (int column = 0; column < columns; column++) {
+                        summary.append("---|");
+                    }
+                    summary.append('\n');
+                }
+            }
+            summary.append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * The replaced parser's work: split into lines, match delimiter rows and split
+     * cells with regexes, then split the placeholder text back out.
+     */
+    private static int regexTables(String input) {
+        StringBuilder text = new StringBuilder();
+        int tables = 0;
+        int cells = 0;
+        boolean inTable = false;
+        for (String line : input.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("|") && trimmed.endsWith("|")) {
+                inTable = true;
+                if (!trimmed.matches("\\|[-:\\s|]*\\|")) {
+                    for (String column : trimmed.substring(1, trimmed.length() - 1).split("(?<!\\\\)\\|")) {
+                        cells += column.trim().replace("\\|", "|").length();
+                    }
+                }
+            } else {
+                if (inTable) {
+                    text.append("[TABLE_").append(tables++).append("]");
+                    inTable = false;
+                }
+                if (!trimmed.isEmpty()) text.append(line).append("\n");
+            }
+        }
+        return text.toString().trim().split("\\[TABLE_\\d+\\]").length + cells;
+    }
+
+    /**
+     * A 100 x 20 summary table: TableComponent building and measuring every cell,
+     * as the old summary did inside a HorizontalScrollView, against
+     * {@link VirtualTableView} measuring from text metrics and binding the cells
+     * of a 1080 px wide, one screen tall window. Both are as tall as their rows,
+     * as in the page's scroll view.
+     */
+    static void tableLayout(Context context) {
+        Random random = new Random(33);
+        String[][] table = new String[100][20];
+        for (int r = 0; r < table.length; r++) {
+            for (int c = 0; c < table[r].length; c++) {
+                table[r][c] = words(random, 1 + random.nextInt(r % 7 == 0 ? 12 : 3));
+            }
+        }
+        int unspecified = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+        for (int run = 0; run < 3; run++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            TableComponent component = new TableComponent(context, false);
+            component.setData(table);
+            component.measure(unspecified, unspecified);
+            component.layout(0, 0, component.getMeasuredWidth(), component.getMeasuredHeight());
+            long componentUs = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+
+            start = SystemClock.elapsedRealtimeNanos();
+            VirtualTableView virtual = new VirtualTableView(context);
+            virtual.setData(table);
+            virtual.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY), unspecified);
+            virtual.layout(0, 0, virtual.getMeasuredWidth(), virtual.getMeasuredHeight());
+            long virtualUs = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+
+            Log.i(TAG, String.format(Locale.US,
+                    "table 100x20 run %d: TableComponent %d us, VirtualTableView %d us with %d cell views",
+                    run, componentUs, virtualUs, virtual.getActiveCellCount()));
+        }
+    }
+
+    /**
+     * A fling down and back up over 2,000 replies. It compares the old per-pixel
+     * listener with {@link ThreadScrollController}. The old listener made two
+     * position lookups and re-set the jump button on every event. Each frame is one
+     * {@code scrollBy} from a Choreographer callback on this thread, on a laid-out,
+     * unattached RecyclerView of 120 px rows. The controller evaluates from its own
+     * frame callback, so each frame is measured as this thread's CPU time from one
+     * scroll to the next: layout plus scroll listener work, not drawing.
+     */
+    static void scrollFling(Context context, Runnable done) {
+        ImageView button = new ImageView(context);
+        int[] callbacks = new int[2];
+
+        RecyclerView.OnScrollListener perPixel = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                int first = layoutManager.findFirstVisibleItemPosition();
+                int last = layoutManager.findLastVisibleItemPosition();
+                int total = layoutManager.getItemCount();
+                sink += Math.max(0, first - 1) <= 10 || last - 1 >= total - 11 ? 1 : 0;
+                if (Math.abs(dy) >= 10 && first > 5 && last < total - 3) {
+                    button.setImageResource(R.drawable.baseline_keyboard_double_arrow_down_24);
+                    button.setContentDescription(dy > 0 ? "Jump to recent messages" : "Jump to top");
+                    button.setRotation(dy > 0 ? 0f : 180f);
+                    button.setOnClickListener(v -> sink++);
+                }
+                callbacks[0]++;
+            }
+        };
+        ThreadScrollController controller = new ThreadScrollController(1,
+                (previous, current) -> callbacks[1]++);
+
+        flingRuns(context, perPixel, controller, callbacks, 0, done);
+    }
+
+    private static void flingRuns(Context context, RecyclerView.OnScrollListener perPixel,
+                                  ThreadScrollController controller, int[] callbacks, int run, Runnable done) {
+        if (run == 2) {
+            done.run();
+            return;
+        }
+        callbacks[0] = 0;
+        callbacks[1] = 0;
+        fling(context, perPixel, perPixelNs -> fling(context, controller, controllerNs -> {
+            Log.i(TAG, String.format(Locale.US,
+                    "fling 2k replies run %d, %d frames, CPU per frame: per-pixel listener mean %.1f us p95 %.1f us "
+                            + "max %.1f us (%d events); controller mean %.1f us p95 %.1f us max %.1f us "
+                            + "(%d state changes)",
+                    run, perPixelNs.length,
+                    mean(perPixelNs) / 1000.0, percentile(perPixelNs, 95) / 1000.0, percentile(perPixelNs, 100) / 1000.0,
+                    callbacks[0],
+                    mean(controllerNs) / 1000.0, percentile(controllerNs, 95) / 1000.0,
+                    percentile(controllerNs, 100) / 1000.0, callbacks[1]));
+            flingRuns(context, perPixel, controller, callbacks, run + 1, done);
+        }));
+    }
+
+    private interface FlingListener {
+        void onFinished(long[] frameCpuNs);
+    }
+
+    /**
+     * Scrolls a fresh 2,001 row list to the end and back with a decaying fling
+     * speed, one step per frame, and reports the CPU time of each frame.
+     */
+    private static void fling(Context context, RecyclerView.OnScrollListener listener, FlingListener done) {
+        RecyclerView list = new RecyclerView(context);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        list.setAdapter(new RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+            @NonNull
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                TextView row = new TextView(parent.getContext());
+                row.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 120));
+                return new RecyclerView.ViewHolder(row) {
+                };
+            }
+
+            @Override
+            public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+                ((TextView) holder.itemView).setText(position == 0 ? "parent" : "reply " + position);
+            }
+
+            @Override
+            public int getItemCount() {
+                return 2001;
+            }
+        });
+        list.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(2000, View.MeasureSpec.EXACTLY));
+        list.layout(0, 0, 1080, 2000);
+        list.addOnScrollListener(listener);
+
+        List<Long> frames = new ArrayList<>();
+        Choreographer choreographer = Choreographer.getInstance();
+        choreographer.postFrameCallback(new Choreographer.FrameCallback() {
+            private int direction = 1;
+            private double speed = 2400;
+            private long frameStart = -1;
+
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                // Callbacks the last scroll posted ran before this one, so they count for that frame
+                long now = Debug.threadCpuTimeNanos();
+                if (frameStart >= 0) {
+                    frames.add(now - frameStart);
+                }
+                if (!list.canScrollVertically(direction)) {
+                    if (direction == -1) {
+                        list.removeOnScrollListener(listener);
+                        long[] times = new long[frames.size()];
+                        for (int i = 0; i < times.length; i++) {
+                            times[i] = frames.get(i);
+                        }
+                        done.onFinished(times);
+                        return;
+                    }
+                    direction = -1;
+                    speed = 2400;
+                }
+                frameStart = Debug.threadCpuTimeNanos();
+                list.scrollBy(0, direction * (int) speed);
+                speed = Math.max(40, speed * 0.995);
+                choreographer.postFrameCallback(this);
+            }
+        });
+    }
+
+    private static double mean(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return values.length == 0 ? 0 : (double) total / values.length;
+    }
+
+    private static long percentile(long[] values, int percent) {
+        if (values.length == 0) return 0;
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    /**
+     * Mention lookup in a 10k member room: {@link MentionIndex} fed 400 pages of 25
+     * people, as the drawer pages them in, then queried with 1 to 3 letter
+     * prefixes of the names.
+     */
+    static void mentionIndex() {
+        Random random = new Random(47);
+        List<List<MentionIndex.Person>> pages = new ArrayList<>();
+        for (int page = 0; page < 400; page++) {
+            List<MentionIndex.Person> people = new ArrayList<>(25);
+            for (int i = 0; i < 25; i++) {
+                int id = page * 25 + i;
+                people.add(new MentionIndex.Person("u" + id, words(random, 2), null, null));
+            }
+            pages.add(people);
+        }
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String name = pages.get(random.nextInt(pages.size())).get(random.nextInt(25)).name;
+            queries.add(name.substring(0, 1 + random.nextInt(3)));
+        }
+
+        MentionIndex index = new MentionIndex();
+        long start = System.nanoTime();
+        for (List<MentionIndex.Person> page : pages) {
+            index.addAll(page);
+        }
+        long indexMs = (System.nanoTime() - start) / 1_000_000;
+
+        long queryNs = nanosPerOp(1000, () -> {
+            for (String query : queries) {
+                sink += index.search(query, MentionSuggester.DEFAULT_LIMIT).size();
+            }
+        }) / queries.size();
+        Log.i(TAG, String.format(Locale.US, "mentions: %d people in %d pages indexed in %d ms, %d ns per query (%d)",
+                index.size(), pages.size(), indexMs, queryNs, sink & 1));
+    }
+
+    /**
+     * Reply page decoding as fetchComments does it: parse a 50-reply page of the
+     * subcomments API and turn every comment into an {@link Opinion}. The page is
+     * built in the API's shape, with quotes and reply previews on some replies.
+     */
+    static void pageDecode() {
+        String page = repliesPage(new Random(42), 100_000, 50);
+        long decodeNs = nanosPerOp(200, () -> sink += decodePage(page).size());
+        long bytes = allocatedBytes(() -> sink += decodePage(page).size());
+        Log.i(TAG, String.format(Locale.US, "page decode: 50 replies, %d chars, %.1f us, %d KB allocated (%d)",
+                page.length(), decodeNs / 1000.0, bytes / 1024, sink & 1));
+    }
+
+    /**
+     * Scrolling back through a long thread: {@link ThreadReducer} merging 40 older
+     * pages of 50 replies in front of the first page. Consecutive pages overlap by
+     * 10 replies, as cursor pages do around edits and deletes, so every merge
+     * also drops duplicates. Pages are decoded up front; only merging is timed.
+     */
+    static void pageMerge() {
+        Random random = new Random(43);
+        int pageSize = 50;
+        List<CommentsResponse> pages = new ArrayList<>();
+        for (int page = 0; page < 41; page++) {
+            CommentsResponse response = new CommentsResponse();
+            response.comments = decodePage(repliesPage(random, 100_000 - page * (pageSize - 10), pageSize));
+            response.hasMoreBefore = page < 40;
+            response.isAtOldest = page == 40;
+            response.isAtLatest = page == 0;
+            response.beforeCursor = "c" + page;
+            response.totalCount = 41 * (pageSize - 10) + 10;
+            pages.add(response);
+        }
+
+        ThreadState[] last = new ThreadState[1];
+        Runnable mergeAll = () -> {
+            ThreadState state = ThreadReducer.reduce(ThreadState.initial(),
+                    new ThreadAction.PageLoaded(ThreadAction.PageKind.REPLACE, pages.get(0)));
+            for (int page = 1; page < pages.size(); page++) {
+                state = ThreadReducer.reduce(state,
+                        new ThreadAction.MorePageLoaded(ThreadAction.Direction.OLDER, pages.get(page), pageSize));
+            }
+            last[0] = state;
+        };
+        long mergeNs = nanosPerOp(50, mergeAll) / (pages.size() - 1);
+        long bytes = allocatedBytes(mergeAll) / (pages.size() - 1);
+        Log.i(TAG, String.format(Locale.US,
+                "page merge: 40 older pages of %d onto %d replies, %.1f us and %d KB allocated per page",
+                pageSize, last[0].replies.size(), mergeNs / 1000.0, bytes / 1024));
+    }
+
+    private static List<Opinion> decodePage(String page) {
+        try {
+            JSONArray comments = new JSONObject(page).getJSONArray("comments");
+            List<Opinion> replies = new ArrayList<>(comments.length());
+            for (int i = 0; i < comments.length(); i++) {
+                replies.add(ThreadRepliesAdapter.fromApiComment(comments.getJSONObject(i), "u0"));
+            }
+            return replies;
+        } catch (JSONException e) {
+            throw new IllegalStateException("Bad replies fixture", e);
+        }
+    }
+
+    /**
+     * A subcomments API response with {@code size} replies, ids counting down from
+     * {@code lastId} so the oldest comes first, as the API sends them.
+     */
+    private static String repliesPage(Random random, int lastId, int size) {
+        try {
+            JSONArray comments = new JSONArray();
+            for (int i = 0; i < size; i++) {
+                int id = lastId - size + 1 + i;
+                JSONObject comment = new JSONObject();
+                comment.put("comment_id", id);
+                comment.put("title", "");
+                comment.put("edited", false);
+                comment.put("emotion", i % 5 == 0 ? "curious" : "");
+                comment.put("minimessage", "");
+                String content = words(random, 5 + random.nextInt(i % 7 == 0 ? 120 : 30));
+                comment.put("original_content", content);
+                comment.put("content", content);
+                comment.put("quote", i % 4 == 0 ? words(random, 12) : "");
+                comment.put("created_at", String.format(Locale.US, "2026-10-%02dT%02d:%02d:00.000Z",
+                        1 + id / 1440 % 28, id / 60 % 24, id % 60));
+                comment.put("user_id", "u" + random.nextInt(40));
+                comment.put("user_name", words(random, 2));
+                comment.put("user_picture", "https://example.com/p/" + random.nextInt(40) + ".jpg");
+                comment.put("parent_comment_id", 1);
+                comment.put("user_reacted", random.nextBoolean());
+                JSONArray reactions = new JSONArray();
+                if (i % 3 == 0) {
+                    reactions.put(new JSONObject().put("type", "like").put("count", 1 + random.nextInt(9)));
+                }
+                comment.put("reactions", reactions);
+                comment.put("mentioned_users", new JSONArray());
+                if (i % 6 == 0) {
+                    comment.put("reply_message_id", id - 1);
+                    comment.put("reply_message", words(random, 15));
+                } else {
+                    comment.put("reply_message_id", JSONObject.NULL);
+                    comment.put("reply_message", JSONObject.NULL);
+                }
+                comments.put(comment);
+            }
+            JSONObject pagination = new JSONObject()
+                    .put("has_more_before", true)
+                    .put("has_more_after", false)
+                    .put("before_cursor", "c" + (lastId - size))
+                    .put("is_at_latest", false)
+                    .put("is_at_oldest", false);
+            return new JSONObject()
+                    .put("comments", comments)
+                    .put("pagination", pagination)
+                    .put("total_comment_count", 2000)
+                    .toString();
+        } catch (JSONException e) {
+            throw new IllegalStateException("Cannot build replies fixture", e);
+        }
+    }
+
+    /**
+     * Bytes this thread allocated running {@code op} once.
+     */
+    @SuppressWarnings("deprecation")
+    private static long allocatedBytes(Runnable op) {
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        op.run();
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocSize();
+    }
+
+    /**
+     * {@link FrameJankMonitor}'s stall watchdog on a looper of its own: 3 s with the
+     * looper idle must count no stall, and one 600 ms block must count exactly one.
+     */
+    static void stallWatchdog(Handler handler, Runnable done) {
+        HandlerThread watched = new HandlerThread(TAG + "-watched");
+        watched.start();
+        FrameJankMonitor monitor = new FrameJankMonitor("benchmark", watched.getLooper());
+        monitor.startWatchdog();
+
+        handler.postDelayed(() -> {
+            int idleStalls = monitor.getStallCount();
+            new Handler(watched.getLooper()).post(() -> SystemClock.sleep(600));
+            handler.postDelayed(() -> {
+                int blockedStalls = monitor.getStallCount() - idleStalls;
+                monitor.stopWatchdog();
+                watched.quitSafely();
+                boolean ok = idleStalls == 0 && blockedStalls == 1;
+                Log.i(TAG, "stall watchdog: idle 3 s counted " + idleStalls + ", 600 ms block counted "
+                        + blockedStalls + (ok ? " OK" : " FAILED, expected 0 and 1"));
+                done.run();
+            }, 1500);
+        }, 3000);
+    }
+
+    /**
+     * Ten quick taps on one target through {@link ReactionDispatcher}: switching
+     * between two reactions must send exactly one request, and toggling back to
+     * no reaction must send none.
+     */
+    static void reactionTaps(Handler handler, Runnable done) {
+        long tapIntervalMs = 50;
+        int taps = 10;
+        ReactionDispatcher dispatcher = new ReactionDispatcher(handler);
+        int[] sent = new int[2];
+        String[] lastSent = new String[1];
+
+        handler.post(() -> {
+            for (int i = 0; i < taps; i++) {
+                boolean love = i % 2 == 1;
+                boolean unreact = i % 2 == 1;
+                handler.postDelayed(() -> {
+                    dispatcher.submit("switch", love ? "love" : "like", false, (targetId, type, isUnreact, completion) -> {
+                        sent[0]++;
+                        lastSent[0] = type;
+                        completion.onComplete(true, type);
+                    });
+                    dispatcher.submit("toggle", "like", unreact, (targetId, type, isUnreact, completion) -> {
+                        sent[1]++;
+                        completion.onComplete(true, isUnreact ? null : type);
+                    });
+                }, i * tapIntervalMs);
+            }
+            // Past the last tap plus the dispatch window
+            handler.postDelayed(() -> {
+                boolean ok = sent[0] == 1 && "love".equals(lastSent[0]) && sent[1] == 0;
+                Log.i(TAG, "reaction taps: " + taps + " switching taps sent " + sent[0] + " (" + lastSent[0] + "), "
+                        + taps + " toggles sent " + sent[1] + ", total requests " + dispatcher.getRequestsSent()
+                        + (ok ? " OK" : " FAILED, expected 1 (love) and 0"));
+                done.run();
+            }, taps * tapIntervalMs + 1000);
+        });
+    }
+}
@@ -0,0 +1,380 @@
+package com.philonet.ai;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Pure state transitions for a thread screen.
+ *
+ * {@link #reduce} never mutates its input and returns the same instance when an
+ * action changes nothing (a duplicate socket message, an ack for an unknown temp
+ * id), so callers can skip publishing. The reply list is copied at most once per
+ * action. No I/O, threads or views; the only outside types are the app's models
+ * ({@code Opinion}, {@code CommentsResponse}, {@code MessageStatus}), so a merge
+ * can only be run where those classes are on the classpath.
+ */
+public final class ThreadReducer {
+
+    /** Id prefix of optimistic replies until the server acks them. */
+    public static final String TEMP_ID_PREFIX = "temp_";
+
+    private ThreadReducer() {
+    }
+
+    public static ThreadState reduce(ThreadState state, ThreadAction action) {
+        if (action instanceof ThreadAction.ResetPagination) {
+            return state.toBuilder()
+                    .setHasMoreBefore(false)
+                    .setHasMoreAfter(false)
+                    .setAtLatest(true)
+                    .setAtOldest(true)
+                    .setBeforeCursor(null)
+                    .setAfterCursor(null)
+                    .setTotalCount(0)
+                    .setLastBeforeCursor(null)
+                    .setLastAfterCursor(null)
+                    .build();
+        }
+        if (action instanceof ThreadAction.StopPaging) {
+            return state.toBuilder()
+                    .setHasMoreBefore(false)
+                    .setHasMoreAfter(false)
+                    .setAtLatest(true)
+                    .setAtOldest(true)
+                    .setLastBeforeCursor(null)
+                    .setLastAfterCursor(null)
+                    .build();
+        }
+        if (action instanceof ThreadAction.PageRequested) {
+            ThreadAction.PageRequested requested = (ThreadAction.PageRequested) action;
+            return requested.direction == ThreadAction.Direction.OLDER
+                    ? state.toBuilder().setLastBeforeCursor(requested.cursor).build()
+                    : state.toBuilder().setLastAfterCursor(requested.cursor).build();
+        }
+        if (action instanceof ThreadAction.PagingExhausted) {
+            return exhaust(state.toBuilder(), ((ThreadAction.PagingExhausted) action).direction).build();
+        }
+        if (action instanceof ThreadAction.PageLoaded) {
+            return pageLoaded(state, (ThreadAction.PageLoaded) action);
+        }
+        if (action instanceof ThreadAction.MorePageLoaded) {
+            return morePageLoaded(state, (ThreadAction.MorePageLoaded) action);
+        }
+        if (action instanceof ThreadAction.MessageReceived) {
+            ThreadAction.MessageReceived received = (ThreadAction.MessageReceived) action;
+            // Own messages arrive through the optimistic send path
+            if (received.message.getSenderId().equals(received.currentUserId)
+                    || indexOf(state.replies, received.message.getId()) != -1) {
+                return state;
+            }
+            // Late socket deliveries go to their chronological spot
+            return state.toBuilder()
+                    .setReplies(ReplyTimeline.insert(state.replies, received.message),
+                            state.recent.withAdded(received.message))
+                    .build();
+        }
+        if (action instanceof ThreadAction.NewerMessagesFound) {
+            List<Opinion> messages = ((ThreadAction.NewerMessagesFound) action).messages;
+            if (messages.isEmpty()) {
+                return state;
+            }
+            return state.toBuilder()
+                    .setReplies(ReplyTimeline.merge(state.replies, messages), state.recent.withAdded(messages))
+                    .build();
+        }
+        if (action instanceof ThreadAction.OptimisticSent) {
+            Opinion message = ((ThreadAction.OptimisticSent) action).message;
+            List<Opinion> replies = new ArrayList<>(state.replies.size() + 1);
+            replies.addAll(state.replies);
+            replies.add(message);
+            return state.toBuilder().setReplies(replies, state.recent.withAdded(message)).build();
+        }
+        if (action instanceof ThreadAction.SendAcked) {
+            ThreadAction.SendAcked acked = (ThreadAction.SendAcked) action;
+            int index = indexOf(state.replies, acked.tempId);
+            List<Opinion> replies = new ArrayList<>(state.replies);
+            RecentReplies recent = state.recent;
+            Opinion delivered;
+            if (index != -1) {
+                Opinion optimistic = state.replies.get(index);
+                delivered = delivered(acked.realMessage, optimistic);
+                replies.set(index, delivered);
+                recent = recent.withRemoved(optimistic, replies);
+            } else {
+                // The socket or a reload may already have replaced it
+                if (indexOf(state.replies, acked.realMessage.getId()) != -1) {
+                    return state;
+                }
+                delivered = delivered(acked.realMessage, null);
+                replies.add(delivered);
+            }
+            return state.toBuilder().setReplies(replies, recent.withAdded(delivered)).build();
+        }
+        if (action instanceof ThreadAction.SendFailed) {
+            int index = indexOf(state.replies, ((ThreadAction.SendFailed) action).tempId);
+            if (index == -1) {
+                return state;
+            }
+            List<Opinion> replies = new ArrayList<>(state.replies);
+            Opinion removed = replies.remove(index);
+            return state.toBuilder().setReplies(replies, state.recent.withRemoved(removed, replies)).build();
+        }
+        if (action instanceof ThreadAction.MessageDeleted) {
+            ThreadAction.MessageDeleted deleted = (ThreadAction.MessageDeleted) action;
+            int index = indexOf(state.replies, deleted.id);
+            if (index == -1 || deleted.placeholder.equals(state.replies.get(index).getMessage())) {
+                return state;
+            }
+            Opinion reply = state.replies.get(index);
+            return replace(state, index, copyOf(reply).setMessage(deleted.placeholder).setTitle("").build());
+        }
+        if (action instanceof ThreadAction.MessageEdited) {
+            ThreadAction.MessageEdited edited = (ThreadAction.MessageEdited) action;
+            int index = indexOf(state.replies, edited.id);
+            if (index == -1) {
+                return state;
+            }
+            Opinion reply = state.replies.get(index);
+            return replace(state, index, copyOf(reply)
+                    .setMessage(edited.message)
+                    .setTitle(edited.title)
+                    .setEdited(true)
+                    .build());
+        }
+        if (action instanceof ThreadAction.ReactionChanged) {
+            return reactionChanged(state, (ThreadAction.ReactionChanged) action);
+        }
+        throw new IllegalArgumentException("Unknown action " + action.getClass().getName());
+    }
+
+    private static ThreadState reactionChanged(ThreadState state, ThreadAction.ReactionChanged changed) {
+        int index = indexOf(state.replies, changed.targetId);
+        if (index == -1) {
+            return state;
+        }
+        Opinion reply = state.replies.get(index);
+        String userReaction = changed.userReactionKnown ? emptyToNull(changed.userReaction) : reply.getUserReaction();
+        int total = changed.total != null
+                ? changed.total
+                : Math.max(0, reply.getReactions() + presence(userReaction) - presence(reply.getUserReaction()));
+        if (total == reply.getReactions() && Objects.equals(userReaction, reply.getUserReaction())) {
+            return state;
+        }
+        return replace(state, index, copyOf(reply).setReactions(total).setUserReaction(userReaction).build());
+    }
+
+    private static int presence(String reaction) {
+        return reaction != null && !reaction.isEmpty() ? 1 : 0;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Swaps one reply for an updated copy. The newest reply and avatars don't
+     * depend on content or reactions, so {@code recent} is kept.
+     */
+    private static ThreadState replace(ThreadState state, int index, Opinion updated) {
+        List<Opinion> replies = new ArrayList<>(state.replies);
+        replies.set(index, updated);
+        return state.toBuilder().setReplies(replies, state.recent).build();
+    }
+
+    private static ThreadState pageLoaded(ThreadState state, ThreadAction.PageLoaded loaded) {
+        CommentsResponse response = loaded.response;
+        switch (loaded.kind) {
+            case REPLACE: {
+                ThreadState.Builder builder = state.toBuilder().setPagination(response);
+                // An empty page keeps what is shown; only pagination changes
+                if (!response.comments.isEmpty()) {
+                    builder.setReplies(new ArrayList<>(response.comments), RecentReplies.of(response.comments));
+                }
+                return builder.build();
+            }
+            case LATEST:
+                return state.toBuilder()
+                        .setReplies(new ArrayList<>(response.comments), RecentReplies.of(response.comments))
+                        .setPagination(response)
+                        .setAtLatest(true)
+                        .setHasMoreAfter(false)
+                        .setLastBeforeCursor(null)
+                        .setLastAfterCursor(null)
+                        .build();
+            case RECENT: {
+                ThreadState.Builder builder = state.toBuilder().setHasLoadedRecentMessages(true);
+                List<Opinion> newMessages = withoutKnown(state.replies, response.comments);
+                if (!newMessages.isEmpty()) {
+                    List<Opinion> replies = new ArrayList<>(state.replies.size() + newMessages.size());
+                    replies.addAll(state.replies);
+                    replies.addAll(newMessages);
+                    builder.setReplies(replies, state.recent.withAdded(newMessages))
+                            .setHasMoreAfter(response.hasMoreAfter)
+                            .setAtLatest(response.isAtLatest)
+                            .setAfterCursor(response.afterCursor);
+                }
+                return builder.build();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown page kind " + loaded.kind);
+        }
+    }
+
+    private static ThreadState morePageLoaded(ThreadState state, ThreadAction.MorePageLoaded loaded) {
+        CommentsResponse response = loaded.response;
+        boolean older = loaded.direction == ThreadAction.Direction.OLDER;
+        ThreadState.Builder builder = state.toBuilder();
+
+        if (response.comments.isEmpty()) {
+            return exhaust(builder, loaded.direction).build();
+        }
+
+        List<Opinion> newComments = withoutKnown(state.replies, response.comments);
+
+        // Client-side boundary detection: a page of duplicates means we reached the end
+        if (newComments.isEmpty()) {
+            exhaust(builder, loaded.direction);
+            return older
+                    ? builder.setLastBeforeCursor(null).build()
+                    : builder.setLastAfterCursor(null).build();
+        }
+
+        // Never grow past the thread's known total when paging forward
+        int totalCount = state.totalCount;
+        if (!older && totalCount > 0 && state.replies.size() + newComments.size() >= totalCount) {
+            int commentsToAdd = Math.max(0, totalCount - state.replies.size());
+            if (commentsToAdd < newComments.size()) {
+                newComments = newComments.subList(0, commentsToAdd);
+            }
+            builder.setHasMoreAfter(false).setAtLatest(true).setLastAfterCursor(null);
+        }
+
+        List<Opinion> replies = new ArrayList<>(state.replies.size() + newComments.size());
+        if (older) {
+            replies.addAll(newComments);
+            replies.addAll(state.replies);
+            builder.setHasMoreBefore(response.hasMoreBefore)
+                    .setBeforeCursor(response.beforeCursor)
+                    .setAtOldest(response.isAtOldest);
+            // A short page means there is nothing older
+            if (newComments.size() < loaded.pageSize) {
+                builder.setHasMoreBefore(false).setAtOldest(true);
+            }
+        } else {
+            replies.addAll(state.replies);
+            replies.addAll(newComments);
+            boolean fullPage = response.comments.size() >= loaded.pageSize;
+            builder.setHasMoreAfter(response.hasMoreAfter && fullPage)
+                    .setAfterCursor(response.afterCursor)
+                    .setAtLatest(response.isAtLatest || !fullPage);
+            if (response.isAtLatest) {
+                builder.setHasMoreAfter(false).setAtLatest(true).setLastAfterCursor(null);
+            }
+        }
+        return builder.setReplies(replies, state.recent.withAdded(newComments)).build();
+    }
+
+    private static ThreadState.Builder exhaust(ThreadState.Builder builder, ThreadAction.Direction direction) {
+        return direction == ThreadAction.Direction.OLDER
+                ? builder.setHasMoreBefore(false).setAtOldest(true)
+                : builder.setHasMoreAfter(false).setAtLatest(true);
+    }
+
+    private static List<Opinion> withoutKnown(List<Opinion> replies, List<Opinion> page) {
+        Set<String> knownIds = idsOf(replies);
+        List<Opinion> unknown = new ArrayList<>(page.size());
+        for (Opinion comment : page) {
+            if (!knownIds.contains(comment.getId())) {
+                unknown.add(comment);
+            }
+        }
+        return unknown;
+    }
+
+    private static Set<String> idsOf(List<Opinion> replies) {
+        Set<String> ids = new HashSet<>(replies.size() * 2);
+        for (Opinion reply : replies) {
+            ids.add(reply.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Delivered copy of the server's reply. Reply-to details the server left out
+     * are taken from the optimistic message, when there is one.
+     */
+    static Opinion delivered(Opinion realMessage, Opinion optimisticMessage) {
+        Opinion.Builder builder = copyOf(realMessage).setStatus(MessageStatus.DELIVERED);
+
+        if (realMessage.getReplyid() == -1 && optimisticMessage != null && optimisticMessage.getReplyid() != -1) {
+            builder.setReplyid(optimisticMessage.getReplyid())
+                    .setReplyusername(optimisticMessage.getReplyusername())
+                    .setReplycontent(optimisticMessage.getReplycontent());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builder holding every field of {@code source}. Only optimistic replies still
+     * carry a temp id, so those stay SENT and everything else is DELIVERED.
+     */
+    private static Opinion.Builder copyOf(Opinion source) {
+        Opinion.Builder builder = new Opinion.Builder()
+                .setId(source.getId())
+                .setSenderId(source.getSenderId())
+                .setProfileImage(source.getProfileImage())
+                .setSenderName(source.getSenderName())
+                .setMessage(source.getMessage())
+                .setQuote(source.getQuote())
+                .setEmotion(source.getEmotion())
+                .setMiniMessage(source.getminimessage())
+                .setTimestamp(source.getTimestamp())
+                .setTitle(source.getTitle())
+                .setReactions(source.getReactions())
+                .setUserReaction(source.getUserReaction())
+                .setchild_comment_count(source.getChild_comment_count())
+                .setParentCommentId(source.getParentCommentId())
+                .setParentContent(source.getParentContent())
+                .setParentUserName(source.getParentUserName())
+                .setStatus(source.getId().startsWith(TEMP_ID_PREFIX) ? MessageStatus.SENT : MessageStatus.DELIVERED)
+                .setEdited(source.isEdited());
+
+        if (source.getReplyid() != -1) {
+            builder.setReplyid(source.getReplyid())
+                    .setReplyusername(source.getReplyusername())
+                    .setReplycontent(source.getReplycontent());
+        }
+        return builder;
+    }
+
+    /**
+     * Messages in {@code latest} that come after the last one we knew of and aren't
+     * shown yet. If that message isn't in {@code latest}, anything newer than
+     * {@code lastKnownTimestamp} counts.
+     */
+    public static List<Opinion> findNewer(List<Opinion> replies, List<Opinion> latest,
+                                          String lastKnownId, long lastKnownTimestamp) {
+        Set<String> knownIds = idsOf(replies);
+        int lastKnownIndex = indexOf(latest, lastKnownId);
+        List<Opinion> newer = new ArrayList<>();
+        for (int i = lastKnownIndex + 1; i < latest.size(); i++) {
+            Opinion message = latest.get(i);
+            if (knownIds.contains(message.getId())) continue;
+            if (lastKnownIndex == -1 && message.getTimestamp() <= lastKnownTimestamp) continue;
+            newer.add(message);
+        }
+        return newer;
+    }
+
+    public static int indexOf(List<Opinion> replies, String id) {
+        for (int i = 0; i < replies.size(); i++) {
+            if (replies.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
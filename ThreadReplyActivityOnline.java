@@ -11,18 +11,15 @@ import android.content.SharedPreferences;
 import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.graphics.Rect;
-import android.media.MediaPlayer;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.text.Editable;
-import android.text.Spannable;
 import android.text.SpannableString;
-import android.text.SpannableStringBuilder;
+import android.text.TextUtils;
 import android.text.TextWatcher;
-import android.text.style.BackgroundColorSpan;
-import android.text.style.UnderlineSpan;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.ActionMode;
@@ -57,11 +54,14 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.Insets;
+import androidx.core.text.PrecomputedTextCompat;
 import androidx.core.view.GravityCompat;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.widget.NestedScrollView;
+import androidx.core.widget.TextViewCompat;
 import androidx.interpolator.view.animation.FastOutSlowInInterpolator;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -75,27 +75,19 @@ import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import com.google.gson.Gson;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -128,22 +120,18 @@ public class ThreadReplyActivityOnline extends AppCompatActivity implements Thre
     private String currentEmotion;
 
     View emotionAccentLine;
-    private static final int SCROLL_THRESHOLD = 20; // Minimum scroll distance to trigger
     private static final int HIDE_DELAY = 2000; // Hide button after 2 seconds of no scrolling
     private Handler scrollHandler = new Handler(Looper.getMainLooper());
     private Runnable hideButtonRunnable;
-    private long lastScrollTime = 0;
+    private enum JumpButtonMode { TOP, RECENT, BOTTOM }
+    private JumpButtonMode jumpButtonMode;
     private boolean isButtonVisible = false;
     private boolean isInitialLoadComplete = false;
-    private boolean hasLoadedRecentMessages = false;
 
     long thinkingTime,lastSeen;
 
     boolean isOnline=false;
 
-    private String lastAfterCursor = null;
-    private String lastBeforeCursor = null;
-
     private SocketManager socketManager;
     private boolean isActivityInForeground = false;
 
@@ -160,13 +148,19 @@ public class ThreadReplyActivityOnline extends AppCompatActivity implements Thre
     private LinearLayout shimmerContainer;
 
     private ParticipantAdapter adapter;
-    private List<Participant> participantsList = new ArrayList<>();
+    // Owned by participantPager; the adapter reads it directly
+    private final List<Participant> participantsList = new ArrayList<>();
+    private ParticipantPager participantPager;
+    private MentionSuggester mentionSuggester;
+    private MentionPopup mentionPopup;
+    private TypingThrottle typingThrottle;
+    private TypingPresence typingPresence;
+    private PresenceCounter presenceCounter;
+    private TextView peopleCountView;
+    // Replaces the people count while not empty
+    private String typingLabel = "";
 
-    private int page = 1;
     private boolean isLoading = false;
-    private boolean hasNextPage = false;
-
-    private final String API_URL = "https://api.typepilot.app/v1/room/conversation-people";
 
 
 //    LinearLayout footermain;
@@ -227,7 +221,17 @@ private RecyclerView messagesRecyclerView;
     private static final int CONNECTION_TIMEOUT = 10000;
 
     private View emptyStateView;
-    private OkHttpClient httpClient;
+    // Derived from the shared client, so they keep its connection pool and metrics
+    private final OkHttpClient httpClient = NetworkMetrics.client().newBuilder()
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(10, TimeUnit.SECONDS)
+            .writeTimeout(10, TimeUnit.SECONDS)
+            .build();
+    private final OkHttpClient commentsClient = NetworkMetrics.client().newBuilder()
+            .connectTimeout(5, TimeUnit.SECONDS)
+            .readTimeout(5, TimeUnit.SECONDS)
+            .writeTimeout(5, TimeUnit.SECONDS)
+            .build();
 
     ConversationManager manager;
     private View loadingStateView;
@@ -240,9 +244,16 @@ private RecyclerView messagesRecyclerView;
 
     String commentuserid;
     private String access;
-    private MediaPlayer messageSound;
     private final CompositeDisposable disposables = new CompositeDisposable();
+    private ReactionDispatcher reactionDispatcher;
+    private final ReactionStateStore reactionState = new ReactionStateStore();
+    private final ThreadViewPrewarmer viewPrewarmer = new ThreadViewPrewarmer();
+    private final FrameJankMonitor jankMonitor = new FrameJankMonitor("thread_reply");
+    private UiDispatcher uiDispatcher;
     private String summary = "";
+    // The summary render in flight; a newer summary disposes it
+    private Disposable summaryRender;
+    private String summaryRenderKey;
 //    private NestedScrollView mainScrollView;
     private FloatingActionButton scrollToRecent;
 
@@ -250,7 +261,9 @@ private RecyclerView messagesRecyclerView;
     private static final int SHOW_SCROLL_UP_THRESHOLD = 1000;
     private String message, pic, name, timestamp;
 
-    private CommentsResponse currentPagination = new CommentsResponse();
+    // Replies and pagination; written only by threadStore, read on the main thread
+    private ThreadStateStore threadStore;
+    private ThreadState threadState = ThreadState.initial();
     private int replies, reactions;
     private boolean isLoadingMoreItems = false;
     private String title;
@@ -270,6 +283,14 @@ private RecyclerView messagesRecyclerView;
     public static final String EXTRA_COMMENT_ID = "comment_id";
     public static final String EXTRA_REPLY_COUNT = "reply_count";
     public static final String EXTRA_RECENT_AVATARS = "recent_avatars";
+    // Debug builds: record this session, or replay a recording at EXTRA_REPLAY_SPEED (0 = unlimited)
+    public static final String EXTRA_RECORD_SESSION = "record_session";
+    public static final String EXTRA_REPLAY_SESSION = "replay_session";
+    public static final String EXTRA_REPLAY_SPEED = "replay_speed";
+    // Debug builds: run ThreadBenchmarks in the background and log the results
+    public static final String EXTRA_RUN_BENCHMARKS = "run_benchmarks";
+    private ThreadSessionRecorder sessionRecorder;
+    private ThreadSessionReplayer sessionReplayer;
     private View replyPreviewContainer;
     private TextView replyPreviewText;
     private TextView replyPreviewUsername;
@@ -290,6 +311,48 @@ private RecyclerView messagesRecyclerView;
         return !isFinishing() && !isDestroyed();
     }
 
+    /**
+     * Background callbacks post UI work through the dispatcher, which batches it
+     * into one frame callback and drops it once the activity is destroyed.
+     */
+    @Override
+    public void runOnUiThread(Runnable action) {
+        if (uiDispatcher != null) {
+            uiDispatcher.post(action);
+        } else {
+            super.runOnUiThread(action);
+        }
+    }
+
+    /**
+     * Shows a new thread state. Runs on the main thread, in dispatch order.
+     */
+    private void onThreadStateChanged(ThreadState previous, ThreadState current, Runnable afterCommit) {
+        threadState = current;
+        if (repliesAdapter == null) return;
+        if (current.replies != previous.replies) {
+            repliesAdapter.submitList(current.replies, afterCommit);
+        } else if (afterCommit != null) {
+            afterCommit.run();
+        }
+    }
+
+    /**
+     * Joins the room right away, off the main thread, with this screen's account.
+     * Not telemetry: it must not wait for a batch or run under a later login.
+     */
+    private void joinConversation(String action) {
+        ConversationManager joining = manager;
+        if (joining == null) return;
+        Schedulers.io().scheduleDirect(() -> {
+            try {
+                joining.join(action);
+            } catch (RuntimeException e) {
+                Log.w("ThreadReply", "Join failed", e);
+            }
+        });
+    }
+
     private void safeUiUpdate(Runnable uiOperation) {
         if (isUiSafe()) {
             try {
@@ -303,6 +366,23 @@ private RecyclerView messagesRecyclerView;
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        uiDispatcher = new UiDispatcher("thread_reply", this);
+        threadStore = new ThreadStateStore(uiDispatcher::post, this::onThreadStateChanged);
+        // Forwards to History/AnalyticsManager in batches, so those may initialize later
+        Telemetry.initialize(this);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        presenceCounter = new PresenceCounter(mainHandler, this::onPeopleCountChanged);
+        typingThrottle = new TypingThrottle(mainHandler, new TypingThrottle.Sender() {
+            @Override
+            public void sendTypingStart() {
+                if (socketManager != null) socketManager.sendTypingStart();
+            }
+
+            @Override
+            public void sendTypingStop() {
+                if (socketManager != null) socketManager.sendTypingStop();
+            }
+        });
         getWindow().requestFeature(Window.FEATURE_ACTIVITY_TRANSITIONS);
         Window window = this.getWindow();
         window.clearFlags(WindowManager.LayoutParams.FLAG_TRANSLUCENT_STATUS);
@@ -346,6 +426,7 @@ private RecyclerView messagesRecyclerView;
         SharedPreferences prefs = getSharedPreferences("login", Context.MODE_PRIVATE);
         access = prefs.getString("access", "");
         currentUserId = prefs.getString("userid", "");
+        typingPresence = new TypingPresence(mainHandler, currentUserId, this::onTypingChanged);
         title = getIntent().getStringExtra("title");
         articleId = getIntent().getIntExtra("articleId", 0);
         parentCommentId = getIntent().getIntExtra("commentId", 0);
@@ -355,6 +436,7 @@ private RecyclerView messagesRecyclerView;
         timestamp = getIntent().getStringExtra("timestamp");
         replies = getIntent().getIntExtra("replies", 0);
         people = getIntent().getIntExtra("thread_people_count",0);
+        presenceCounter.reconcile(people);
         reactions = getIntent().getIntExtra("reactions", 0);
         categoryname = getIntent().getStringExtra("categoryName");
         focusComment = getIntent().getIntExtra("focuscomment",-1);
@@ -366,6 +448,12 @@ private RecyclerView messagesRecyclerView;
             finish();
             return;
         }
+        if (BuildConfig.DEBUG) {
+            setupSessionCapture();
+            if (getIntent().getBooleanExtra(EXTRA_RUN_BENCHMARKS, false)) {
+                ThreadBenchmarks.runAll(getApplicationContext());
+            }
+        }
 
 
 
@@ -404,7 +492,7 @@ private RecyclerView messagesRecyclerView;
         }
 
         checkArticleAccess();
-        messageInput.enableApiSearch(access, Integer.toString(roomId), Integer.toString(articleId));
+        setupMentionSuggestions();
     }
 
 
@@ -430,10 +518,11 @@ private RecyclerView messagesRecyclerView;
 
         String primaryReactionEmoji = "👍"; // default
         if (userReacted) {
-            primaryReactionEmoji = getEmojiForReactionType(userReaction);
+            primaryReactionEmoji = ReactionType.emojiFor(userReaction);
         } else if (reactions > 0 && latestReactionType != null) {
-            primaryReactionEmoji = getEmojiForReactionType(latestReactionType);
+            primaryReactionEmoji = ReactionType.emojiFor(latestReactionType);
         }
+        reactionState.seed(String.valueOf(parentCommentId), reactions, userReaction, latestReactionType);
 
         return new ParentCardAdapter.ParentCardData(
                 "", // currentLink - will be updated from API
@@ -646,12 +735,12 @@ private RecyclerView messagesRecyclerView;
 
         if (userReaction != null && !userReaction.isEmpty()) {
             userReacted = true;
-            primaryReactionEmoji = getEmojiForReactionType(userReaction);
+            primaryReactionEmoji = ReactionType.emojiFor(userReaction);
         } else if (hasReactions) {
             // Use the latest reaction type from intent
             String latestReactionType = getIntent().getStringExtra("latestReactionType");
             if (latestReactionType != null) {
-                primaryReactionEmoji = getEmojiForReactionType(latestReactionType);
+                primaryReactionEmoji = ReactionType.emojiFor(latestReactionType);
             }
         }
 
@@ -719,10 +808,8 @@ private RecyclerView messagesRecyclerView;
         people = commentData.optInt("thread_people_count",0);
         reactions = commentData.optInt("reaction_count", 0);
 
-        TextView peopleCount = findViewById(R.id.onlineCount);
-        if (peopleCount != null) {
-            peopleCount.setText(people + " in this conversation");
-        }
+        presenceCounter.reconcile(people);
+        renderConversationSubtitle();
         // Check if user has reacted to this comment
         boolean userReacted = commentData.optBoolean("user_reacted", false);
         String userReaction = commentData.optString("user_reaction_type", "");
@@ -739,80 +826,15 @@ private RecyclerView messagesRecyclerView;
                 getIntent().putExtra("latestReactionType", latestReactionType);
             }
         }
+        reactionState.seed(String.valueOf(parentCommentId), reactions,
+                userReacted ? userReaction : null, getIntent().getStringExtra("latestReactionType"));
 
         repliesAdapter.setCurrentLink(currentLink);
     }
 
     // Helper method for timestamp formatting
     private String formatTimestamp(String timestampStr) {
-        try {
-            // Parse the ISO 8601 timestamp
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-            inputFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-            Date date = inputFormat.parse(timestampStr);
-
-            long now = System.currentTimeMillis();
-            long timestamp = date.getTime();
-            long diff = now - timestamp;
-
-            // Convert to seconds
-            long seconds = diff / 1000;
-
-            // Future timestamps
-            if (seconds < 0) {
-                return "in the future";
-            }
-
-            // Less than a minute
-            if (seconds < 60) {
-                return seconds <= 1 ? "just now" : seconds + " seconds ago";
-            }
-
-            // Minutes
-            long minutes = seconds / 60;
-            if (minutes < 60) {
-                return minutes == 1 ? "1 minute ago" : minutes + " minutes ago";
-            }
-
-            // Hours
-            long hours = minutes / 60;
-            if (hours < 24) {
-                return hours == 1 ? "1 hour ago" : hours + " hours ago";
-            }
-
-            // Days
-            long days = hours / 24;
-            if (days < 7) {
-                return days == 1 ? "1 day ago" : days + " days ago";
-            }
-
-            // Weeks
-            long weeks = days / 7;
-            if (weeks < 4) {
-                return weeks == 1 ? "1 week ago" : weeks + " weeks ago";
-            }
-
-            // Months (approximate)
-            long months = days / 30;
-            if (months < 12) {
-                return months == 1 ? "1 month ago" : months + " months ago";
-            }
-
-            // Years
-            long years = days / 365;
-            if (years == 1) {
-                return "1 year ago";
-            } else if (years < 5) {
-                return years + " years ago";
-            }
-
-            // For very old timestamps, fall back to date format
-            SimpleDateFormat fallbackFormat = new SimpleDateFormat("MMM d, yyyy");
-            return fallbackFormat.format(date);
-
-        } catch (Exception e) {
-            return "Unknown time";
-        }
+        return RelativeTime.format(timestampStr, System.currentTimeMillis());
     }
 
 
@@ -831,13 +853,17 @@ private RecyclerView messagesRecyclerView;
         initializeViews();
 //        setupScrollBehavior();
 //        initializeScrollToTopFab();
-        initializeSocketManager();
+        if (sessionReplayer != null) {
+            startSessionReplay();
+        } else {
+            initializeSocketManager();
+        }
 //        loadReplies();
 //        footermain = findViewById(R.id.footermain);
 //        footermain.setVisibility(View.VISIBLE);
         // Setup back button
         checkArticleAccess();
-        messageInput.enableApiSearch(access,Integer.toString(roomId),Integer.toString(articleId));
+        setupMentionSuggestions();
     }
 
     private void initializeSocketManager() {
@@ -874,6 +900,7 @@ private RecyclerView messagesRecyclerView;
 
                     @Override
                     public void onNewMessage(Opinion message) {
+                        if (sessionRecorder != null) sessionRecorder.recordNewMessage(message);
                         if(!isActivityVisible){
                             foreground=true;
                         }
@@ -883,39 +910,39 @@ private RecyclerView messagesRecyclerView;
                     @Override
                     public void onMessageDeleted(String messageId) {
                         Log.d("ThreadReply", "🗑️ Message deleted: " + messageId);
+                        if (sessionRecorder != null) sessionRecorder.recordMessageDeleted(messageId);
                         handleMessageDeleted(messageId);
                     }
 
                     @Override
                     public void onReactionUpdated(String targetId, JSONObject reactionData) {
                         Log.d("ThreadReply", "👍 Reaction updated for: " + targetId);
+                        if (sessionRecorder != null) sessionRecorder.recordReaction(targetId, reactionData);
                         handleReactionUpdated(targetId, reactionData);
                     }
 
                     @Override
                     public void onUserJoined(String userId, String userName) {
                         Log.d("ThreadReply", "👋 User joined: " + userName);
-                        // Update participant count or show notification
-                        updateParticipantCount(1);
+                        presenceCounter.onUserJoined(userId);
+                        if (participantPager != null) participantPager.onUserJoined(userId, userName);
                     }
 
                     @Override
                     public void onUserLeft(String userId) {
                         Log.d("ThreadReply", "👋 User left: " + userId);
-                        // Update participant count
-                        updateParticipantCount(-1);
+                        presenceCounter.onUserLeft(userId);
+                        if (participantPager != null) participantPager.onUserLeft(userId);
                     }
 
                     @Override
                     public void onTypingStarted(String userId, String userName) {
-                        Log.d("ThreadReply", "⌨️ " + userName + " is typing");
-                        showTypingIndicator(userName);
+                        typingPresence.onTypingStarted(userId, userName);
                     }
 
                     @Override
                     public void onTypingStopped(String userId) {
-                        Log.d("ThreadReply", "⌨️ Typing stopped: " + userId);
-                        hideTypingIndicator(userId);
+                        typingPresence.onTypingStopped(userId);
                     }
 
                     @Override
@@ -932,30 +959,62 @@ private RecyclerView messagesRecyclerView;
     }
 
 
-    private void handleNewMessageFromSocket(Opinion newMessage) {
-        if (repliesAdapter == null) {
-            Log.w("ThreadReply", "Adapter is null, cannot handle new message");
-            return;
-        }
-
-        // Check if message already exists to prevent duplicates
-        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-        for (Opinion existing : currentList) {
-            if (existing.getId().equals(newMessage.getId())) {
-                Log.d("ThreadReply", "Message already exists, skipping: " + newMessage.getId());
+    /**
+     * Installs the session recorder or replayer requested by the launching intent.
+     */
+    private void setupSessionCapture() {
+        String replayPath = getIntent().getStringExtra(EXTRA_REPLAY_SESSION);
+        if (replayPath != null) {
+            try {
+                sessionReplayer = ThreadSessionReplayer.load(new File(replayPath),
+                        getIntent().getDoubleExtra(EXTRA_REPLAY_SPEED, 1));
+            } catch (IOException e) {
+                Log.e("ThreadReply", "Cannot replay " + replayPath, e);
                 return;
             }
+            NetworkMetrics.setDebugInterceptor(sessionReplayer.interceptor());
+        } else if (getIntent().getBooleanExtra(EXTRA_RECORD_SESSION, false)) {
+            File dir = new File(getFilesDir(), "thread_sessions");
+            sessionRecorder = new ThreadSessionRecorder(
+                    new File(dir, parentCommentId + "-" + System.currentTimeMillis() + ".jsonl"));
+            NetworkMetrics.setDebugInterceptor(sessionRecorder.interceptor());
         }
+    }
+
+    /**
+     * Feeds recorded realtime events to the same handlers the socket uses.
+     */
+    private void startSessionReplay() {
+        ThreadSessionReplayer replayer = sessionReplayer;
+        replayer.setOnFinished(() -> runOnUiThread(() ->
+                Log.i("ThreadReply", replayer.report() + "\n  store " + threadStore.statsSummary())));
+        replayer.start(new ThreadSessionReplayer.SocketSink() {
+            @Override
+            public void onNewMessage(Opinion message) {
+                handleNewMessageFromSocket(message);
+            }
+
+            @Override
+            public void onMessageDeleted(String messageId) {
+                runOnUiThread(() -> handleMessageDeleted(messageId));
+            }
+
+            @Override
+            public void onReactionUpdated(String targetId, JSONObject reactionData) {
+                runOnUiThread(() -> handleReactionUpdated(targetId, reactionData));
+            }
+        });
+    }
 
-        // Don't add messages from current user (they're handled by optimistic updates)
-        if (newMessage.getSenderId().equals(currentUserId)) {
-            Log.d("ThreadReply", "Skipping own message from socket: " + newMessage.getId());
+    private void handleNewMessageFromSocket(Opinion newMessage) {
+        jankMonitor.onSocketMessage();
+        if (repliesAdapter == null) {
+            Log.w("ThreadReply", "Adapter is null, cannot handle new message");
             return;
         }
 
-        // Add new message to list
-        currentList.add(newMessage);
-        repliesAdapter.submitList(currentList, () -> {
+        // Duplicates and our own messages (shown optimistically) are dropped by the reducer
+        threadStore.dispatch(new ThreadAction.MessageReceived(newMessage, currentUserId), (previous, current) -> {
             // Auto-scroll if user is near bottom
             autoScrollToNewMessage();
 
@@ -965,28 +1024,19 @@ private RecyclerView messagesRecyclerView;
             // Update replies count
             updateRepliesCount(1);
 
-            // Show new message notification if app is in background
+            // Update socket manager's message tracking
+            if (socketManager != null) {
+                socketManager.setLastMessageInfo(newMessage.getId(), newMessage.getTimestamp());
+            }
         });
-
-        // Update socket manager's message tracking
-        socketManager.setLastMessageInfo(newMessage.getId(), newMessage.getTimestamp());
     }
 
     /**
      * ENHANCED: Handle message deletion from socket
      */
     private void handleMessageDeleted(String messageId) {
-        if (repliesAdapter != null) {
-            boolean wasUpdated = repliesAdapter.markCommentAsDeleted(
-                    messageId,
-                    "This message was deleted",
-                    ""
-            );
-
-            if (wasUpdated) {
-                Log.d("ThreadReply", "Marked message as deleted: " + messageId);
-            }
-        }
+        threadStore.dispatch(new ThreadAction.MessageDeleted(messageId, "This message was deleted"),
+                (previous, current) -> Log.d("ThreadReply", "Marked message as deleted: " + messageId));
     }
 
     /**
@@ -999,20 +1049,12 @@ private RecyclerView messagesRecyclerView;
 
             if ("comment".equals(targetType)) {
                 if (String.valueOf(parentCommentId).equals(targetId)) {
-                    // Check if this is from current user - if so, skip socket update for parent
-                    // (their reaction was already handled optimistically)
-                    if (!getCurrentUserId().equals(reactionUserId)) {
-                        Log.d("ThreadReply", "Updating parent reactions from other user: " + reactionUserId);
-                        JSONArray reactionsSummary = reactionData.getJSONArray("reactions_summary");
-                        updateParentReactions(reactionsSummary);
-                    } else {
-                        Log.d("ThreadReply", "Skipping parent reaction update for current user");
-                    }
+                    // Own echoes are applied too - the state store folds them into the pending delta
+                    Log.d("ThreadReply", "Updating parent reactions from user: " + reactionUserId);
+                    applyParentReactionEvent(reactionData);
                 } else {
                     // Update reply reactions
-                    if (repliesAdapter != null) {
-                        repliesAdapter.updateReactionFromSocket(targetId, reactionData);
-                    }
+                    threadStore.dispatch(replyReactionEvent(targetId, reactionData));
                 }
             }
         } catch (JSONException e) {
@@ -1047,28 +1089,35 @@ private RecyclerView messagesRecyclerView;
     }
 
     /**
-     * NEW: Show typing indicator
+     * Shows who is typing in place of the people count, or the count again once
+     * nobody is. Called by typingPresence at most a few times a second.
      */
-    private void showTypingIndicator(String userName) {
-        // Implement typing indicator UI
-        // For example, show "userName is typing..." at bottom of chat
+    private void onTypingChanged(String label, int typingCount) {
+        if (!isUiSafe()) return;
+        typingLabel = label;
+        renderConversationSubtitle();
     }
 
     /**
-     * NEW: Hide typing indicator
+     * Called by presenceCounter, already coalesced and only when the count changed.
      */
-    private void hideTypingIndicator(String userId) {
-        // Hide typing indicator for specific user
+    private void onPeopleCountChanged(int count) {
+        if (!isUiSafe()) return;
+        people = count;
+        renderConversationSubtitle();
     }
 
     /**
-     * NEW: Update participant count
+     * Who is typing, or else how many people are in the conversation.
      */
-    private void updateParticipantCount(int delta) {
-        people += delta;
-        TextView peopleCount = findViewById(R.id.onlineCount);
-        if (peopleCount != null) {
-            peopleCount.setText(people + " in this conversation");
+    private void renderConversationSubtitle() {
+        if (peopleCountView == null) {
+            peopleCountView = findViewById(R.id.onlineCount);
+            if (peopleCountView == null) return;
+        }
+        String text = typingLabel.isEmpty() ? people + " in this conversation" : typingLabel;
+        if (!TextUtils.equals(peopleCountView.getText(), text)) {
+            peopleCountView.setText(text);
         }
     }
 
@@ -1083,9 +1132,8 @@ private RecyclerView messagesRecyclerView;
             }
 
             if (roomData.has("participant_count")) {
-                int newCount = roomData.getInt("participant_count");
-                people = newCount;
-                updateParticipantCount(0); // Just refresh display
+                // Authoritative; replaces the estimate from join/leave events
+                presenceCounter.reconcile(roomData.getInt("participant_count"));
             }
         } catch (JSONException e) {
             Log.e("ThreadReply", "Error handling room update", e);
@@ -1102,117 +1150,69 @@ private RecyclerView messagesRecyclerView;
     }
 
     /**
-     * ENHANCED: Message input with typing indicators
+     * ENHANCED: Message input with typing indicators. Signals are throttled; focus
+     * loss and onPause stop them through typingThrottle.
      */
     private void setupMessageInputWithTyping() {
         if (messageInput == null) return;
 
         messageInput.addTextChangedListener(new TextWatcher() {
-            private boolean wasTyping = false;
-
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                sendButton.setEnabled(s.length() > 0);
-
-                // Handle typing indicators
-                boolean isTyping = s.length() > 0;
-                if (isTyping && !wasTyping) {
-                    // Started typing
-                    if (socketManager != null) {
-                        socketManager.sendTypingStart();
-                    }
-                } else if (!isTyping && wasTyping) {
-                    // Stopped typing
-                    if (socketManager != null) {
-                        socketManager.sendTypingStop();
-                    }
-                }
-                wasTyping = isTyping;
+                typingThrottle.onInput(s.length() > 0);
             }
 
             @Override
             public void afterTextChanged(Editable s) {}
         });
-
-        // Stop typing indicator when focus is lost
-        messageInput.setOnFocusChangeListener((v, hasFocus) -> {
-            if (!hasFocus && socketManager != null) {
-                socketManager.sendTypingStop();
-            }
-        });
     }
 
 
 
 
-    private void fetchParticipants(int pageToLoad) {
-        isLoading = true;
-        loadMoreProgress.setVisibility(View.VISIBLE);
-
-        OkHttpClient client = new OkHttpClient();
-        MediaType mediaType = MediaType.parse("application/json");
-        String json = String.format(Locale.US, "{\"articleId\":\"%s\", \"commentId\":\"%s\", \"page\":%d, \"limit\":25}",
-                articleId, parentCommentId, pageToLoad);
-        RequestBody body = RequestBody.create(mediaType, json);
-        Request request = new Request.Builder()
-                .url(API_URL)
-                .post(body)
-                .addHeader("Content-Type", "application/json")
-                .addHeader("Authorization", "Bearer " + access)
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override public void onFailure(@NonNull Call call, @NonNull IOException e) {
-               runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-                    isLoading = false;
-                    loadMoreProgress.setVisibility(View.GONE);
-                    Toast.makeText(ThreadReplyActivityOnline.this, "Failed to load", Toast.LENGTH_SHORT).show();
-                });
-            }
-
-            @Override public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-                String responseBody = response.body().string();
-                ConversationResponse data = new Gson().fromJson(responseBody, ConversationResponse.class);
-
-               runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-                    // Check if activity is still alive
-                    if (isFinishing() || isDestroyed()) {
-                        return;
-                    }
+    /**
+     * Mentions are matched against the loaded participants first; the API is only
+     * asked, debounced, when they don't have enough matches. Replaces the input's
+     * own API search, which ran on every keystroke.
+     */
+    private void setupMentionSuggestions() {
+        if (mentionSuggester != null) return;
+        mentionSuggester = new MentionSuggester(access);
+        mentionSuggester.addParticipants(participantsList);
+        mentionPopup = new MentionPopup(messageInput, mentionSuggester);
+        messageInput.addTextChangedListener(mentionPopup);
+    }
 
-                    if (pageToLoad == 1) {
-                        drawerRoomName.setText(title);
-                        if (data != null && data.participants != null && !data.participants.isEmpty()) {
-                            Participant starter = data.participants.get(0);
-                            starterName.setText(starter.name);
-
-                            // Only load image if activity is still alive
-                            if (!isFinishing() && !isDestroyed()) {
-                                Glide.with(ThreadReplyActivityOnline.this)
-                                        .load(starter.display_pic)
-                                        .placeholder(R.drawable.person)
-                                        .circleCrop()
-                                        .into(starterAvatar);
-                            }
+    private void onParticipantsChanged(List<Participant> snapshot, ParticipantPager.Update update) {
+        if (!isUiSafe() || adapter == null) return;
+        if (mentionSuggester != null) {
+            mentionSuggester.addParticipants(snapshot);
+        }
 
-                            participantsList.addAll(data.participants);
-                            adapter.notifyDataSetChanged();
-                            memberCount.setText(String.valueOf(participantsList.size()));
-                            hasNextPage = data.pagination.hasNextPage;
-                        }
-                    }
+        boolean starterChanged = snapshot.isEmpty()
+                ? !participantsList.isEmpty()
+                : participantsList.isEmpty() || participantsList.get(0) != snapshot.get(0);
+        // The adapter reads participantsList, so swap its contents before notifying
+        participantsList.clear();
+        participantsList.addAll(snapshot);
+        update.dispatchTo(new AdapterListUpdateCallback(adapter));
+        memberCount.setText(String.valueOf(participantsList.size()));
 
-                    isLoading = false;
-                    loadMoreProgress.setVisibility(View.GONE);
-                });
-            }
-        });
+        if (starterChanged && !snapshot.isEmpty()) {
+            drawerRoomName.setText(title);
+            Participant starter = snapshot.get(0);
+            starterName.setText(starter.name);
+            Glide.with(ThreadReplyActivityOnline.this)
+                    .load(starter.display_pic)
+                    .placeholder(R.drawable.person)
+                    .circleCrop()
+                    .into(starterAvatar);
+        }
     }
+
     private void initViews() {
         try {
             // Early return if activity is finishing
@@ -1312,31 +1312,49 @@ private RecyclerView messagesRecyclerView;
 
             if (membersRecyclerView != null) {
                 try {
-                    adapter = new ParticipantAdapter(participantsList != null ? participantsList : new ArrayList<>());
+                    adapter = new ParticipantAdapter(participantsList);
                     membersRecyclerView.setLayoutManager(new LinearLayoutManager(this));
                     membersRecyclerView.setAdapter(adapter);
 
-                    // Add scroll listener with error handling
+                    // ParticipantAdapter doesn't show presence; the pager's online set drives a dot
+                    membersRecyclerView.addItemDecoration(new PresenceDotDecoration(this, position ->
+                            participantPager != null && position < participantsList.size()
+                                    && participantPager.isOnline(participantsList.get(position).user_id)));
+
+                    participantPager = new ParticipantPager(getCacheDir(), articleId, parentCommentId, access,
+                            uiDispatcher::post, new ParticipantPager.Listener() {
+                        @Override
+                        public void onParticipantsChanged(List<Participant> snapshot, ParticipantPager.Update update) {
+                            ThreadReplyActivityOnline.this.onParticipantsChanged(snapshot, update);
+                        }
+
+                        @Override
+                        public void onLoadingChanged(boolean loading) {
+                            if (!isUiSafe()) return;
+                            loadMoreProgress.setVisibility(loading ? View.VISIBLE : View.GONE);
+                        }
+
+                        @Override
+                        public void onLoadFailed(int page) {
+                            if (!isUiSafe()) return;
+                            Toast.makeText(ThreadReplyActivityOnline.this, "Failed to load", Toast.LENGTH_SHORT).show();
+                        }
+                    });
+
+                    // Prefetch before the end instead of waiting for the last row. Every
+                    // position is reported, layout passes (dy == 0) included, so the pager
+                    // can re-check after each page it adds
                     membersRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
                         @Override
                         public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                            try {
-                                if (!isLoading && hasNextPage) {
-                                    LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
-                                    if (layoutManager != null &&
-                                            participantsList != null &&
-                                            layoutManager.findLastCompletelyVisibleItemPosition() == participantsList.size() - 1) {
-                                        fetchParticipants(++page);
-                                    }
-                                }
-                            } catch (Exception e) {
-                                Log.e("ThreadReply", "Error in members scroll listener: " + e.getMessage(), e);
+                            LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                            if (layoutManager != null) {
+                                participantPager.onScrolled(layoutManager.findLastVisibleItemPosition());
                             }
                         }
                     });
 
-                    // Fetch participants with error handling
-                    fetchParticipants(page);
+                    participantPager.start();
 
                 } catch (Exception e) {
                     Log.e("ThreadReply", "Error setting up participants RecyclerView: " + e.getMessage(), e);
@@ -1478,15 +1496,7 @@ private RecyclerView messagesRecyclerView;
             }
 
             // Set people count safely
-            TextView peopleCount = findViewById(R.id.onlineCount);
-            if (peopleCount != null) {
-                try {
-                    peopleCount.setText(people + " in this conversation");
-                } catch (Exception e) {
-                    Log.e("ThreadReply", "Error setting people count: " + e.getMessage(), e);
-                    peopleCount.setText("People in conversation");
-                }
-            }
+            renderConversationSubtitle();
 
         } catch (Exception e) {
             Log.e("ThreadReply", "Error updating UI with intent data: " + e.getMessage(), e);
@@ -1551,8 +1561,9 @@ private RecyclerView messagesRecyclerView;
                 replyPosition -> {
                     Log.d("SwipeToReply", "Swipe detected at reply position: " + replyPosition);
 
-                    if (replyPosition >= 0 && replyPosition < repliesAdapter.getItemCount()) {
-                        Opinion opinion = repliesAdapter.getCurrentList().get(replyPosition);
+                    List<Opinion> replies = threadState.replies;
+                    if (replyPosition >= 0 && replyPosition < replies.size()) {
+                        Opinion opinion = replies.get(replyPosition);
                         Log.d("SwipeToReply", "Replying to ID: " + opinion.getId() + ", sender: " + opinion.getSenderName());
                         setReplyingTo(opinion,true);
                     } else {
@@ -1576,6 +1587,7 @@ private RecyclerView messagesRecyclerView;
                     hideInviteButton();
                 } else {
                     showInviteButton();
+                    typingThrottle.stop();
                 }
             }
         });
@@ -1740,41 +1752,11 @@ private RecyclerView messagesRecyclerView;
             return;
         }
 
-        String emoji;
-        switch (emotion.toLowerCase()) {
-            case "like":
-                emoji = "👍";
-                break;
-            case "love":
-                emoji = "❤️";
-                break;
-            case "curious":
-                emoji = "🤔";
-                break;
-            case "insightful":
-                emoji = "💡";
-                break;
-            case "celebrate":
-                emoji = "🎉";
-                break;
-            case "support":
-                emoji = "🤝";
-                break;
-            case "funny":
-                emoji = "😂";
-                break;
-            case "surprised":
-                emoji = "😮";
-                break;
-            case "sad":
-                emoji = "😢";
-                break;
-            case "angry":
-                emoji = "😠";
-                break;
-            default:
-                return;
+        ReactionType type = ReactionType.fromKey(emotion.toLowerCase());
+        if (type == null) {
+            return;
         }
+        String emoji = type.emoji;
 
     }
 
@@ -1997,24 +1979,10 @@ private RecyclerView messagesRecyclerView;
     private void handleAiQuery(String query, boolean isDeepSearch) {
         // This handles both Deep Search and Instant Answer modes
         long startTime = System.currentTimeMillis();
-
+        // One event per query, with its outcome; recorded off the main thread
+        String contentId = generateContentId();
 
         try {
-
-            AnalyticsManager.getInstance().trackAIQuery(
-                    generateContentId(),
-                    "assistant",
-                    isDeepSearch ? "deep_search" : "instant_answer",
-                    query.length(),
-                    false, // voice input
-                    description != null && !description.isEmpty(),
-                    0, // will update with actual response time
-                    true, // assume success initially
-                    false,
-                    "SocialMediaReadingActivity"
-            );
-
-
             Intent mIntent = new Intent(ThreadReplyActivityOnline.this, SocialMediaReadingActivity.class);
             mIntent.putExtra("text", description != null ? description : "");
             mIntent.putExtra("listen", false);
@@ -2030,12 +1998,12 @@ private RecyclerView messagesRecyclerView;
             }
 
             long responseTime = System.currentTimeMillis() - startTime;
-            AnalyticsManager.getInstance().trackAIQuery(
-                    generateContentId(),
+            Telemetry.getInstance().trackAIQuery(
+                    contentId,
                     "assistant",
                     isDeepSearch ? "deep_search" : "instant_answer",
                     query.length(),
-                    false,
+                    false, // voice input
                     description != null && !description.isEmpty(),
                     responseTime,
                     true,
@@ -2056,8 +2024,8 @@ private RecyclerView messagesRecyclerView;
 
         } catch (Exception e) {
             long responseTime = System.currentTimeMillis() - startTime;
-            AnalyticsManager.getInstance().trackAIQuery(
-                    generateContentId(),
+            Telemetry.getInstance().trackAIQuery(
+                    contentId,
                     "assistant",
                     isDeepSearch ? "deep_search" : "instant_answer",
                     query.length(),
@@ -2080,11 +2048,7 @@ private RecyclerView messagesRecyclerView;
 
     public Single<CommentsResponse> fetchComments(CommentsRequest request) {
         return Single.<CommentsResponse>create(emitter -> {
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .connectTimeout(5, TimeUnit.SECONDS)
-                    .readTimeout(5, TimeUnit.SECONDS)
-                    .writeTimeout(5, TimeUnit.SECONDS)
-                    .build();
+            OkHttpClient client = commentsClient;
 
             JSONObject jsonBody = new JSONObject();
             try {
@@ -2150,6 +2114,7 @@ private RecyclerView messagesRecyclerView;
 
                 if (emitter.isDisposed()) return;
 
+                long decodeStart = SystemClock.elapsedRealtime();
                 JSONObject jsonObject = new JSONObject(jsonData);
                 JSONArray commentsArray = jsonObject.getJSONArray("comments");
                 JSONObject pagination = jsonObject.getJSONObject("pagination");
@@ -2171,6 +2136,9 @@ private RecyclerView messagesRecyclerView;
 
                 // DON'T sort - maintain server order (oldest first)
 
+                NetworkMetrics.recordDecode(httpRequest.url().toString(),
+                        SystemClock.elapsedRealtime() - decodeStart);
+
                 CommentsResponse result = new CommentsResponse();
                 result.comments = opinions;
                 result.totalCount = jsonObject.optInt("total_comment_count", 0);
@@ -2211,7 +2179,17 @@ private RecyclerView messagesRecyclerView;
         OLDER, NEWER
     }
     private void initializeViews() {
-        messageSound = MediaPlayer.create(this, R.raw.sent);
+        AudioCueEngine.getInstance(this).preload(R.raw.sent);
+        reactionDispatcher = new ReactionDispatcher(new Handler(Looper.getMainLooper()));
+        reactionDispatcher.setOnRevertedListener((targetId, serverReaction) -> {
+            // Only called when the failed request carried the latest tap
+            if (isParentTarget(targetId)) {
+                reactionState.setPending(targetId, serverReaction);
+                renderParentReactions();
+            } else {
+                threadStore.dispatch(new ThreadAction.ReactionChanged(targetId, null, true, serverReaction));
+            }
+        });
         messageInput = findViewById(R.id.threadMessageInput);
         sendButton = findViewById(R.id.threadSendButton);
 
@@ -2232,6 +2210,7 @@ private RecyclerView messagesRecyclerView;
             @Override
             public void afterTextChanged(Editable s) {}
         });
+        setupMessageInputWithTyping();
 
         // Setup send button
         sendButton.setOnClickListener(v -> {
@@ -2273,10 +2252,11 @@ private RecyclerView messagesRecyclerView;
                 .setIsolateViewTypes(true)
                 .build();
 
+        // Rows come from holders created while the main thread idles during the first page load
         ConcatAdapter concatAdapter = new ConcatAdapter(
                 config,
-                parentCardAdapter,
-                repliesAdapter
+                viewPrewarmer.wrap("parent", parentCardAdapter),
+                viewPrewarmer.wrap("replies", repliesAdapter)
         );
         Log.d("ParentCard", "Created ConcatAdapter with " + concatAdapter.getItemCount() + " total items");
 
@@ -2297,69 +2277,39 @@ private RecyclerView messagesRecyclerView;
         messagesRecyclerView.setClipChildren(false);
         messagesRecyclerView.setAdapter(concatAdapter);
         Log.d("ParentCard", "Set concat adapter on RecyclerView");
+        viewPrewarmer.prewarm(messagesRecyclerView);
 
         setupSwipeToReply();
 
-        // Add scroll listener to load more when reaching bottom
-        messagesRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
-            @Override
-            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                super.onScrolled(recyclerView, dx, dy);
-
-                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
-                if (layoutManager == null) return;
-
-                int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
-                int lastVisibleItemPosition = layoutManager.findLastVisibleItemPosition();
-                int totalItemCount = layoutManager.getItemCount();
-
-                if (!isLoading && !isLoadingMoreItems) {
-                    // Adjust for parent card offset
-                    int adjustedFirstVisible = Math.max(0, firstVisibleItemPosition - 1);
-                    int adjustedLastVisible = lastVisibleItemPosition - 1;
-                    int repliesCount = repliesAdapter.getItemCount();
-
-                    // Load older comments when scrolling to top
-                    if (adjustedFirstVisible <= 10 && currentPagination.hasMoreBefore && !currentPagination.isAtOldest) {
-                        recyclerView.post(() -> {
-                            isLoadingMoreItems = true;
-                            loadMoreComments(LoadDirection.OLDER);
-                        });
-                    }
-                    // Load newer comments when scrolling to bottom
-                    else if (adjustedLastVisible >= repliesCount - 10 && currentPagination.hasMoreAfter && !currentPagination.isAtLatest) {
-                        recyclerView.post(() -> {
-                            isLoadingMoreItems = true;
-                            loadMoreComments(LoadDirection.NEWER);
-                        });
-                    }
+        // Pagination and the jump button only react when the scroll state changes
+        messagesRecyclerView.addOnScrollListener(new ThreadScrollController(1, (previous, current) -> {
+            if (!isLoading && !isLoadingMoreItems) {
+                // Load older comments when scrolling to top
+                if (current.nearTop && threadState.hasMoreBefore && !threadState.isAtOldest) {
+                    messagesRecyclerView.post(() -> {
+                        isLoadingMoreItems = true;
+                        loadMoreComments(LoadDirection.OLDER);
+                    });
+                }
+                // Load newer comments when scrolling to bottom
+                else if (current.nearBottom && threadState.hasMoreAfter && !threadState.isAtLatest) {
+                    messagesRecyclerView.post(() -> {
+                        isLoadingMoreItems = true;
+                        loadMoreComments(LoadDirection.NEWER);
+                    });
                 }
-                handleScrollDirectionFAB(dy, firstVisibleItemPosition, lastVisibleItemPosition, totalItemCount);
-                // Show/hide jump to recent button
-//                updateJumpToRecentButton(firstVisibleItemPosition, totalItemCount);
             }
-        });
+            handleScrollDirectionFAB(current);
+        }));
     }
 
 
 
-    private void handleScrollDirectionFAB(int dy, int firstVisible, int lastVisible, int totalItems) {
-        // Only show button if scrolling with sufficient velocity
-        if (Math.abs(dy) < SCROLL_THRESHOLD) {
-            return;
-        }
-
-        lastScrollTime = System.currentTimeMillis();
-
-        // Check current position constraints
-        boolean isAtTop = firstVisible <= 2; // Near top (accounting for parent card)
-        boolean isAtBottom = lastVisible >= totalItems - 3; // Near bottom
-        boolean hasScrolledSignificantly = firstVisible > 5; // Scrolled away from top
-
-        if (dy > 0) {
+    private void handleScrollDirectionFAB(ThreadScrollController.State state) {
+        if (state.direction == ThreadScrollController.Direction.DOWN) {
             // Scrolling DOWN - show "jump to bottom" button to help continue downward
-            if (hasScrolledSignificantly && !isAtBottom) {
-                if (!currentPagination.isAtLatest) {
+            if (state.awayFromTop && !state.atBottomEdge) {
+                if (!threadState.isAtLatest) {
                     // There are newer messages - show "jump to recent"
                     showJumpToRecentButton();
                 } else {
@@ -2367,9 +2317,9 @@ private RecyclerView messagesRecyclerView;
                     showJumpToBottomButton();
                 }
             }
-        } else {
+        } else if (state.direction == ThreadScrollController.Direction.UP) {
             // Scrolling UP - show "jump to top" button to help continue upward
-            if (hasScrolledSignificantly && !isAtTop) {
+            if (state.awayFromTop && !state.atTopEdge) {
                 showJumpToTopButton();
             }
         }
@@ -2385,13 +2335,13 @@ private RecyclerView messagesRecyclerView;
         boolean isScrolledUp = firstVisiblePosition > 5; // Scrolled up significantly
 
         // Determine button state
-        if (currentPagination.isAtLatest && isAtBottom) {
+        if (threadState.isAtLatest && isAtBottom) {
             // At bottom and no more messages - show "jump to top"
             showJumpToTopButton();
-        } else if (isScrolledUp && !currentPagination.isAtLatest) {
+        } else if (isScrolledUp && !threadState.isAtLatest) {
             // Scrolled up and there are newer messages - show "jump to recent"
             showJumpToRecentButton();
-        } else if (isScrolledUp && currentPagination.isAtLatest) {
+        } else if (isScrolledUp && threadState.isAtLatest) {
             // Scrolled up but at latest - show "jump to bottom"
             showJumpToBottomButton();
         } else {
@@ -2411,7 +2361,18 @@ private RecyclerView messagesRecyclerView;
         }
     }
 
+    /**
+     * Returns true if the button already shows {@code mode}, so callers can skip
+     * re-setting the icon, listener and animation.
+     */
+    private boolean isJumpButtonShowing(JumpButtonMode mode) {
+        boolean showing = jumpButtonMode == mode && jumpToRecentButton.getVisibility() == View.VISIBLE;
+        jumpButtonMode = mode;
+        return showing;
+    }
+
     private void showJumpToTopButton() {
+        if (isJumpButtonShowing(JumpButtonMode.TOP)) return;
         showButtonWithFadeIn();
         jumpToRecentButton.setImageResource(R.drawable.baseline_keyboard_double_arrow_down_24);
         jumpToRecentButton.setContentDescription("Jump to top");
@@ -2429,6 +2390,7 @@ private RecyclerView messagesRecyclerView;
 
 
     private void showJumpToRecentButton() {
+        if (isJumpButtonShowing(JumpButtonMode.RECENT)) return;
         jumpToRecentButton.setVisibility(View.VISIBLE);
         jumpToRecentButton.setImageResource(R.drawable.baseline_keyboard_double_arrow_down_24); // You'll need this icon
         jumpToRecentButton.setContentDescription("Jump to recent messages");
@@ -2438,6 +2400,7 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void showJumpToBottomButton() {
+        if (isJumpButtonShowing(JumpButtonMode.BOTTOM)) return;
         jumpToRecentButton.setVisibility(View.VISIBLE);
         jumpToRecentButton.setImageResource(R.drawable.baseline_keyboard_double_arrow_down_24);
         jumpToRecentButton.setContentDescription("Jump to bottom");
@@ -2490,22 +2453,24 @@ private RecyclerView messagesRecyclerView;
                     @Override
                     public void onSuccess(@NonNull CommentsResponse response) {
                         isLoading = false;
-                        currentPagination = response;
+                        jankMonitor.mark(FrameJankMonitor.UiState.INITIAL_LOAD, 1500);
 
                         updateRepliesCount(response.totalCount);
 
                         if (response.comments.isEmpty()) {
-                           showContent();
+                            threadStore.dispatch(new ThreadAction.PageLoaded(ThreadAction.PageKind.REPLACE, response));
+                            showContent();
                             return;
                         }
 
-                        repliesAdapter.submitList(response.comments, () -> {
-                            showContent();
-                            updateJumpToRecentButton(0, response.comments.size());
-                            if (!hasLoadedRecentMessages && !currentPagination.isAtLatest) {
-                                silentlyLoadRecentMessages(false);
-                            }
-                        });
+                        threadStore.dispatch(new ThreadAction.PageLoaded(ThreadAction.PageKind.REPLACE, response),
+                                (previous, current) -> {
+                                    showContent();
+                                    updateJumpToRecentButton(0, response.comments.size());
+                                    if (!current.hasLoadedRecentMessages && !current.isAtLatest) {
+                                        silentlyLoadRecentMessages(false);
+                                    }
+                                });
                     }
 
                     @Override
@@ -2590,8 +2555,12 @@ private RecyclerView messagesRecyclerView;
             }
         }
     }
+    /**
+     * Appends the newest page without a loading state. Runs once per load; a resume
+     * checks again.
+     */
     private void silentlyLoadRecentMessages(boolean resumed) {
-        if (hasLoadedRecentMessages || isLoading) {
+        if ((threadState.hasLoadedRecentMessages && !resumed) || isLoading) {
             return;
         }
 
@@ -2606,60 +2575,25 @@ private RecyclerView messagesRecyclerView;
                 .subscribe(new SingleObserver<CommentsResponse>() {
                     @Override
                     public void onSuccess(@NonNull CommentsResponse recentResponse) {
-                        hasLoadedRecentMessages = true;
-
-                        if (recentResponse.comments.isEmpty()) {
-                            Log.d("ThreadReplies", "No recent messages to add");
-                            return;
-                        }
-
-                        // Get current list
-                        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-                        Set<String> existingIds = new HashSet<>();
-                           for (Opinion opinion : currentList) {
-
-                            existingIds.add(opinion.getId());
-                        }
-
-                        // Find truly new messages
-                        List<Opinion> newMessages = new ArrayList<>();
-                        for (Opinion opinion : recentResponse.comments) {
-                            if (!existingIds.contains(opinion.getId())) {
-
-                                newMessages.add(opinion);
+                        if (!recentResponse.comments.isEmpty()) {
+                            if (foreground) {
+                                updatePillandShow(false);
+                            } else {
+                                hidePill();
                             }
+                        } else {
+                            Log.d("ThreadReplies", "No recent messages to add");
                         }
-                        if(foreground) {
-                            updatePillandShow(false);
-                        }
-                        else{
-                            hidePill();
-                        }
-
-                        if (!newMessages.isEmpty()) {
-                            Log.d("ThreadReplies", "Adding " + newMessages.size() + " recent messages silently");
-
-                            // Add new messages to the end
-                            currentList.addAll(newMessages);
-
-                            // Update pagination with recent response data
-                            currentPagination.hasMoreAfter = recentResponse.hasMoreAfter;
-                            currentPagination.isAtLatest = recentResponse.isAtLatest;
-                            currentPagination.afterCursor = recentResponse.afterCursor;
-
-                            // Submit updated list
-                            repliesAdapter.submitList(currentList, () -> {
-                                // Update jump button state based on new pagination
-                                LinearLayoutManager layoutManager = (LinearLayoutManager) messagesRecyclerView.getLayoutManager();
-                                if (layoutManager != null) {
-                                    showJumpToRecentButton();
-
-                                }
-                            });
-                        }
-                        if(resumed) {
 
-                        }
+                        threadStore.dispatch(new ThreadAction.PageLoaded(ThreadAction.PageKind.RECENT, recentResponse),
+                                (previous, current) -> {
+                                    int added = current.replies.size() - previous.replies.size();
+                                    if (added > 0) {
+                                        Log.d("ThreadReplies", "Added " + added + " recent messages silently");
+                                        // Update jump button state based on new pagination
+                                        showJumpToRecentButton();
+                                    }
+                                });
                     }
 
                     @Override
@@ -2677,14 +2611,17 @@ private RecyclerView messagesRecyclerView;
 
 
     private void loadMoreComments(LoadDirection direction) {
+        ThreadAction.Direction pageDirection = direction == LoadDirection.OLDER
+                ? ThreadAction.Direction.OLDER : ThreadAction.Direction.NEWER;
+
         // Double-check we should load more
-        if (direction == LoadDirection.OLDER && (!currentPagination.hasMoreBefore || currentPagination.isAtOldest)) {
+        if (direction == LoadDirection.OLDER && (!threadState.hasMoreBefore || threadState.isAtOldest)) {
             Log.d("LoadMore", "Skipping older load - no more data");
             isLoadingMoreItems = false;
             return;
         }
 
-        if (direction == LoadDirection.NEWER && (!currentPagination.hasMoreAfter || currentPagination.isAtLatest)) {
+        if (direction == LoadDirection.NEWER && (!threadState.hasMoreAfter || threadState.isAtLatest)) {
             Log.d("LoadMore", "Skipping newer load - already at latest");
             isLoadingMoreItems = false;
             return;
@@ -2692,34 +2629,30 @@ private RecyclerView messagesRecyclerView;
 
         CommentsRequest request;
         String cursor;
+        String lastCursor;
 
         if (direction == LoadDirection.OLDER) {
-            cursor = currentPagination.beforeCursor;
-            if (cursor == null || cursor.isEmpty() || cursor.equals(lastBeforeCursor)) {
-                Log.d("LoadMore", "No valid before cursor available or cursor unchanged");
-                isLoadingMoreItems = false;
-                // Force stop loading in this direction
-                currentPagination.hasMoreBefore = false;
-                currentPagination.isAtOldest = true;
-                return;
-            }
-            lastBeforeCursor = cursor;
-            request = CommentsRequest.loadOlder(cursor, PAGE_SIZE);
+            cursor = threadState.beforeCursor;
+            lastCursor = threadState.lastBeforeCursor;
         } else {
-            cursor = currentPagination.afterCursor;
-            if (cursor == null || cursor.isEmpty() || cursor.equals(lastAfterCursor)) {
-                Log.d("LoadMore", "No valid after cursor available or cursor unchanged");
-                isLoadingMoreItems = false;
-                // Force stop loading in this direction
-                currentPagination.hasMoreAfter = false;
-                currentPagination.isAtLatest = true;
-                return;
-            }
-            lastAfterCursor = cursor;
-            request = CommentsRequest.loadNewer(cursor, PAGE_SIZE);
+            cursor = threadState.afterCursor;
+            lastCursor = threadState.lastAfterCursor;
         }
 
-        Log.d("LoadMore", "Loading " + direction + " with cursor: " + cursor);
+        if (cursor == null || cursor.isEmpty() || cursor.equals(lastCursor)) {
+            Log.d("LoadMore", "No valid " + direction + " cursor available or cursor unchanged");
+            // Force stop loading in this direction
+            threadStore.dispatch(new ThreadAction.PagingExhausted(pageDirection),
+                    (previous, current) -> isLoadingMoreItems = false);
+            return;
+        }
+
+        threadStore.dispatch(new ThreadAction.PageRequested(pageDirection, cursor));
+        request = direction == LoadDirection.OLDER
+                ? CommentsRequest.loadOlder(cursor, PAGE_SIZE)
+                : CommentsRequest.loadNewer(cursor, PAGE_SIZE);
+
+        Log.d("LoadMore", "Loading " + direction + " with cursor: " + cursor);
 
         fetchComments(request)
                 .subscribeOn(Schedulers.io())
@@ -2727,126 +2660,25 @@ private RecyclerView messagesRecyclerView;
                 .subscribe(new SingleObserver<CommentsResponse>() {
                     @Override
                     public void onSuccess(@NonNull CommentsResponse response) {
-                        isLoadingMoreItems = false;
+                        if (direction == LoadDirection.OLDER) {
+                            jankMonitor.mark(FrameJankMonitor.UiState.PAGINATION_PREPEND, 1000);
+                        }
 
                         Log.d("LoadMore", "Loaded " + response.comments.size() + " comments");
                         Log.d("LoadMore", "hasMoreBefore: " + response.hasMoreBefore + ", hasMoreAfter: " + response.hasMoreAfter);
                         Log.d("LoadMore", "isAtLatest: " + response.isAtLatest + ", isAtOldest: " + response.isAtOldest);
 
-                        // Skip if no new comments
-                        if (response.comments.isEmpty()) {
-                            Log.d("LoadMore", "No new comments received - updating pagination state");
-                            // Update pagination state even if no comments received
-                            if (direction == LoadDirection.OLDER) {
-                                currentPagination.hasMoreBefore = false;
-                                currentPagination.isAtOldest = true;
-                            } else {
-                                currentPagination.hasMoreAfter = false;
-                                currentPagination.isAtLatest = true;
-                            }
-                            return;
-                        }
-
-                        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-                        Set<String> currentIds = new HashSet<>();
-
-                        // Create set of current comment IDs for duplicate detection
-                        for (Opinion opinion : currentList) {
-                            currentIds.add(opinion.getId());
-                        }
-
-                        // Filter out duplicates from response
-                        List<Opinion> newComments = new ArrayList<>();
-                        for (Opinion comment : response.comments) {
-                            if (!currentIds.contains(comment.getId())) {
-                                newComments.add(comment);
-                            }
-                        }
-
-                        Log.d("LoadMore", "Filtered duplicates: " + response.comments.size() + " -> " + newComments.size());
-
-                        // CLIENT-SIDE BOUNDARY DETECTION: If all comments were duplicates, we've hit the boundary
-                        if (newComments.isEmpty()) {
-                            Log.d("LoadMore", "All comments were duplicates - we've reached the boundary!");
-                            if (direction == LoadDirection.OLDER) {
-                                currentPagination.hasMoreBefore = false;
-                                currentPagination.isAtOldest = true;
-                                lastBeforeCursor = null;
-                                Log.d("LoadMore", "BOUNDARY DETECTED: No more older comments");
-                            } else {
-                                currentPagination.hasMoreAfter = false;
-                                currentPagination.isAtLatest = true;
-                                lastAfterCursor = null;
-                                Log.d("LoadMore", "BOUNDARY DETECTED: No more newer comments - forcing isAtLatest=true");
-                            }
-                            return;
-                        }
-
-                        // ADDITIONAL BOUNDARY CHECK: If we have all comments from totalCount
-                        int currentTotalInList = currentList.size();
-                        int totalCommentsInRoom = currentPagination.totalCount;
-
-                        if (direction == LoadDirection.NEWER && totalCommentsInRoom > 0) {
-                            int afterAddingNew = currentTotalInList + newComments.size();
-                            if (afterAddingNew >= totalCommentsInRoom) {
-                                Log.d("LoadMore", "BOUNDARY DETECTED: Will have all comments (" + afterAddingNew + "/" + totalCommentsInRoom + ") - forcing stop");
-                                // Only add comments up to the total count
-                                int commentsToAdd = Math.max(0, totalCommentsInRoom - currentTotalInList);
-                                if (commentsToAdd < newComments.size()) {
-                                    newComments = newComments.subList(0, commentsToAdd);
-                                }
-                                // Force boundary state
-                                currentPagination.hasMoreAfter = false;
-                                currentPagination.isAtLatest = true;
-                                lastAfterCursor = null;
-                            }
-                        }
-
-                        int originalSize = currentList.size();
-
-                        if (direction == LoadDirection.OLDER) {
-                            // Add older comments at the beginning
-                            currentList.addAll(0, newComments);
-                            currentPagination.hasMoreBefore = response.hasMoreBefore;
-                            currentPagination.beforeCursor = response.beforeCursor;
-                            currentPagination.isAtOldest = response.isAtOldest;
-
-                            // If we got fewer comments than requested, we might be at the end
-                            if (newComments.size() < PAGE_SIZE) {
-                                currentPagination.hasMoreBefore = false;
-                                currentPagination.isAtOldest = true;
-                            }
-                        } else {
-                            // Add newer comments at the end
-                            currentList.addAll(newComments);
-
-                            // Trust server response for pagination state
-                            currentPagination.hasMoreAfter = response.hasMoreAfter && response.comments.size() >= PAGE_SIZE;
-                            currentPagination.afterCursor = response.afterCursor;
-                            currentPagination.isAtLatest = response.isAtLatest || response.comments.size() < PAGE_SIZE;
-
-                            // Additional safety: if server says we're at latest, enforce it
-                            if (response.isAtLatest) {
-                                currentPagination.hasMoreAfter = false;
-                                currentPagination.isAtLatest = true;
-                                lastAfterCursor = null;
-                                Log.d("LoadMore", "Server confirms we are at latest - stopping future loads");
-                            }
-
-
-                        }
-
-                        Log.d("LoadMore", "List size: " + originalSize + " -> " + currentList.size());
-                        Log.d("LoadMore", "Updated pagination - hasMoreBefore: " + currentPagination.hasMoreBefore +
-                                ", hasMoreAfter: " + currentPagination.hasMoreAfter +
-                                ", isAtLatest: " + currentPagination.isAtLatest);
-
-                        // Debug current state
-
-
-                        repliesAdapter.submitList(currentList);
-
-                        // Auto-correct any remaining server bugs
+                        // Dedup, boundary detection and cursor updates happen in the reducer.
+                        // Loading stays flagged until the new state is shown so the scroll
+                        // listener can't request the same cursor again in between.
+                        threadStore.dispatch(new ThreadAction.MorePageLoaded(pageDirection, response, PAGE_SIZE),
+                                (previous, current) -> {
+                                    isLoadingMoreItems = false;
+                                    Log.d("LoadMore", "List size: " + previous.replies.size() + " -> " + current.replies.size());
+                                    Log.d("LoadMore", "Updated pagination - hasMoreBefore: " + current.hasMoreBefore +
+                                            ", hasMoreAfter: " + current.hasMoreAfter +
+                                            ", isAtLatest: " + current.isAtLatest);
+                                });
                     }
 
                     @Override
@@ -2866,16 +2698,13 @@ private RecyclerView messagesRecyclerView;
 
 
     private void jumpToRecentComments() {
-        if (hasLoadedRecentMessages && currentPagination.isAtLatest) {
+        if (threadState.hasLoadedRecentMessages && threadState.isAtLatest) {
             jumpToBottom();
             return;
         }
         showLoadingState();
         isLoading = true;
         isLoadingMoreItems = false;
-        // Reset cursor tracking
-        lastAfterCursor = null;
-        lastBeforeCursor = null;// Reset this state
 
         CommentsRequest request = CommentsRequest.jumpToLatest(PAGE_SIZE);
 
@@ -2888,22 +2717,18 @@ private RecyclerView messagesRecyclerView;
                         isLoading = false;
                         isLoadingMoreItems = false;
 
-                        // Ensure we're marked as at latest
-                        currentPagination = response;
-                        currentPagination.isAtLatest = true;
-                        currentPagination.hasMoreAfter = false;
-
-                        Log.d("JumpToRecent", "Jumped to recent. isAtLatest: " + currentPagination.isAtLatest +
-                                ", hasMoreAfter: " + currentPagination.hasMoreAfter);
-
-                        repliesAdapter.submitList(response.comments, () -> {
-                            showContent();
-                            // Scroll to bottom to show latest comments
-                            if (response.comments.size() > 0) {
-                                messagesRecyclerView.scrollToPosition(response.comments.size());
-                            }
-                            jumpToRecentButton.setVisibility(View.GONE);
-                        });
+                        // Marks us as at latest and resets cursor tracking
+                        threadStore.dispatch(new ThreadAction.PageLoaded(ThreadAction.PageKind.LATEST, response),
+                                (previous, current) -> {
+                                    Log.d("JumpToRecent", "Jumped to recent. isAtLatest: " + current.isAtLatest +
+                                            ", hasMoreAfter: " + current.hasMoreAfter);
+                                    showContent();
+                                    // Scroll to bottom to show latest comments
+                                    if (response.comments.size() > 0) {
+                                        messagesRecyclerView.scrollToPosition(response.comments.size());
+                                    }
+                                    jumpToRecentButton.setVisibility(View.GONE);
+                                });
                     }
 
                     @Override
@@ -2922,25 +2747,14 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void resetPaginationState() {
-        currentPagination = new CommentsResponse();
-        currentPagination.hasMoreBefore = false;
-        currentPagination.hasMoreAfter = false;
-        currentPagination.isAtLatest = true;
-        currentPagination.isAtOldest = true;
+        threadStore.dispatch(new ThreadAction.ResetPagination());
         isLoadingMoreItems = false;
-        lastAfterCursor = null; // Reset cursor tracking
-        lastBeforeCursor = null;
     }
 
     private void stopAllLoading() {
         isLoading = false;
         isLoadingMoreItems = false;
-        currentPagination.hasMoreBefore = false;
-        currentPagination.hasMoreAfter = false;
-        currentPagination.isAtLatest = true;
-        currentPagination.isAtOldest = true;
-        lastAfterCursor = null; // Reset cursor tracking
-        lastBeforeCursor = null;
+        threadStore.dispatch(new ThreadAction.StopPaging());
         Log.d("StopLoading", "All loading stopped and pagination disabled");
     }
 
@@ -2965,13 +2779,7 @@ private RecyclerView messagesRecyclerView;
      * @return the position of the comment in the list, or -1 if not found
      */
     private int findCommentPositionById(String commentId) {
-        List<Opinion> currentList = repliesAdapter.getCurrentList();
-        for (int i = 0; i < currentList.size(); i++) {
-            if (currentList.get(i).getId().equals(commentId)) {
-                return i;
-            }
-        }
-        return -1;
+        return ThreadReducer.indexOf(threadState.replies, commentId);
     }
 
     /**
@@ -3157,9 +2965,9 @@ private RecyclerView messagesRecyclerView;
                     public void onSuccess(@NonNull CommentsResponse response) {
                         isLoading = false;
                         isLoadingMoreItems = false;
-                        currentPagination = response;
 
                         if (response.comments.isEmpty()) {
+                            threadStore.dispatch(new ThreadAction.PageLoaded(ThreadAction.PageKind.REPLACE, response));
                             Toast.makeText(ThreadReplyActivityOnline.this,
                                     "Comment not found or was deleted", Toast.LENGTH_SHORT).show();
                             showContent();
@@ -3168,7 +2976,7 @@ private RecyclerView messagesRecyclerView;
 
                         updateRepliesCount(response.totalCount);
 
-                        repliesAdapter.submitList(response.comments, () -> {
+                        threadStore.dispatch(new ThreadAction.PageLoaded(ThreadAction.PageKind.REPLACE, response), (previous, current) -> {
                             showContent();
 
                             if (response.focusCommentIndex >= 0) {
@@ -3260,7 +3068,7 @@ private RecyclerView messagesRecyclerView;
         // Show a subtle loading indicator
         showInlineLoadingForJoin();
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
         JSONObject jsonBody = new JSONObject();
 
         try {
@@ -3341,7 +3149,7 @@ private RecyclerView messagesRecyclerView;
         String apiContent = messageInput.getTextForSubmission();
 
         // Create and display optimistic message immediately
-        String tempId = "temp_" + System.currentTimeMillis();
+        String tempId = ThreadReducer.TEMP_ID_PREFIX + System.currentTimeMillis();
         Opinion optimisticMessage = new Opinion.Builder()
                 .setId(tempId)
                 .setSenderId(currentUserId)
@@ -3362,11 +3170,8 @@ private RecyclerView messagesRecyclerView;
         // Clear input immediately for instant user feedback
         messageInput.setText("");
 
-        // Add to UI immediately and force refresh
-        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-        currentList.add(optimisticMessage);
-
-        repliesAdapter.submitList(currentList, () -> {
+        // Add to UI immediately
+        threadStore.dispatch(new ThreadAction.OptimisticSent(optimisticMessage), (previous, current) -> {
             // Scroll to the newly added message
             messagesRecyclerView.post(() -> {
                 int totalItemsNew = repliesAdapter.getItemCount();
@@ -3474,7 +3279,7 @@ private RecyclerView messagesRecyclerView;
                             // Reset UI state
                             resetMessageUI();
 
-                            HistoryManager.getInstance().trackCommentCreated(String.valueOf(articleId),realMessage.getId(),realMessage.getMessage(),title,String.valueOf(realMessage.getParentCommentId()),"",0,0,"",0,0,"Conversation Room");
+                            Telemetry.getInstance().trackCommentCreated(articleId, realMessage.getId(), realMessage.getMessage(), title, realMessage.getParentCommentId(), "Conversation Room");
 
 
                         } catch (JSONException e) {
@@ -3536,6 +3341,7 @@ private RecyclerView messagesRecyclerView;
 
     private void sendReply(String content) {
         if (isSending) return;
+        jankMonitor.mark(FrameJankMonitor.UiState.SEND, 1000);
 
         // Check if user needs to join first
         if (needsToJoin && !isPrivate) {
@@ -3549,7 +3355,7 @@ private RecyclerView messagesRecyclerView;
         String apiContent = messageInput.getTextForSubmission();
 
         // Create and display optimistic message immediately
-        String tempId = "temp_" + System.currentTimeMillis();
+        String tempId = ThreadReducer.TEMP_ID_PREFIX + System.currentTimeMillis();
         Opinion optimisticMessage = new Opinion.Builder()
                 .setId(tempId)
                 .setSenderId(currentUserId)
@@ -3571,10 +3377,8 @@ private RecyclerView messagesRecyclerView;
         messageInput.setText("");
 
 
-        // Add to UI immediately and force refresh
-        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-        currentList.add(optimisticMessage);
-        repliesAdapter.submitList(currentList,()->{
+        // Add to UI immediately
+        threadStore.dispatch(new ThreadAction.OptimisticSent(optimisticMessage), (previous, current) -> {
             int totalItems = repliesAdapter.getItemCount();
             if (totalItems > 0) {
                 int lastPosition = totalItems;
@@ -3692,8 +3496,8 @@ private RecyclerView messagesRecyclerView;
                             // Reset UI state
                             resetMessageUI();
 
-                            HistoryManager.getInstance().trackCommentCreated(String.valueOf(articleId),realMessage.getId(),realMessage.getMessage(),title,String.valueOf(realMessage.getParentCommentId()),"",0,0,"",0,0,"Conversation Room");
-                            manager.join("commented");
+                            Telemetry.getInstance().trackCommentCreated(articleId, realMessage.getId(), realMessage.getMessage(), title, realMessage.getParentCommentId(), "Conversation Room");
+                            joinConversation("commented");
 
                         } catch (JSONException e) {
                             handleSendError(optimisticMessage, e, content);
@@ -3713,18 +3517,7 @@ private RecyclerView messagesRecyclerView;
     // Update the handleSendError method to preserve the message
     private void handleSendError(Opinion optimisticMessage, Throwable error, String originalContent) {
         // Remove optimistic message
-        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-
-        // Find and remove the message by ID
-        for (int i = 0; i < currentList.size(); i++) {
-            if (currentList.get(i).getId().equals(optimisticMessage.getId())) {
-                currentList.remove(i);
-                break;
-            }
-        }
-
-        // Update the list
-        repliesAdapter.submitList(currentList);
+        threadStore.dispatch(new ThreadAction.SendFailed(optimisticMessage.getId()));
 
         // Show error message
         Toast.makeText(this, "Failed to send message: " + error.getMessage(),
@@ -3747,164 +3540,40 @@ private RecyclerView messagesRecyclerView;
 
 
     private void replaceOptimisticMessage(String tempId, Opinion realMessage) {
-        List<Opinion> updatedList = new ArrayList<>(repliesAdapter.getCurrentList());
-        boolean replacedMessage = false;
-        int replacedPosition = -1;
-
-        // Find the optimistic message
-        Opinion optimisticMessage = null;
-        for (Opinion opinion : updatedList) {
-            if (opinion.getId().equals(tempId)) {
-                optimisticMessage = opinion;
-                break;
-            }
-        }
-
-        // Find and replace the optimistic message
-        for (int i = 0; i < updatedList.size(); i++) {
-            Opinion current = updatedList.get(i);
-            if (current.getId().equals(tempId)) {
-                replacedPosition = i;
-
-                // Create a delivered version of the real message
-                Opinion.Builder builder = new Opinion.Builder()
-                        .setId(realMessage.getId())
-                        .setSenderId(realMessage.getSenderId())
-                        .setProfileImage(realMessage.getProfileImage())
-                        .setSenderName(realMessage.getSenderName())
-                        .setMessage(realMessage.getMessage())
-                        .setQuote(realMessage.getQuote())
-                        .setEmotion(realMessage.getEmotion())
-                        .setMiniMessage(realMessage.getminimessage())
-                        .setTimestamp(realMessage.getTimestamp())
-                        .setTitle(realMessage.getTitle())
-                        .setReactions(realMessage.getReactions())
-                        .setUserReaction(realMessage.getUserReaction())
-                        .setchild_comment_count(realMessage.getChild_comment_count())
-                        .setParentCommentId(realMessage.getParentCommentId())
-                        .setParentContent(realMessage.getParentContent())
-                        .setParentUserName(realMessage.getParentUserName())
-                        .setStatus(MessageStatus.DELIVERED)
-                        .setEdited(realMessage.isEdited());
-
-                // Carefully preserve reply information
-                // First check if the real message has reply info
-                if (realMessage.getReplyid() != -1) {
-                    builder.setReplyid(realMessage.getReplyid())
-                            .setReplyusername(realMessage.getReplyusername())
-                            .setReplycontent(realMessage.getReplycontent());
-                }
-                // If not, check if the optimistic message had reply info
-                else if (optimisticMessage != null && optimisticMessage.getReplyid() != -1) {
-                    builder.setReplyid(optimisticMessage.getReplyid())
-                            .setReplyusername(optimisticMessage.getReplyusername())
-                            .setReplycontent(optimisticMessage.getReplycontent());
-
-                    // Log that we're preserving the reply info from the optimistic message
-                    Log.d("ReplaceMessage", "Preserving reply info from optimistic message: " +
-                            "replyId=" + optimisticMessage.getReplyid() +
-                            ", username=" + optimisticMessage.getReplyusername());
-                }
-
-                // Replace the temp message with the real one
-                updatedList.set(i, builder.build());
-                replacedMessage = true;
-                break;
-            }
-        }
-
-        // If we couldn't find the temp message, add the real one
-        if (!replacedMessage) {
-            // Create a delivered version of the real message
-            Opinion.Builder builder = new Opinion.Builder()
-                    .setId(realMessage.getId())
-                    .setSenderId(realMessage.getSenderId())
-                    .setProfileImage(realMessage.getProfileImage())
-                    .setSenderName(realMessage.getSenderName())
-                    .setMessage(realMessage.getMessage())
-                    .setQuote(realMessage.getQuote())
-                    .setEmotion(realMessage.getEmotion())
-                    .setTimestamp(realMessage.getTimestamp())
-                    .setTitle(realMessage.getTitle())
-                    .setMiniMessage(realMessage.getminimessage())
-                    .setReactions(realMessage.getReactions())
-                    .setUserReaction(realMessage.getUserReaction())
-                    .setchild_comment_count(realMessage.getChild_comment_count())
-                    .setParentCommentId(realMessage.getParentCommentId())
-                    .setParentContent(realMessage.getParentContent())
-                    .setParentUserName(realMessage.getParentUserName())
-                    .setStatus(MessageStatus.DELIVERED)
-                    .setEdited(realMessage.isEdited());
-
-            // Preserve reply information from real message if available
-            if (realMessage.getReplyid() != -1) {
-                builder.setReplyid(realMessage.getReplyid())
-                        .setReplyusername(realMessage.getReplyusername())
-                        .setReplycontent(realMessage.getReplycontent());
-            }
-
-            // Add to the END of the list (for newest messages)
-            // Most chat apps show newest messages at the bottom
-            updatedList.add(builder.build());
-            replacedPosition = updatedList.size() - 1;
-
-            Log.d("ReplaceMessage", "Temp message not found, added real message to end at position: " + replacedPosition);
-        }
-
-        // Submit updated list - NO position offset calculations needed!
-        if (replacedPosition != -1) {
-            Log.d("ReplaceMessage", "Replacing message at position: " + replacedPosition +
-                    ", temp ID: " + tempId + ", real ID: " + realMessage.getId());
-
-            boolean finalReplacedMessage = replacedMessage;
-            int finalReplacedPosition = replacedPosition;
-            repliesAdapter.submitList(updatedList, () -> {
-                // Simply notify the change at the actual position in the replies adapter
-                // ConcatAdapter will handle the overall positioning automatically
-                repliesAdapter.notifyItemChanged(finalReplacedPosition);
-
-                // Scroll to the message if it was added (not replaced)
-                if (!finalReplacedMessage) {
-                    // Auto-scroll to the newest message - ADD NULL CHECK HERE
-                    messagesRecyclerView.post(() -> {
-                        // Check if concatAdapter is not null before using it
-                        if (concatAdapter != null) {
-                            // Get total items in concat adapter and scroll to last position
-                            int totalItems = concatAdapter.getItemCount();
-                            if (totalItems > 0) {
-                                messagesRecyclerView.smoothScrollToPosition(totalItems - 1);
-                            }
-                        } else {
-                            Log.w("ReplaceMessage", "ConcatAdapter is null, cannot auto-scroll");
-                            // Alternative: scroll to the position in the replies adapter
-                            if (messagesRecyclerView != null) {
-                                messagesRecyclerView.smoothScrollToPosition(finalReplacedPosition);
-                            }
+        // Swaps in a delivered copy of the real message, or appends it if the temp one is gone
+        threadStore.dispatch(new ThreadAction.SendAcked(tempId, realMessage), (previous, current) -> {
+            boolean replacedMessage = ThreadReducer.indexOf(previous.replies, tempId) != -1;
+            int replacedPosition = ThreadReducer.indexOf(current.replies, realMessage.getId());
+            Log.d("ReplaceMessage", (replacedMessage ? "Replaced" : "Added") + " message at position: " +
+                    replacedPosition + ", temp ID: " + tempId + ", real ID: " + realMessage.getId());
+            if (replacedPosition == -1) return;
+
+            // Simply notify the change at the actual position in the replies adapter
+            // ConcatAdapter will handle the overall positioning automatically
+            repliesAdapter.notifyItemChanged(replacedPosition);
+
+            // Scroll to the message if it was added (not replaced)
+            if (!replacedMessage) {
+                messagesRecyclerView.post(() -> {
+                    if (concatAdapter != null) {
+                        // Get total items in concat adapter and scroll to last position
+                        int totalItems = concatAdapter.getItemCount();
+                        if (totalItems > 0) {
+                            messagesRecyclerView.smoothScrollToPosition(totalItems - 1);
                         }
-                    });
-                }
-            });
-        } else {
-            // Fallback: just submit the list
-            repliesAdapter.submitList(updatedList);
-        }
+                    } else {
+                        Log.w("ReplaceMessage", "ConcatAdapter is null, cannot auto-scroll");
+                        messagesRecyclerView.smoothScrollToPosition(replacedPosition);
+                    }
+                });
+            }
+        });
     }
 
     // Updated handleSendError method
     private void handleSendError(Opinion optimisticMessage, Throwable error) {
         // Remove optimistic message
-        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-
-        // Find and remove the message by ID
-        for (int i = 0; i < currentList.size(); i++) {
-            if (currentList.get(i).getId().equals(optimisticMessage.getId())) {
-                currentList.remove(i);
-                break;
-            }
-        }
-
-        // Update the list
-        repliesAdapter.submitList(currentList);
+        threadStore.dispatch(new ThreadAction.SendFailed(optimisticMessage.getId()));
 
         // Show error message
         Toast.makeText(this, "Failed to send message: " + error.getMessage(),
@@ -3957,20 +3626,16 @@ private RecyclerView messagesRecyclerView;
                             Opinion realMessage = ThreadRepliesAdapter.fromApiComment(
                                     jsonResponse.getJSONObject("comment"), currentUserId);
 
-                            HistoryManager.getInstance().trackCommentCreated(String.valueOf(articleId),realMessage.getId(),realMessage.getMessage(),title,String.valueOf(realMessage.getParentCommentId()),"",0,0,"",0,0,"Conversation Room");
-
-                            List<Opinion> updatedList = new ArrayList<>(repliesAdapter.getCurrentList());
-                            int optimisticIndex = findMessageIndex(updatedList, optimisticMessage.getId());
-                            if (optimisticIndex != -1) {
-                                updatedList.set(optimisticIndex, realMessage);
-                                repliesAdapter.submitList(updatedList);
+                            Telemetry.getInstance().trackCommentCreated(articleId, realMessage.getId(), realMessage.getMessage(), title, realMessage.getParentCommentId(), "Conversation Room");
 
-                                // Play success sound
-                                playMessageSound(R.raw.sent);
+                            threadStore.dispatch(new ThreadAction.SendAcked(optimisticMessage.getId(), realMessage),
+                                    (previous, current) -> {
+                                        // Play success sound
+                                        playMessageSound(R.raw.sent);
 
-                                // Update replies count
-                                updateRepliesCount(1);
-                            }
+                                        // Update replies count
+                                        updateRepliesCount(1);
+                                    });
                         } catch (JSONException e) {
                             handleSendError(optimisticMessage, e);
                         }
@@ -3990,15 +3655,7 @@ private RecyclerView messagesRecyclerView;
         });
     }
 
-    // Add a singleton OkHttpClient
     private OkHttpClient getOkHttpClient() {
-        if (httpClient == null) {
-            httpClient = new OkHttpClient.Builder()
-                    .connectTimeout(10, TimeUnit.SECONDS)
-                    .readTimeout(10, TimeUnit.SECONDS)
-                    .writeTimeout(10, TimeUnit.SECONDS)
-                    .build();
-        }
         return httpClient;
     }
 
@@ -4019,15 +3676,6 @@ private RecyclerView messagesRecyclerView;
     }
 
 
-    private int findMessageIndex(List<Opinion> messages, String messageId) {
-        for (int i = 0; i < messages.size(); i++) {
-            if (messages.get(i).getId().equals(messageId)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     private void updateRepliesCount(int increment) {
         if(increment>1 && firstdone){
             return;
@@ -4045,18 +3693,10 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void playMessageSound(int soundResource) {
-        if (messageSound != null) {
-            try {
-                if (messageSound.isPlaying()) {
-                    messageSound.stop();
-                    messageSound.reset();
-                }
-                messageSound = MediaPlayer.create(this, soundResource);
-                messageSound.setVolume(0.3f, 0.3f);
-                messageSound.start();
-            } catch (Exception e) {
-                // Ignore sound errors
-            }
+        try {
+            AudioCueEngine.getInstance(this).play(soundResource);
+        } catch (Exception e) {
+            // Ignore sound errors
         }
     }
 
@@ -4149,28 +3789,17 @@ private RecyclerView messagesRecyclerView;
      */
 
     private void handleCommentDeleted(Object[] args) {
-       runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-            try {
-                if (args.length > 0 && args[0] instanceof JSONObject) {
-                    JSONObject data = (JSONObject) args[0];
-                    String deletedCommentId = data.getString("commentId");
-
-
-                    // Update comment to show it's deleted
-                    if (repliesAdapter != null) {
-                        boolean wasUpdated = repliesAdapter.markCommentAsDeleted(
-                                deletedCommentId,
-                                "This comment has been deleted",
-                                ""
-                        );
+        try {
+            if (args.length > 0 && args[0] instanceof JSONObject) {
+                JSONObject data = (JSONObject) args[0];
+                String deletedCommentId = data.getString("commentId");
 
-                    }
-                }
-            } catch (JSONException e) {
-                e.printStackTrace();
+                // Update comment to show it's deleted
+                threadStore.dispatch(new ThreadAction.MessageDeleted(deletedCommentId, "This comment has been deleted"));
             }
-        });
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
     }
 
     private void setupBusinessEventHandlers() {
@@ -4195,34 +3824,17 @@ private RecyclerView messagesRecyclerView;
 
                     Opinion newComment = ThreadRepliesAdapter.fromApiComment(commentJson, currentUserId);
 
-                    // Update UI on main thread
-                   runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-                        if (isFinishing() || isDestroyed()) {
-                            return;
-                        }
-
-                        // Check if comment already exists in our list
-                        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-                        for (Opinion opinion : currentList) {
-                            if (opinion.getId().equals(newComment.getId())) {
-                                // Comment already exists
-                                return;
-                            }
-                        }
-
-                        // Add new comment if it's not from current user
-                        if (!newComment.getSenderId().equals(currentUserId)) {
-                            currentList.add(newComment);// Add to beginning
-                            repliesAdapter.submitList(currentList);
+                    // Reduced off the main thread; duplicates and our own comments are dropped
+                    threadStore.dispatch(new ThreadAction.MessageReceived(newComment, currentUserId),
+                            (previous, current) -> {
+                                if (!isUiSafe()) return;
 
-                            // Play notification sound
-                            playMessageSound(R.raw.sent);
+                                // Play notification sound
+                                playMessageSound(R.raw.sent);
 
-                            // Update the replies count
-                            updateRepliesCount(1);
-                        }
-                    });
+                                // Update the replies count
+                                updateRepliesCount(1);
+                            });
                 }
             } catch (JSONException e) {
                 Log.e("ThreadReplyActivity", "Error parsing comment_added event", e);
@@ -4247,21 +3859,10 @@ private RecyclerView messagesRecyclerView;
 
                 // If the reaction is for the parent comment
                 if (String.valueOf(parentCommentId).equals(targetId)) {
-                    JSONArray reactionsSummary = data.getJSONArray("reactions_summary");
-                   runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-                        if (!isFinishing() && !isDestroyed()) {
-                            updateParentReactions(reactionsSummary);
-                        }
-                    });
+                    applyParentReactionEvent(data);
                 } else {
                     // If the reaction is for a reply
-                   runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-                        if (!isFinishing() && !isDestroyed()) {
-                            repliesAdapter.updateReactionFromSocket(targetId, data);
-                        }
-                    });
+                    threadStore.dispatch(replyReactionEvent(targetId, data));
                 }
             } catch (JSONException e) {
                 Log.e("ThreadReplyActivity", "Error handling reaction_updated event", e);
@@ -4328,72 +3929,88 @@ private RecyclerView messagesRecyclerView;
 //        Toast.makeText(this, "Permanent Connection issue: ", Toast.LENGTH_SHORT).show();
     }
 
-    private void updateParentReactions(JSONArray reactionsSummary) {
-        try {
-            int totalReactions = 0;
-            String primaryReactionType = "like"; // default
-            int maxCount = 0;
-
-            // Calculate totals and find primary reaction
-            for (int i = 0; i < reactionsSummary.length(); i++) {
-                JSONObject reaction = reactionsSummary.getJSONObject(i);
-                String type = reaction.getString("reaction_type");
-                int count = reaction.getInt("count");
-                totalReactions += count;
-
-                // Find the reaction type with highest count
-                if (count > maxCount) {
-                    maxCount = count;
-                    primaryReactionType = type;
-                }
-            }
+    /**
+     * Applies a reaction_updated payload for the parent comment. Events from the
+     * current user also tell us their server-side reaction.
+     */
+    private void applyParentReactionEvent(JSONObject data) throws JSONException {
+        JSONArray reactionsSummary = data.getJSONArray("reactions_summary");
+        boolean fromCurrentUser = currentUserId != null && currentUserId.equals(data.optString("user_id", ""));
+        boolean userReactionKnown = fromCurrentUser && data.has("reaction_type");
+        String userReaction = "unreact".equals(data.optString("action", "")) ? null : data.optString("reaction_type", null);
 
-            final int finalCount = totalReactions;
-            final String finalType = primaryReactionType;
+        updateParentReactions(reactionsSummary, null, userReactionKnown, userReaction);
+    }
 
-            runOnUiThread(() -> {
-                if (!isUiSafe() || isFinishing() || isDestroyed()) {
-                    return;
-                }
+    /**
+     * Turns a reaction_updated payload for a reply into a store action. Events from
+     * the current user also tell us their own reaction.
+     */
+    private ThreadAction.ReactionChanged replyReactionEvent(String targetId, JSONObject data) throws JSONException {
+        JSONArray reactionsSummary = data.optJSONArray("reactions_summary");
+        Integer total = reactionsSummary != null ? reactionTotal(reactionsSummary) : null;
+        boolean fromCurrentUser = currentUserId != null && currentUserId.equals(data.optString("user_id", ""));
+        boolean userReactionKnown = fromCurrentUser && data.has("reaction_type");
+        String userReaction = "unreact".equals(data.optString("action", "")) ? null : data.optString("reaction_type", null);
+        return new ThreadAction.ReactionChanged(targetId, total, userReactionKnown, userReaction);
+    }
 
-                // Update parent card data if it exists
-                if (parentCardAdapter != null && parentCardAdapter.hasParentCard()) {
-                    ParentCardAdapter.ParentCardData currentData = getCurrentParentCardData();
-
-                    if (currentData != null) {
-                        // Preserve user's own reaction state - only update counts
-                        String currentUserReaction = currentData.getUserReaction();
-                        boolean currentUserReacted = currentData.isUserReacted();
-
-                        // Update reaction counts and primary emoji
-                        currentData.setReactionCount(finalCount);
-                        currentData.setHasReactions(finalCount > 0);
-
-                        // Update primary emoji (show user's reaction if they reacted, otherwise most common)
-                        if (currentUserReacted && currentUserReaction != null) {
-                            // Keep showing user's reaction emoji
-                            String userEmoji = getReactionEmoji(currentUserReaction);
-                            if (userEmoji != null) {
-                                currentData.setPrimaryReactionEmoji(userEmoji);
-                            }
-                        } else {
-                            // Show most common reaction emoji
-                            String primaryEmoji = getReactionEmoji(finalType);
-                            if (primaryEmoji != null) {
-                                currentData.setPrimaryReactionEmoji(primaryEmoji);
-                            }
-                        }
+    private static int reactionTotal(JSONArray reactionsSummary) throws JSONException {
+        int total = 0;
+        for (int i = 0; i < reactionsSummary.length(); i++) {
+            total += reactionsSummary.getJSONObject(i).getInt("count");
+        }
+        return total;
+    }
 
-                        // Trigger UI update
-                        parentCardAdapter.setParentCardData(currentData);
+    /**
+     * @param requestSentAt null for socket events, otherwise what
+     *                      {@link ReactionStateStore#requestSent} returned for the request
+     */
+    private void updateParentReactions(JSONArray reactionsSummary, Long requestSentAt,
+                                       boolean userReactionKnown, String userReaction) {
+        // The summary is applied to the target's aggregate in place, type by type
+        String targetId = String.valueOf(parentCommentId);
+        if (requestSentAt == null) {
+            reactionState.applySocket(targetId, reactionsSummary, userReactionKnown, userReaction);
+        } else if (!reactionState.applyResponse(targetId, requestSentAt, reactionsSummary,
+                userReactionKnown, userReaction)) {
+            // The socket delivered a newer state while the request was out
+            Log.d("ThreadReplyActivity", "Discarding parent reaction response overtaken by the socket");
+            return;
+        }
 
-                        Log.d("ThreadReplyActivity", "Updated parent reactions - Count: " + finalCount +
-                                ", Primary: " + finalType + ", User reacted: " + currentUserReacted);
-                    }
-                }
-            });
-        } catch (JSONException e) {
-            Log.e("ThreadReplyActivity", "Error updating parent reactions", e);
+        runOnUiThread(this::renderParentReactions);
+    }
+
+    /**
+     * Shows server count plus the user's pending change on the parent card.
+     */
+    private void renderParentReactions() {
+        if (!isUiSafe()) {
+            return;
+        }
+
+        // Update parent card data if it exists
+        if (parentCardAdapter != null && parentCardAdapter.hasParentCard()) {
+            ParentCardAdapter.ParentCardData currentData = getCurrentParentCardData();
+
+            if (currentData != null) {
+                ReactionStateStore.Snapshot snapshot = reactionState.snapshot(String.valueOf(parentCommentId));
+
+                currentData.setReactionCount(snapshot.total);
+                currentData.setHasReactions(snapshot.total > 0);
+
+                // Show user's reaction if they reacted, otherwise most common
+                currentData.setPrimaryReactionEmoji(snapshot.displayEmoji);
+
+                // Trigger UI update
+                parentCardAdapter.setParentCardData(currentData);
+
+                Log.d("ThreadReplyActivity", "Updated parent reactions - Count: " + snapshot.total +
+                        ", Primary: " + snapshot.primaryType + ", User reaction: " + snapshot.userReaction +
+                        ", Pending: " + snapshot.pending);
+            }
         }
     }
 
@@ -4404,23 +4021,6 @@ private RecyclerView messagesRecyclerView;
     }
 
 
-    private String getReactionEmoji(String reactionType) {
-        Map<String, String> reactions = new HashMap<String, String>() {{
-            put("like", "👍");
-            put("love", "❤️");
-            put("curious", "🤔");
-            put("insightful", "💡");
-            put("celebrate", "🎉");
-            put("support", "🤝");
-            put("funny", "😂");
-            put("surprised", "😮");
-            put("sad", "😢");
-            put("angry", "😠");
-        }};
-
-        return reactions.get(reactionType);
-    }
-
     private void showParentReactionsBottomSheet() {
         // Create and show a reaction bottom sheet for the parent comment
         ReactionBottomSheet bottomSheet = new ReactionBottomSheet();
@@ -4431,7 +4031,7 @@ private RecyclerView messagesRecyclerView;
 
 
         // We need to make sure the user's current reaction is highlighted in the bottom sheet
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
         JSONObject jsonBody = new JSONObject();
         try {
             jsonBody.put("target_type", "comment");
@@ -4492,8 +4092,10 @@ private RecyclerView messagesRecyclerView;
                             return;
                         }
                         // Set the current reaction before showing the sheet
-                        if (userReaction != null && !userReaction.isEmpty()) {
-                            bottomSheet.setCurrentReaction(userReaction);
+                        reactionDispatcher.seed(String.valueOf(parentCommentId), userReaction);
+                        String currentReaction = reactionDispatcher.getIntendedReaction(String.valueOf(parentCommentId));
+                        if (currentReaction != null && !currentReaction.isEmpty()) {
+                            bottomSheet.setCurrentReaction(currentReaction);
                         }
 
                         bottomSheet.setOnReactionSelectedListener((reactionType, isUnreact) -> {
@@ -4517,7 +4119,7 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void fetchParentReactionStatus(OnReactionFetchedListener listener) {
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
         JSONObject jsonBody = new JSONObject();
         try {
             jsonBody.put("target_type", "comment");
@@ -4592,17 +4194,33 @@ private RecyclerView messagesRecyclerView;
 
     private void sendParentReaction(String reactionType, boolean isUnreact) {
         // Update UI optimistically
-//        updateParentReactionUI(reactionType, isUnreact);
+        reactionState.setPending(String.valueOf(parentCommentId), isUnreact ? null : reactionType);
+        renderParentReactions();
 
+        // Rapid toggles are collapsed into one request carrying the net state
+        reactionDispatcher.submit(String.valueOf(parentCommentId), reactionType, isUnreact, this::postReaction);
+    }
+
+    private boolean isParentTarget(String targetId) {
+        return String.valueOf(parentCommentId).equals(targetId);
+    }
+
+    /**
+     * Sends the net reaction for the parent comment or a reply and completes from
+     * the server's answer.
+     */
+    private void postReaction(String targetId, String reactionType, boolean isUnreact,
+                              ReactionDispatcher.Completion completion) {
         // Send to server
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
         JSONObject jsonBody = new JSONObject();
         try {
             jsonBody.put("target_type", "comment");
-            jsonBody.put("target_id", parentCommentId);
+            jsonBody.put("target_id", targetId);
             jsonBody.put("reaction_type", reactionType);
         } catch (JSONException e) {
             e.printStackTrace();
+            completion.onComplete(false, null);
             return;
         }
 
@@ -4622,74 +4240,79 @@ private RecyclerView messagesRecyclerView;
                 .addHeader("Authorization", "Bearer " + access)
                 .build();
 
+        long sentAt = reactionState.requestSent(targetId);
         client.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(@NonNull Call call, @NonNull IOException e) {
-                // Revert UI on failure
-                runOnUiThread(() ->{
-                    if (isFinishing() || isDestroyed()) {
-                        return;
-                    }
-                    Toast.makeText(ThreadReplyActivityOnline.this,
-                            "Failed to update reaction", Toast.LENGTH_SHORT).show();
-                });
+                reactionFailed(completion);
             }
 
             @Override
             public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
                 if (!response.isSuccessful()) {
-                   runOnUiThread(() -> {
-                    if (!isUiSafe()) return;
-                        if (isFinishing() || isDestroyed()) {
-                            return;
-                        }
-                        Toast.makeText(ThreadReplyActivityOnline.this,
-                                "Failed to update reaction", Toast.LENGTH_SHORT).show();
-                    });
+                    reactionFailed(completion);
                     return;
                 }
 
+                JSONObject jsonObject;
                 try {
-                    String jsonData = response.body().string();
-                    JSONObject jsonObject = new JSONObject(jsonData);
-
-                    boolean success = jsonObject.optBoolean("success", false);
+                    jsonObject = new JSONObject(response.body().string());
+                } catch (JSONException e) {
+                    Log.e("ThreadReplyActivity", "Bad reaction response", e);
+                    reactionFailed(completion);
+                    return;
+                }
+                if (!jsonObject.optBoolean("success", false)) {
+                    reactionFailed(completion);
+                    return;
+                }
 
-                    if (success && jsonObject.has("reactions_summary")) {
-                        JSONArray reactionsSummary = jsonObject.getJSONArray("reactions_summary");
-                        updateParentReactions(reactionsSummary);
+                String confirmed = isUnreact ? null : reactionType;
+                completion.onComplete(true, confirmed);
+                JSONArray reactionsSummary = jsonObject.optJSONArray("reactions_summary");
+                if (reactionsSummary == null) {
+                    return;
+                }
+                if (isParentTarget(targetId)) {
+                    updateParentReactions(reactionsSummary, sentAt, true, confirmed);
+                } else {
+                    int serverTotal;
+                    try {
+                        serverTotal = reactionTotal(reactionsSummary);
+                    } catch (JSONException e) {
+                        Log.e("ThreadReplyActivity", "Bad reactions_summary for " + targetId, e);
+                        return;
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
+                    runOnUiThread(() -> {
+                        // Taps made while this was in flight stay on top of the server's count
+                        String intended = reactionDispatcher.getIntendedReaction(targetId);
+                        int total = serverTotal + (intended != null ? 1 : 0) - (confirmed != null ? 1 : 0);
+                        threadStore.dispatch(new ThreadAction.ReactionChanged(targetId, Math.max(0, total),
+                                true, intended));
+                    });
                 }
             }
         });
     }
 
+    private void reactionFailed(ReactionDispatcher.Completion completion) {
+        // The dispatcher reverts the UI unless a newer tap is waiting to be sent
+        completion.onComplete(false, null);
+        runOnUiThread(() -> {
+            if (!isUiSafe()) return;
+            Toast.makeText(ThreadReplyActivityOnline.this,
+                    "Failed to update reaction", Toast.LENGTH_SHORT).show();
+        });
+    }
 
 
-    private String getEmojiForReactionType(String type) {
-        switch (type) {
-            case "like": return "👍";
-            case "love": return "❤️";
-            case "curious": return "🤔";
-            case "insightful": return "💡";
-            case "celebrate": return "🎉";
-            case "support": return "🤝";
-            case "funny": return "😂";
-            case "surprised": return "😮";
-            case "sad": return "😢";
-            case "angry": return "😠";
-            default: return "👍";
-        }
-    }
 
     interface OnReactionFetchedListener {
         void onReactionFetched(String reactionType);
     }
 
     private void fetchInitialReactionStatus() {
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
         JSONObject jsonBody = new JSONObject();
         try {
             jsonBody.put("target_type", "comment");
@@ -4711,6 +4334,8 @@ private RecyclerView messagesRecyclerView;
                 .addHeader("Authorization", "Bearer " + access)
                 .build();
 
+        String targetId = String.valueOf(parentCommentId);
+        long sentAt = reactionState.requestSent(targetId);
         client.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(@NonNull Call call, @NonNull IOException e) {
@@ -4723,67 +4348,41 @@ private RecyclerView messagesRecyclerView;
                     return;
                 }
 
+                JSONObject jsonObject;
                 try {
-                    String jsonData = response.body().string();
-                    JSONObject jsonObject = new JSONObject(jsonData);
-
-                    String userReaction = null;
-                    if (jsonObject.has("user_reaction") && !jsonObject.isNull("user_reaction")) {
-                        userReaction = jsonObject.getString("user_reaction");
-                    }
-
-                    // Get the primary reaction type to display
-                    String primaryReactionType = null;
-                    int totalReactions = 0;
-
-                    if (jsonObject.has("reactions_summary")) {
-                        JSONArray reactionsSummary = jsonObject.getJSONArray("reactions_summary");
-
-                        // If user has reacted, use their reaction type
-                        if (userReaction != null) {
-                            primaryReactionType = userReaction;
-                        }
-
-                        // Otherwise find the most recent/popular reaction
-                        for (int i = 0; i < reactionsSummary.length(); i++) {
-                            JSONObject reaction = reactionsSummary.getJSONObject(i);
-                            String type = reaction.getString("reaction_type");
-                            int count = reaction.getInt("count");
-                            totalReactions += count;
-
-                            if (primaryReactionType == null) {
-                                primaryReactionType = type;
-                            }
-                        }
-                    }
-
-                    final String finalPrimaryType = primaryReactionType != null ? primaryReactionType : "like";
-                    final String finalUserReaction = userReaction;
-                    final int finalTotalReactions = totalReactions;
+                    jsonObject = new JSONObject(response.body().string());
+                } catch (JSONException e) {
+                    Log.e("ThreadReplyActivity", "Error parsing initial reaction status", e);
+                    return;
+                }
+                JSONArray reactionsSummary = jsonObject.optJSONArray("reactions_summary");
+                if (reactionsSummary == null) {
+                    return;
+                }
+                String userReaction = jsonObject.isNull("user_reaction") ? null : jsonObject.optString("user_reaction", null);
 
-                   runOnUiThread(() -> {
+                // Parsed once into the state store; the views read its snapshot
+                if (!reactionState.applyResponse(targetId, sentAt, reactionsSummary, true, userReaction)) {
+                    return;
+                }
+                runOnUiThread(() -> {
                     if (!isUiSafe()) return;
-                        if (isFinishing() || isDestroyed()) {
-                            return;
-                        }
-                        if (finalTotalReactions > 0) {
-                            // Set emoji based on the reaction type
-                            parentReactionEmoji.setText(getEmojiForReactionType(finalPrimaryType));
-                            parentReactionCount.setText(String.valueOf(finalTotalReactions));
-
-                            // Highlight if user has reacted
-                            if (finalUserReaction != null) {
-                                parentReactionsContainer.setStrokeColor(ContextCompat.getColor(ThreadReplyActivityOnline.this, R.color.colorAccent));
-                                parentReactionsContainer.setStrokeWidth(2);
-                            } else {
-                                parentReactionsContainer.setStrokeColor(Color.TRANSPARENT);
-                                parentReactionsContainer.setStrokeWidth(0);
-                            }
+                    ReactionStateStore.Snapshot snapshot = reactionState.snapshot(targetId);
+                    if (snapshot.total > 0) {
+                        parentReactionEmoji.setText(snapshot.displayEmoji);
+                        parentReactionCount.setText(String.valueOf(snapshot.total));
+
+                        // Highlight if user has reacted
+                        if (snapshot.userReaction != null) {
+                            parentReactionsContainer.setStrokeColor(ContextCompat.getColor(ThreadReplyActivityOnline.this, R.color.colorAccent));
+                            parentReactionsContainer.setStrokeWidth(2);
+                        } else {
+                            parentReactionsContainer.setStrokeColor(Color.TRANSPARENT);
+                            parentReactionsContainer.setStrokeWidth(0);
                         }
-                    });
-                } catch (Exception e) {
-                    Log.e("ThreadReplyActivity", "Error parsing initial reaction status", e);
-                }
+                    }
+                    renderParentReactions();
+                });
             }
         });
     }
@@ -4808,23 +4407,22 @@ private RecyclerView messagesRecyclerView;
             public void onCommentUpdated(String commentId, String newContent, String newTitle) {
                 // Update your comment in the list/UI
 //                updateCommentInAdapter(commentId, newContent, newTitle);
-                repliesAdapter.updateComment(
-                        commentId,
-                        newContent,
-                        ""
-                );
+                threadStore.dispatch(new ThreadAction.MessageEdited(commentId, newContent, ""));
             }
         });
 
         // Set the current reaction if user has already reacted
-        String userReaction = opinion.getUserReaction();
+        reactionDispatcher.seed(opinion.getId(), opinion.getUserReaction());
+        String userReaction = reactionDispatcher.getIntendedReaction(opinion.getId());
         if (userReaction != null && !userReaction.isEmpty()) {
             bottomSheet.setCurrentReaction(userReaction);
         }
 
         bottomSheet.setOnReactionSelectedListener((reactionType, isUnreact) -> {
-            // Make API call through the adapter
-            repliesAdapter.updateReaction(opinion.getId(), reactionType, isUnreact, access);
+            // Shown right away; the API call goes out once the user settles on a reaction
+            threadStore.dispatch(new ThreadAction.ReactionChanged(opinion.getId(), null, true,
+                    isUnreact ? null : reactionType));
+            reactionDispatcher.submit(opinion.getId(), reactionType, isUnreact, this::postReaction);
             if(!isUnreact) {
                 setReplyingToNew(opinion,reactionType,false);
             }
@@ -4840,7 +4438,7 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void fetchHighlights() {
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
         JSONObject jsonBody = new JSONObject();
         try {
             jsonBody.put("article_id", articleId);
@@ -4929,125 +4527,16 @@ private RecyclerView messagesRecyclerView;
         }
     }
 
-    public class Result {
-        public final String cleanedText;
-        public final List<TableSection> tables;
-
-        public Result(String cleanedText, List<TableSection> tables) {
-            this.cleanedText = cleanedText;
-            this.tables = tables;
-        }
-    }
-
-    public class TableSection {
-        public final int position;  // Character position in original text
-        public final String[][] data;
-
-        public TableSection(int position, String[][] data) {
-            this.position = position;
-            this.data = data;
-        }
-    }
-
-    private Result extractTablesAndText(String input) {
-        StringBuilder cleanedText = new StringBuilder();
-        List<TableSection> tables = new ArrayList<>();
-        String[] lines = input.split("\n");
-        List<List<String>> currentTable = new ArrayList<>();
-        boolean isInTable = false;
-        int currentPosition = 0;
-        int maxColumns = 0;
-
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-
-            if (trimmedLine.startsWith("|") && trimmedLine.endsWith("|")) {
-                if (!isInTable) {
-                    isInTable = true;
-                    currentTable = new ArrayList<>();
-                    maxColumns = 0;
-                }
-
-                // Skip delimiter rows (containing only |, -, :, and whitespace)
-                if (!trimmedLine.matches("\\|[-:\\s|]*\\|")) {
-                    // Remove first and last pipe
-                    String contentOnly = trimmedLine.substring(1, trimmedLine.length() - 1);
-
-                    // Split by unescaped pipes
-                    String[] columns = contentOnly.split("(?<!\\\\)\\|");
-
-                    // Process each column
-                    List<String> processedColumns = new ArrayList<>();
-                    for (String column : columns) {
-                        // Clean up the column content and handle escaped pipes
-                        String cleaned = column.trim().replace("\\|", "|");
-                        processedColumns.add(cleaned);
-                    }
-
-                    // Update max columns if this row has more
-                    maxColumns = Math.max(maxColumns, processedColumns.size());
-                    currentTable.add(processedColumns);
-                }
-            } else {
-                if (isInTable) {
-                    // End of table reached - normalize and store the table
-                    if (!currentTable.isEmpty()) {
-                        // Normalize table to ensure all rows have same number of columns
-                        String[][] tableArray = normalizeTable(currentTable, maxColumns);
-                        tables.add(new TableSection(currentPosition, tableArray));
-                        // Add a placeholder in the cleaned text
-                        cleanedText.append("[TABLE_").append(tables.size() - 1).append("]");
-                        currentPosition = cleanedText.length();
-                    }
-                    isInTable = false;
-                    currentTable.clear();
-                }
-
-                if (!trimmedLine.isEmpty()) {
-                    cleanedText.append(line).append("\n");
-                    currentPosition = cleanedText.length();
-                }
-            }
-        }
-
-        // Handle if text ends with a table
-        if (isInTable && !currentTable.isEmpty()) {
-            String[][] tableArray = normalizeTable(currentTable, maxColumns);
-            tables.add(new TableSection(currentPosition, tableArray));
-            cleanedText.append("[TABLE_").append(tables.size() - 1).append("]");
-        }
-
-        return new Result(cleanedText.toString().trim(), tables);
-    }
-
-    private String[][] normalizeTable(List<List<String>> table, int maxColumns) {
-        String[][] normalizedTable = new String[table.size()][maxColumns];
-
-        for (int i = 0; i < table.size(); i++) {
-            List<String> row = table.get(i);
-            for (int j = 0; j < maxColumns; j++) {
-                // Fill with empty string if column doesn't exist in original row
-                normalizedTable[i][j] = j < row.size() ? row.get(j) : "";
-            }
-        }
-
-        return normalizedTable;
-    }
-
     private void displayTextWithTables(String summaryText, LinearLayout contentLayout) {
-        Result result = extractTablesAndText(summaryText);
         contentLayout.removeAllViews();
 
-        String[] textParts = result.cleanedText.split("\\[TABLE_\\d+\\]");
-        int tableIndex = 0;
-
-        for (int i = 0; i < textParts.length; i++) {
-            // Add text section
-            if (!textParts[i].isEmpty()) {
+        for (MarkdownTableTokenizer.Segment segment : MarkdownTableTokenizer.tokenize(summaryText)) {
+            if (!segment.isTable()) {
+                // Add text section
                 SelectableTextView textView = new SelectableTextView(this);
 
                 // Use plain text without formatting
-                String plainText = textParts[i].replaceAll("#", "");
+                String plainText = segment.text.replace("#", "");
                 textView.setText(plainText);
 
                 if (isNightTime() && isNightModeSwitchOn) {
@@ -5061,10 +4550,8 @@ private RecyclerView messagesRecyclerView;
                         LinearLayout.LayoutParams.WRAP_CONTENT
                 ));
                 contentLayout.addView(textView);
-            }
-
-            // Add table if available
-            if (tableIndex < result.tables.size()) {
+            } else {
+                // Add table section
                 HorizontalScrollView tableScroll = new HorizontalScrollView(this);
                 tableScroll.setLayoutParams(new LinearLayout.LayoutParams(
                         LinearLayout.LayoutParams.MATCH_PARENT,
@@ -5075,118 +4562,110 @@ private RecyclerView messagesRecyclerView;
                 if (isNightTime() && isNightModeSwitchOn) {
                     tableComponent.setDarkTheme(true);
                 }
-                tableComponent.setData(result.tables.get(tableIndex).data);
+                tableComponent.setData(segment.table);
                 tableScroll.addView(tableComponent);
                 contentLayout.addView(tableScroll);
-
-                tableIndex++;
             }
         }
     }
 
     private void displayTextWithTablesAndHighlights(String summaryText, List<JSONObject> highlights, LinearLayout contentLayout) {
-        Result result = extractTablesAndText(summaryText);
-        contentLayout.removeAllViews();
-
-        String[] textParts = result.cleanedText.split("\\[TABLE_\\d+\\]");
-        int tableIndex = 0;
-
-        for (int i = 0; i < textParts.length; i++) {
-            // Add text section with highlights
-            if (!textParts[i].isEmpty()) {
-                SelectableTextView textView = new SelectableTextView(this);
-                SpannableStringBuilder formattedText = new SpannableStringBuilder(
-                        StandardParagraphFormatter.formatParagraphs(
-                                textParts[i].replaceAll("#", ""),
-                                isNightTime() && isNightModeSwitchOn,
-                                this
-                        )
-                );
+        List<String> phrases = new ArrayList<>();
+        for (JSONObject highlight : highlights) {
+            String highlightedText = highlight.optString("highlighted_text", "");
+            if (!highlightedText.isEmpty()) {
+                phrases.add(highlightedText);
+            }
+        }
+        boolean darkMode = isNightTime() && isNightModeSwitchOn;
+        PrecomputedTextCompat.Params textParams = TextViewCompat.getTextMetricsParams(createSummaryTextView());
 
-                // Apply highlights to this text section
-                int sectionStart = getSectionStartOffset(textParts, i);
-                try {
-                    for (JSONObject highlight : highlights) {
-                        String highlightedText = highlight.getString("highlighted_text");
-                        String currentText = textParts[i];
+        // Reopening the article or rotating reuses the already formatted sections
+        String cacheKey = SummaryRenderer.cacheKey(summaryText, phrases, darkMode, textParams);
+        if (summaryRender != null) {
+            // Removing it from the composite also disposes it
+            disposables.remove(summaryRender);
+        }
+        summaryRenderKey = cacheKey;
 
-                        // Find the text in current section
-                        int startIndex = currentText.indexOf(highlightedText);
+        // Parse, format and highlight off the UI thread
+        SummaryRenderer.render(getApplicationContext(), cacheKey, summaryText, phrases, darkMode, textParams)
+                .subscribeOn(Schedulers.computation())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new SingleObserver<SummaryRenderer.RenderModel>() {
+                    @Override
+                    public void onSuccess(@NonNull SummaryRenderer.RenderModel model) {
+                        // A newer summary was requested since; it binds itself
+                        if (!isUiSafe() || !cacheKey.equals(summaryRenderKey)) return;
+                        disposables.delete(summaryRender);
+                        summaryRender = null;
+                        bindSummaryModel(model, contentLayout);
+                    }
 
-                        // Only highlight if the text is found in this section
-                        if (startIndex >= 0) {
-                            int endIndex = startIndex + highlightedText.length();
+                    @Override
+                    public void onError(@NonNull Throwable e) {
+                        Log.e("ThreadReply", "Error rendering summary", e);
+                    }
 
-                            // Add subtle highlight
-                            int highlightColor = Color.parseColor("#bdd1f9");
-                            if(isNightModeSwitchOn && isNightTime()){
-                                highlightColor = Color.parseColor("#4fa4e9");
-                            }
-                            BackgroundColorSpan highlightSpan = new BackgroundColorSpan(highlightColor);
-                            formattedText.setSpan(
-                                    highlightSpan,
-                                    startIndex,
-                                    endIndex,
-                                    Spannable.SPAN_EXCLUSIVE_EXCLUSIVE
-                            );
-
-                            // Add underline
-                            UnderlineSpan underlineSpan = new UnderlineSpan();
-                            formattedText.setSpan(
-                                    underlineSpan,
-                                    startIndex,
-                                    endIndex,
-                                    Spannable.SPAN_EXCLUSIVE_EXCLUSIVE
-                            );
-                        }
+                    @Override
+                    public void onSubscribe(@NonNull Disposable d) {
+                        summaryRender = d;
+                        disposables.add(d);
                     }
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                }
+                });
+    }
 
-                textView.setText(formattedText);
-                if (isNightTime() && isNightModeSwitchOn) {
-                    textView.setTextColor(Color.WHITE);
-                } else {
-                    textView.setTextColor(Color.BLACK);
-                }
-                textView.setTextSize(15);
-                textView.setLayoutParams(new LinearLayout.LayoutParams(
-                        LinearLayout.LayoutParams.MATCH_PARENT,
-                        LinearLayout.LayoutParams.WRAP_CONTENT
-                ));
-                contentLayout.addView(textView);
-            }
+    /**
+     * Shows a rendered summary in the page's scroll view, one view per section.
+     * The page scrolls as a whole, so every section is laid out; text is already
+     * measured and tables only create views for the cells on screen.
+     */
+    private void bindSummaryModel(SummaryRenderer.RenderModel model, LinearLayout contentLayout) {
+        if (contentLayout == null) return;
+        boolean darkMode = isNightTime() && isNightModeSwitchOn;
+        jankMonitor.mark(FrameJankMonitor.UiState.SUMMARY_RENDER, 1000);
 
-            // Add table if available
-            if (tableIndex < result.tables.size()) {
-                HorizontalScrollView tableScroll = new HorizontalScrollView(this);
-                tableScroll.setLayoutParams(new LinearLayout.LayoutParams(
+        contentLayout.removeAllViews();
+        for (SummaryRenderer.Section section : model.sections) {
+            if (section.isTable()) {
+                VirtualTableView tableView = new VirtualTableView(this);
+                tableView.setLayoutParams(new LinearLayout.LayoutParams(
                         LinearLayout.LayoutParams.MATCH_PARENT,
                         LinearLayout.LayoutParams.WRAP_CONTENT
                 ));
+                tableView.setDarkTheme(darkMode);
+                tableView.setData(section.table);
+                contentLayout.addView(tableView);
+                continue;
+            }
 
-                TableComponent tableComponent = new TableComponent(this, false);
-                if (isNightTime() && isNightModeSwitchOn) {
-                    tableComponent.setDarkTheme(true);
-                }
-                tableComponent.setData(result.tables.get(tableIndex).data);
-                tableScroll.addView(tableComponent);
-                contentLayout.addView(tableScroll);
+            TextView textView = createSummaryTextView();
+            textView.setTextColor(darkMode ? Color.WHITE : Color.BLACK);
+            textView.setLayoutParams(new LinearLayout.LayoutParams(
+                    LinearLayout.LayoutParams.MATCH_PARENT,
+                    LinearLayout.LayoutParams.WRAP_CONTENT
+            ));
+            setSummaryText(textView, section.text);
+            contentLayout.addView(textView);
+        }
+    }
 
-                tableIndex++;
+    private static void setSummaryText(TextView textView, CharSequence text) {
+        if (text instanceof PrecomputedTextCompat) {
+            PrecomputedTextCompat precomputed = (PrecomputedTextCompat) text;
+            // Measured with the same paint as this view - skip measuring again
+            if (precomputed.getParams().equals(TextViewCompat.getTextMetricsParams(textView))) {
+                TextViewCompat.setPrecomputedText(textView, precomputed);
+                return;
             }
         }
+        textView.setText(text);
     }
 
-    private int getSectionStartOffset(String[] textParts, int currentIndex) {
-        int offset = 0;
-        for (int i = 0; i < currentIndex; i++) {
-            offset += textParts[i].length();
-            // Add length of table placeholder
-            offset += "[TABLE_X]".length();
-        }
-        return offset;
+    private TextView createSummaryTextView() {
+        SelectableTextView textView = new SelectableTextView(this);
+        textView.setTextSize(15);
+        return textView;
     }
 
     // Custom TextView that handles text selection and context menu
@@ -5282,11 +4761,28 @@ private RecyclerView messagesRecyclerView;
         if (pillHandler != null && pillHideRunnable != null) {
             pillHandler.removeCallbacks(pillHideRunnable);
         }
-        if (messageSound != null) {
-            messageSound.release();
-            messageSound = null;
+        if (reactionDispatcher != null) {
+            reactionDispatcher.cancelAll();
         }
+        viewPrewarmer.release();
         disposables.clear();
+        threadStore.shutdown();
+        if (participantPager != null) {
+            participantPager.shutdown();
+        }
+        if (mentionPopup != null) {
+            mentionPopup.dismiss();
+        }
+        typingThrottle.stop();
+        if (typingPresence != null) {
+            typingPresence.clear();
+        }
+        presenceCounter.release();
+        if (sessionRecorder != null || sessionReplayer != null) {
+            NetworkMetrics.setDebugInterceptor(null);
+            if (sessionRecorder != null) sessionRecorder.stop();
+            if (sessionReplayer != null) sessionReplayer.stop();
+        }
 
         if (socketManager != null) {
             socketManager.cleanup();
@@ -5295,49 +4791,23 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void updateLastVisibleMessageForSync() {
-        if (repliesAdapter == null || socketManager == null) return;
+        if (socketManager == null) return;
 
-        List<Opinion> currentList = repliesAdapter.getCurrentList();
-        if (!currentList.isEmpty()) {
-            // Find the newest message
-            Opinion newestMessage = null;
-            long newestTimestamp = 0;
-
-            for (Opinion opinion : currentList) {
-                if (opinion.getTimestamp() > newestTimestamp) {
-                    newestTimestamp = opinion.getTimestamp();
-                    newestMessage = opinion;
-                }
-            }
-
-            if (newestMessage != null) {
-                socketManager.setLastMessageInfo(newestMessage.getId(), newestMessage.getTimestamp());
-            }
+        // Tracked by the store as replies change, no scan needed
+        RecentReplies recent = threadState.recent;
+        if (!recent.isEmpty()) {
+            socketManager.setLastMessageInfo(recent.newestId, recent.newestTimestamp);
         }
     }
 
     private void storeLastVisibleMessageInfo() {
-        if (repliesAdapter != null && socketManager != null) {
-            List<Opinion> currentList = repliesAdapter.getCurrentList();
-            if (!currentList.isEmpty()) {
-                // Find the newest message
-                Opinion newestMessage = null;
-                long newestTimestamp = 0;
-
-                for (Opinion opinion : currentList) {
-                    if (opinion.getTimestamp() > newestTimestamp) {
-                        newestTimestamp = opinion.getTimestamp();
-                        newestMessage = opinion;
-                    }
-                }
+        if (socketManager == null) return;
 
-                if (newestMessage != null) {
-                    socketManager.setLastMessageInfo(newestMessage.getId(), newestMessage.getTimestamp());
-                    Log.d("ThreadReply", "📝 Stored last message for sync: " + newestMessage.getId());
-                }
-            }
+        RecentReplies recent = threadState.recent;
+        if (!recent.isEmpty()) {
+            socketManager.setLastMessageInfo(recent.newestId, recent.newestTimestamp);
+            Log.d("ThreadReply", "📝 Stored last message for sync: " + recent.newestId);
         }
-
     }
 
     @Override
@@ -5352,35 +4822,13 @@ private RecyclerView messagesRecyclerView;
         resultIntent.putExtra(EXTRA_COMMENT_ID, parentCommentId);
         resultIntent.putExtra(EXTRA_REPLY_COUNT, replies);
 
-        // Collect profile pictures from recent replies
-        ArrayList<String> recentAvatars = new ArrayList<>();
-
-        // Create a mutable copy of the current list first
-        List<Opinion> currentReplies = new ArrayList<>(repliesAdapter.getCurrentList());
-
-        // Sort the mutable copy, not the original unmodifiable list
-        if (!currentReplies.isEmpty()) {
-            // Sort by timestamp descending (most recent first)
-            Collections.sort(currentReplies, (a, b) ->
-                    Long.compare(a.getTimestamp(),b.getTimestamp() ));
-        }
-        // Get up to 3 unique avatar URLs from recent replies
-        HashSet<String> uniqueAvatars = new HashSet<>();
-        for (Opinion reply : currentReplies) {
-            String avatar = reply.getProfileImage();
-            if (avatar != null && !avatar.isEmpty() && !uniqueAvatars.contains(avatar)) {
-                uniqueAvatars.add(avatar);
-                recentAvatars.add(avatar);
-                if (recentAvatars.size() >= 3) break;
-            }
-        }
-
-        resultIntent.putStringArrayListExtra(EXTRA_RECENT_AVATARS, recentAvatars);
+        // Up to 3 distinct avatars of the most recent replies
+        resultIntent.putStringArrayListExtra(EXTRA_RECENT_AVATARS, threadState.recent.getAvatars());
         setResult(RESULT_THREAD_UPDATED, resultIntent);
     }
 
     private void checkArticleAccess() {
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
 
         // Build the URL with the article ID
         String url = "https://api.typepilot.app/v1/room/article/" + articleId + "/check-access";
@@ -5519,7 +4967,7 @@ private RecyclerView messagesRecyclerView;
     private void joinAsGuest(String preservedMessage) {
 
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
 
         JSONObject jsonBody = new JSONObject();
         try {
@@ -5637,7 +5085,7 @@ private RecyclerView messagesRecyclerView;
     }
 
     private void silentlyJoinAsGuest() {
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = NetworkMetrics.client();
 
         JSONObject jsonBody = new JSONObject();
         try {
@@ -5687,10 +5135,10 @@ private RecyclerView messagesRecyclerView;
     @Override
     protected void onResume() {
         super.onResume();
-        hasLoadedRecentMessages=false;
         isActivityVisible = true;
 
         isActivityInForeground = true;
+        jankMonitor.start(this);
         updatePillandShow(true);
         silentlyLoadRecentMessages(true);
         if(socketManager!=null){
@@ -5717,13 +5165,23 @@ private RecyclerView messagesRecyclerView;
 
         Log.d("ThreadReply", "🟡 Activity paused");
 
-        // Store last visible message info
-        storeLastVisibleMessageInfo();
-
         // Stop typing indicator
-        if (socketManager != null) {
-            socketManager.sendTypingStop();
+        typingThrottle.stop();
+
+        // Don't let a debounced reaction get lost when leaving the screen
+        if (reactionDispatcher != null) {
+            reactionDispatcher.flushAll();
         }
+
+        jankMonitor.stop();
+        jankMonitor.flush();
+        uiDispatcher.flushMetrics();
+        threadStore.flushStats("thread_reply");
+        Telemetry.getInstance().flush();
+        if (BuildConfig.DEBUG) {
+            Log.d("ThreadReply", NetworkMetrics.dump());
+        }
+        NetworkMetrics.flush();
     }
 
     @Override
@@ -5740,48 +5198,8 @@ private RecyclerView messagesRecyclerView;
      * Finds messages that are newer than our stored last message
      */
     private List<Opinion> findNewerMessages(List<Opinion> latestMessages) {
-        List<Opinion> newerMessages = new ArrayList<>();
-        List<Opinion> currentList = repliesAdapter.getCurrentList();
-
-        // Create a set of existing message IDs for quick lookup
-        Set<String> existingIds = new HashSet<>();
-        for (Opinion existing : currentList) {
-            existingIds.add(existing.getId());
-        }
-
-        // Find the position of our last known message in the latest list
-        int lastKnownIndex = -1;
-        for (int i = 0; i < latestMessages.size(); i++) {
-            if (latestMessages.get(i).getId().equals(lastKnownNewestMessageId)) {
-                lastKnownIndex = i;
-                break;
-            }
-        }
-
-        if (lastKnownIndex == -1) {
-            // Our last known message is not in the latest batch
-            // This could mean there are many new messages, so we need to be more careful
-            Log.d("ThreadReplyActivity", "Last known message not found in latest batch, checking by timestamp and ID");
-
-            // Fall back to timestamp and ID comparison
-            for (Opinion message : latestMessages) {
-                // Only include messages that are:
-                // 1. Not already in our current list
-                // 2. Newer than our last known timestamp
-                if (!existingIds.contains(message.getId()) &&
-                        message.getTimestamp() > lastVisibleTimestamp) {
-                    newerMessages.add(message);
-                }
-            }
-        } else {
-            // Get all messages after our last known message
-            for (int i = lastKnownIndex + 1; i < latestMessages.size(); i++) {
-                Opinion message = latestMessages.get(i);
-                if (!existingIds.contains(message.getId())) {
-                    newerMessages.add(message);
-                }
-            }
-        }
+        List<Opinion> newerMessages = ThreadReducer.findNewer(threadState.replies, latestMessages,
+                lastKnownNewestMessageId, lastVisibleTimestamp);
 
         Log.d("ThreadReplyActivity", "Found " + newerMessages.size() + " newer messages out of " +
                 latestMessages.size() + " total latest messages");
@@ -5793,16 +5211,8 @@ private RecyclerView messagesRecyclerView;
      * Adds newer messages to the current list without duplicates
      */
     private void addNewerMessagesToList(List<Opinion> newerMessages) {
-        List<Opinion> currentList = new ArrayList<>(repliesAdapter.getCurrentList());
-
-        // Add new messages to the end (newest at bottom for WhatsApp style)
-        currentList.addAll(newerMessages);
-
-        // Sort to maintain proper chronological order
-        Collections.sort(currentList, (o1, o2) -> Long.compare(o1.getTimestamp(), o2.getTimestamp()));
-
-        // Update the adapter
-        repliesAdapter.submitList(currentList);
+        // Appended and kept in chronological order by the reducer
+        threadStore.dispatch(new ThreadAction.NewerMessagesFound(newerMessages));
 
         // Update replies count
         replies += newerMessages.size();
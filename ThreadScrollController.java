@@ -0,0 +1,155 @@
+package com.philonet.ai;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Turns raw scroll callbacks into a small set of scroll states and only reports
+ * when one of them changes.
+ *
+ * onScrolled can fire several times a frame (touch moves, nested scrolling, layout
+ * passes); here it only accumulates distance and asks the Choreographer for one
+ * evaluation on the next frame. Visible positions are looked up at most once per
+ * frame, or right away on a scroll state change, and the listener is called only
+ * if the derived state differs from the last one, so pagination checks and FAB
+ * updates run a handful of times per fling instead of hundreds. Use on one thread.
+ */
+public class ThreadScrollController extends RecyclerView.OnScrollListener {
+
+    // Same thresholds the pagination and jump button used per scroll event
+    private static final int PAGINATION_EDGE = 10;
+    private static final int AWAY_FROM_TOP = 5;
+    private static final int TOP_EDGE = 2;
+    private static final int BOTTOM_EDGE = 3;
+
+    public enum Direction {
+        NONE, UP, DOWN
+    }
+
+    public static final class State {
+        public final int scrollState;
+        public final Direction direction;
+        /** Within the pagination distance of the oldest / newest loaded reply. */
+        public final boolean nearTop;
+        public final boolean nearBottom;
+        /** Jump button position flags. */
+        public final boolean awayFromTop;
+        public final boolean atTopEdge;
+        public final boolean atBottomEdge;
+
+        State(int scrollState, Direction direction, boolean nearTop, boolean nearBottom,
+              boolean awayFromTop, boolean atTopEdge, boolean atBottomEdge) {
+            this.scrollState = scrollState;
+            this.direction = direction;
+            this.nearTop = nearTop;
+            this.nearBottom = nearBottom;
+            this.awayFromTop = awayFromTop;
+            this.atTopEdge = atTopEdge;
+            this.atBottomEdge = atBottomEdge;
+        }
+
+        public boolean isIdle() {
+            return scrollState == RecyclerView.SCROLL_STATE_IDLE;
+        }
+
+        boolean sameAs(State other) {
+            return other != null
+                    && scrollState == other.scrollState
+                    && direction == other.direction
+                    && nearTop == other.nearTop
+                    && nearBottom == other.nearBottom
+                    && awayFromTop == other.awayFromTop
+                    && atTopEdge == other.atTopEdge
+                    && atBottomEdge == other.atBottomEdge;
+        }
+    }
+
+    public interface Listener {
+        void onScrollStateChanged(State previous, State current);
+    }
+
+    private final int headerCount;
+    private final Listener listener;
+
+    private int scrollState = RecyclerView.SCROLL_STATE_IDLE;
+    private int pendingDy;
+    private Direction direction = Direction.NONE;
+    private State state;
+
+    private RecyclerView scrolled;
+    private boolean evaluationPosted;
+    private final Choreographer.FrameCallback evaluateOnFrame = frameTimeNanos -> {
+        evaluationPosted = false;
+        evaluate(scrolled);
+    };
+
+    /**
+     * @param headerCount items before the first reply (the parent card)
+     */
+    public ThreadScrollController(int headerCount, Listener listener) {
+        this.headerCount = headerCount;
+        this.listener = listener;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        scrollState = newState;
+        if (evaluationPosted) {
+            Choreographer.getInstance().removeFrameCallback(evaluateOnFrame);
+            evaluationPosted = false;
+        }
+        evaluate(recyclerView);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        // dy == 0 is a layout pass (new items, jump), positions may have changed too
+        pendingDy += dy;
+        scrolled = recyclerView;
+        if (!evaluationPosted) {
+            evaluationPosted = true;
+            Choreographer.getInstance().postFrameCallback(evaluateOnFrame);
+        }
+    }
+
+    private void evaluate(RecyclerView recyclerView) {
+        if (pendingDy != 0) {
+            direction = pendingDy > 0 ? Direction.DOWN : Direction.UP;
+            pendingDy = 0;
+        }
+
+        RecyclerView.LayoutManager manager = recyclerView.getLayoutManager();
+        if (!(manager instanceof LinearLayoutManager)) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) manager;
+
+        int firstVisible = layoutManager.findFirstVisibleItemPosition();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        int totalItems = layoutManager.getItemCount();
+        int repliesCount = totalItems - headerCount;
+
+        int firstReply = Math.max(0, firstVisible - headerCount);
+        int lastReply = lastVisible - headerCount;
+
+        State next = new State(
+                scrollState,
+                direction,
+                firstReply <= PAGINATION_EDGE,
+                lastReply >= repliesCount - PAGINATION_EDGE,
+                firstVisible > AWAY_FROM_TOP,
+                firstVisible <= TOP_EDGE,
+                lastVisible >= totalItems - BOTTOM_EDGE
+        );
+
+        if (next.sameAs(state)) return;
+        State previous = state;
+        state = next;
+        listener.onScrollStateChanged(previous, next);
+    }
+}
@@ -0,0 +1,201 @@
+package com.philonet.ai;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+
+/**
+ * Records one thread session for {@link ThreadSessionReplayer}: every HTTP
+ * exchange made through {@link NetworkMetrics#client()} and every realtime event
+ * the screen receives, with their offsets from the start of the recording.
+ *
+ * The file is JSON lines, one event per line, written on a background thread.
+ * Debug builds only; recordings contain message content.
+ */
+public class ThreadSessionRecorder {
+
+    private static final String TAG = "ThreadSessionRecorder";
+
+    static final String KIND_HTTP = "http";
+    static final String KIND_MESSAGE = "message";
+    static final String KIND_DELETED = "deleted";
+    static final String KIND_REACTION = "reaction";
+
+    private final File file;
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private final ExecutorService writerThread = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, TAG));
+    private BufferedWriter writer;
+
+    public ThreadSessionRecorder(File file) {
+        this.file = file;
+        writerThread.execute(() -> {
+            try {
+                File dir = file.getParentFile();
+                if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("Cannot create " + dir);
+                }
+                writer = new BufferedWriter(new FileWriter(file));
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot record to " + file, e);
+            }
+        });
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Captures request and response bodies. Install with
+     * {@link NetworkMetrics#setDebugInterceptor}.
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            Request request = chain.request();
+            long sentAt = SystemClock.elapsedRealtime();
+            Response response = chain.proceed(request);
+            long tookMs = SystemClock.elapsedRealtime() - sentAt;
+
+            JSONObject event = new JSONObject();
+            try {
+                event.put("method", request.method());
+                event.put("url", request.url().toString());
+                event.put("request", bodyOf(request));
+                event.put("code", response.code());
+                event.put("took_ms", tookMs);
+                event.put("response", response.peekBody(Long.MAX_VALUE).string());
+            } catch (JSONException e) {
+                Log.w(TAG, "Skipped HTTP exchange", e);
+                return response;
+            }
+            write(KIND_HTTP, sentAt, event);
+            return response;
+        };
+    }
+
+    private static String bodyOf(Request request) throws IOException {
+        if (request.body() == null) return "";
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    public void recordNewMessage(Opinion message) {
+        try {
+            write(KIND_MESSAGE, SystemClock.elapsedRealtime(), encode(message));
+        } catch (JSONException e) {
+            Log.w(TAG, "Skipped message " + message.getId(), e);
+        }
+    }
+
+    public void recordMessageDeleted(String messageId) {
+        try {
+            write(KIND_DELETED, SystemClock.elapsedRealtime(), new JSONObject().put("id", messageId));
+        } catch (JSONException e) {
+            Log.w(TAG, "Skipped delete " + messageId, e);
+        }
+    }
+
+    public void recordReaction(String targetId, JSONObject reactionData) {
+        try {
+            write(KIND_REACTION, SystemClock.elapsedRealtime(),
+                    new JSONObject().put("target_id", targetId).put("data", reactionData));
+        } catch (JSONException e) {
+            Log.w(TAG, "Skipped reaction for " + targetId, e);
+        }
+    }
+
+    private void write(String kind, long at, JSONObject event) {
+        try {
+            event.put("t", at - startedAt);
+            event.put("kind", kind);
+        } catch (JSONException e) {
+            return;
+        }
+        String line = event.toString();
+        writerThread.execute(() -> {
+            if (writer == null) return;
+            try {
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException e) {
+                Log.e(TAG, "Write failed, stopping", e);
+                closeQuietly();
+            }
+        });
+    }
+
+    public void stop() {
+        writerThread.execute(() -> {
+            closeQuietly();
+            Log.d(TAG, "Session recorded to " + file);
+        });
+        writerThread.shutdown();
+    }
+
+    private void closeQuietly() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Nothing more to write anyway
+        }
+        writer = null;
+    }
+
+    /**
+     * The fields of a socket message the thread screen uses.
+     */
+    static JSONObject encode(Opinion message) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", message.getId());
+        json.put("sender_id", message.getSenderId());
+        json.put("sender_name", message.getSenderName());
+        json.put("profile_image", message.getProfileImage());
+        json.put("message", message.getMessage());
+        json.put("quote", message.getQuote());
+        json.put("emotion", message.getEmotion());
+        json.put("timestamp", message.getTimestamp());
+        json.put("parent_comment_id", message.getParentCommentId());
+        json.put("reply_id", message.getReplyid());
+        json.put("reply_username", message.getReplyusername());
+        json.put("reply_content", message.getReplycontent());
+        return json;
+    }
+
+    static Opinion decode(JSONObject json) {
+        Opinion.Builder builder = new Opinion.Builder()
+                .setId(json.optString("id"))
+                .setSenderId(json.optString("sender_id"))
+                .setSenderName(json.optString("sender_name", null))
+                .setProfileImage(json.optString("profile_image", null))
+                .setMessage(json.optString("message", ""))
+                .setQuote(json.optString("quote", null))
+                .setEmotion(json.optString("emotion", null))
+                .setMiniMessage("")
+                .setTimestamp(json.optLong("timestamp"))
+                .setParentCommentId(json.optInt("parent_comment_id", -1));
+        int replyId = json.optInt("reply_id", -1);
+        if (replyId != -1) {
+            builder.setReplyid(replyId)
+                    .setReplyusername(json.optString("reply_username", null))
+                    .setReplycontent(json.optString("reply_content", null));
+        }
+        return builder.build();
+    }
+}
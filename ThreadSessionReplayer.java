@@ -0,0 +1,287 @@
+package com.philonet.ai;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Plays back a session captured by {@link ThreadSessionRecorder}.
+ *
+ * HTTP calls are answered from the recording by an interceptor, after the
+ * recorded server time. Realtime events go to a {@link SocketSink} on a
+ * background thread at their recorded offsets. Both are scaled by the replay
+ * speed: 1 for real time, 10 for ten times faster, {@link #UNLIMITED} for no
+ * waiting at all. {@link #report} summarizes what was served and how late events
+ * were delivered; pair it with {@link ThreadStateStore#statsSummary} for
+ * dispatch-to-UI latency and updates that changed nothing.
+ */
+public class ThreadSessionReplayer {
+
+    public static final double UNLIMITED = 0;
+
+    /** Receives replayed realtime events, like SocketManager's listener. */
+    public interface SocketSink {
+        void onNewMessage(Opinion message);
+
+        void onMessageDeleted(String messageId);
+
+        void onReactionUpdated(String targetId, JSONObject reactionData);
+    }
+
+    private static class Exchange {
+        final String request;
+        final int code;
+        final String response;
+        final long tookMs;
+
+        Exchange(String request, int code, String response, long tookMs) {
+            this.request = request;
+            this.code = code;
+            this.response = response;
+            this.tookMs = tookMs;
+        }
+    }
+
+    private static class SocketEvent {
+        final long offsetMs;
+        final String kind;
+        final JSONObject payload;
+
+        SocketEvent(long offsetMs, String kind, JSONObject payload) {
+            this.offsetMs = offsetMs;
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+
+    private final double speed;
+    // Per endpoint, in recorded order; guarded by itself
+    private final Map<String, ArrayDeque<Exchange>> exchanges = new HashMap<>();
+    private final List<SocketEvent> socketEvents = new ArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private Runnable onFinished;
+
+    private final Object stats = new Object();
+    // Guarded by stats
+    private final LatencyHistogram deliveryLag = new LatencyHistogram();
+    private int httpServed;
+    private int httpUnmatched;
+    private int socketDelivered;
+    private int socketFailed;
+    private int socketRemaining;
+
+    private ThreadSessionReplayer(double speed) {
+        this.speed = speed;
+    }
+
+    public static ThreadSessionReplayer load(File recording, double speed) throws IOException {
+        try (Reader reader = new FileReader(recording)) {
+            return parse(reader, speed);
+        }
+    }
+
+    public static ThreadSessionReplayer parse(Reader recording, double speed) throws IOException {
+        ThreadSessionReplayer replayer = new ThreadSessionReplayer(speed);
+        BufferedReader lines = new BufferedReader(recording);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) continue;
+            try {
+                replayer.add(new JSONObject(line));
+            } catch (JSONException e) {
+                throw new IOException("Bad recording at line " + lineNumber, e);
+            }
+        }
+        return replayer;
+    }
+
+    private void add(JSONObject event) throws JSONException {
+        String kind = event.getString("kind");
+        if (ThreadSessionRecorder.KIND_HTTP.equals(kind)) {
+            String endpoint = NetworkMetrics.endpointOf(event.getString("url"));
+            ArrayDeque<Exchange> queue = exchanges.get(endpoint);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                exchanges.put(endpoint, queue);
+            }
+            queue.add(new Exchange(event.optString("request"), event.getInt("code"),
+                    event.optString("response"), event.optLong("took_ms")));
+        } else {
+            socketEvents.add(new SocketEvent(event.getLong("t"), kind, event));
+        }
+    }
+
+    /**
+     * Answers calls from the recording instead of the network. A call is matched to
+     * the recorded exchange for the same endpoint with the same request body, or
+     * else the next unserved one. Unmatched calls get a 404.
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            Request request = chain.request();
+            Exchange exchange = take(NetworkMetrics.endpointOf(request.url().toString()), bodyOf(request));
+            if (exchange == null) {
+                synchronized (stats) {
+                    httpUnmatched++;
+                }
+                return response(request, 404, "{}");
+            }
+
+            long waitMs = scaled(exchange.tookMs);
+            if (waitMs > 0) {
+                try {
+                    Thread.sleep(waitMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Replay interrupted");
+                }
+            }
+            synchronized (stats) {
+                httpServed++;
+            }
+            return response(request, exchange.code, exchange.response);
+        };
+    }
+
+    private Exchange take(String endpoint, String requestBody) {
+        synchronized (exchanges) {
+            ArrayDeque<Exchange> queue = exchanges.get(endpoint);
+            if (queue == null || queue.isEmpty()) return null;
+            for (Iterator<Exchange> it = queue.iterator(); it.hasNext(); ) {
+                Exchange exchange = it.next();
+                if (exchange.request.equals(requestBody)) {
+                    it.remove();
+                    return exchange;
+                }
+            }
+            return queue.poll();
+        }
+    }
+
+    private static String bodyOf(Request request) throws IOException {
+        if (request.body() == null) return "";
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    private static Response response(Request request, int code, String body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Replayed")
+                .body(ResponseBody.create(MediaType.parse("application/json"), body))
+                .build();
+    }
+
+    private long scaled(long recordedMs) {
+        return speed <= UNLIMITED ? 0 : (long) (recordedMs / speed);
+    }
+
+    /**
+     * Called once every realtime event has been delivered.
+     */
+    public void setOnFinished(Runnable onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    /**
+     * Starts delivering realtime events, timed from now.
+     */
+    public void start(SocketSink sink) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "ThreadSessionReplayer"));
+        long startedAt = System.nanoTime();
+        synchronized (stats) {
+            socketRemaining = socketEvents.size();
+        }
+        if (socketEvents.isEmpty() && onFinished != null) {
+            onFinished.run();
+            return;
+        }
+        for (SocketEvent event : socketEvents) {
+            long dueAt = startedAt + TimeUnit.MILLISECONDS.toNanos(scaled(event.offsetMs));
+            scheduler.schedule(() -> deliver(sink, event, dueAt),
+                    dueAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void deliver(SocketSink sink, SocketEvent event, long dueAt) {
+        long lagMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dueAt);
+        boolean delivered = true;
+        try {
+            switch (event.kind) {
+                case ThreadSessionRecorder.KIND_MESSAGE:
+                    sink.onNewMessage(ThreadSessionRecorder.decode(event.payload));
+                    break;
+                case ThreadSessionRecorder.KIND_DELETED:
+                    sink.onMessageDeleted(event.payload.getString("id"));
+                    break;
+                case ThreadSessionRecorder.KIND_REACTION:
+                    sink.onReactionUpdated(event.payload.getString("target_id"),
+                            event.payload.getJSONObject("data"));
+                    break;
+                default:
+                    delivered = false;
+            }
+        } catch (JSONException | RuntimeException e) {
+            delivered = false;
+        }
+
+        boolean finished;
+        synchronized (stats) {
+            deliveryLag.record(lagMs);
+            if (delivered) {
+                socketDelivered++;
+            } else {
+                socketFailed++;
+            }
+            finished = --socketRemaining == 0;
+        }
+        if (finished && onFinished != null) {
+            onFinished.run();
+        }
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public String report() {
+        synchronized (stats) {
+            return "Replay at " + (speed <= UNLIMITED ? "unlimited" : speed + "x") + " speed"
+                    + "\n  http served=" + httpServed + " unmatched=" + httpUnmatched
+                    + "\n  socket delivered=" + socketDelivered + " failed=" + socketFailed
+                    + " pending=" + socketRemaining
+                    + "\n  delivery lag " + deliveryLag;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.philonet.ai;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a thread screen: the replies in display order and the
+ * pagination state around them.
+ *
+ * Only {@link ThreadReducer} creates new states. The reply list is unmodifiable,
+ * so a snapshot can be handed to the adapter and read from any thread.
+ */
+public final class ThreadState {
+
+    public final List<Opinion> replies;
+    /** Newest reply and recent avatars of {@link #replies}, maintained incrementally. */
+    public final RecentReplies recent;
+
+    public final boolean hasMoreBefore;
+    public final boolean hasMoreAfter;
+    public final boolean isAtLatest;
+    public final boolean isAtOldest;
+    public final String beforeCursor;
+    public final String afterCursor;
+    public final int totalCount;
+
+    /** Cursors of the last page requested in each direction, to avoid repeating a request. */
+    public final String lastBeforeCursor;
+    public final String lastAfterCursor;
+
+    public final boolean hasLoadedRecentMessages;
+
+    private ThreadState(Builder builder) {
+        this.replies = builder.replies;
+        this.recent = builder.recent;
+        this.hasMoreBefore = builder.hasMoreBefore;
+        this.hasMoreAfter = builder.hasMoreAfter;
+        this.isAtLatest = builder.isAtLatest;
+        this.isAtOldest = builder.isAtOldest;
+        this.beforeCursor = builder.beforeCursor;
+        this.afterCursor = builder.afterCursor;
+        this.totalCount = builder.totalCount;
+        this.lastBeforeCursor = builder.lastBeforeCursor;
+        this.lastAfterCursor = builder.lastAfterCursor;
+        this.hasLoadedRecentMessages = builder.hasLoadedRecentMessages;
+    }
+
+    public static ThreadState initial() {
+        return new Builder().build();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadState{replies=" + replies.size()
+                + ", hasMoreBefore=" + hasMoreBefore
+                + ", hasMoreAfter=" + hasMoreAfter
+                + ", isAtLatest=" + isAtLatest
+                + ", isAtOldest=" + isAtOldest
+                + ", totalCount=" + totalCount + "}";
+    }
+
+    public static final class Builder {
+        private List<Opinion> replies = Collections.emptyList();
+        private RecentReplies recent = RecentReplies.EMPTY;
+        private boolean hasMoreBefore;
+        private boolean hasMoreAfter;
+        private boolean isAtLatest;
+        private boolean isAtOldest;
+        private String beforeCursor;
+        private String afterCursor;
+        private int totalCount;
+        private String lastBeforeCursor;
+        private String lastAfterCursor;
+        private boolean hasLoadedRecentMessages;
+
+        public Builder() {
+        }
+
+        private Builder(ThreadState state) {
+            this.replies = state.replies;
+            this.recent = state.recent;
+            this.hasMoreBefore = state.hasMoreBefore;
+            this.hasMoreAfter = state.hasMoreAfter;
+            this.isAtLatest = state.isAtLatest;
+            this.isAtOldest = state.isAtOldest;
+            this.beforeCursor = state.beforeCursor;
+            this.afterCursor = state.afterCursor;
+            this.totalCount = state.totalCount;
+            this.lastBeforeCursor = state.lastBeforeCursor;
+            this.lastAfterCursor = state.lastAfterCursor;
+            this.hasLoadedRecentMessages = state.hasLoadedRecentMessages;
+        }
+
+        /**
+         * Takes ownership of {@code replies}; callers must not modify it afterwards.
+         * {@code recent} must describe the same replies.
+         */
+        public Builder setReplies(List<Opinion> replies, RecentReplies recent) {
+            this.replies = Collections.unmodifiableList(replies);
+            this.recent = recent;
+            return this;
+        }
+
+        /**
+         * Copies the server's pagination fields from a page response.
+         */
+        public Builder setPagination(CommentsResponse response) {
+            this.hasMoreBefore = response.hasMoreBefore;
+            this.hasMoreAfter = response.hasMoreAfter;
+            this.isAtLatest = response.isAtLatest;
+            this.isAtOldest = response.isAtOldest;
+            this.beforeCursor = response.beforeCursor;
+            this.afterCursor = response.afterCursor;
+            this.totalCount = response.totalCount;
+            return this;
+        }
+
+        public Builder setHasMoreBefore(boolean hasMoreBefore) {
+            this.hasMoreBefore = hasMoreBefore;
+            return this;
+        }
+
+        public Builder setHasMoreAfter(boolean hasMoreAfter) {
+            this.hasMoreAfter = hasMoreAfter;
+            return this;
+        }
+
+        public Builder setAtLatest(boolean isAtLatest) {
+            this.isAtLatest = isAtLatest;
+            return this;
+        }
+
+        public Builder setAtOldest(boolean isAtOldest) {
+            this.isAtOldest = isAtOldest;
+            return this;
+        }
+
+        public Builder setBeforeCursor(String beforeCursor) {
+            this.beforeCursor = beforeCursor;
+            return this;
+        }
+
+        public Builder setAfterCursor(String afterCursor) {
+            this.afterCursor = afterCursor;
+            return this;
+        }
+
+        public Builder setTotalCount(int totalCount) {
+            this.totalCount = totalCount;
+            return this;
+        }
+
+        public Builder setLastBeforeCursor(String lastBeforeCursor) {
+            this.lastBeforeCursor = lastBeforeCursor;
+            return this;
+        }
+
+        public Builder setLastAfterCursor(String lastAfterCursor) {
+            this.lastAfterCursor = lastAfterCursor;
+            return this;
+        }
+
+        public Builder setHasLoadedRecentMessages(boolean hasLoadedRecentMessages) {
+            this.hasLoadedRecentMessages = hasLoadedRecentMessages;
+            return this;
+        }
+
+        public ThreadState build() {
+            return new ThreadState(this);
+        }
+    }
+}
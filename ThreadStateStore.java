@@ -0,0 +1,121 @@
+package com.philonet.ai;
+
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Single writer for a thread's {@link ThreadState}.
+ *
+ * Actions can be dispatched from any thread (Rx callbacks, OkHttp, socket). They
+ * are reduced one at a time on a private serial thread, and each resulting
+ * snapshot is handed to the {@link Listener} through the publish executor, in
+ * order. Nobody else mutates the reply list, so callers never copy it defensively.
+ */
+public class ThreadStateStore {
+
+    private static final String TAG = "ThreadStateStore";
+
+    public interface Listener {
+        /**
+         * Called on the publish executor for every state change. {@code afterCommit}
+         * is null or must run once the new replies are shown.
+         */
+        void onStateChanged(ThreadState previous, ThreadState current, Runnable afterCommit);
+    }
+
+    /**
+     * Follow-up UI work for one action, run only if the action changed the state.
+     */
+    public interface Commit {
+        void onCommitted(ThreadState previous, ThreadState current);
+    }
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, TAG));
+    private final Executor publisher;
+    private final Listener listener;
+
+    // Writer thread only
+    private ThreadState state = ThreadState.initial();
+
+    // Dispatch to listener, in ms; guarded by itself along with the counters
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+    private long applied;
+    private long unchanged;
+
+    public ThreadStateStore(Executor publisher, Listener listener) {
+        this.publisher = publisher;
+        this.listener = listener;
+    }
+
+    public void dispatch(ThreadAction action) {
+        dispatch(action, null);
+    }
+
+    public void dispatch(ThreadAction action, Commit commit) {
+        try {
+            long dispatchedAt = System.nanoTime();
+            writer.execute(() -> reduce(action, commit, dispatchedAt));
+        } catch (RejectedExecutionException e) {
+            // Shut down with the screen; late network and socket results are dropped
+            Log.d(TAG, "Dropped " + action.getClass().getSimpleName() + " after shutdown");
+        }
+    }
+
+    private void reduce(ThreadAction action, Commit commit, long dispatchedAt) {
+        ThreadState previous = state;
+        // A reducer bug must crash rather than leave the thread showing stale replies
+        ThreadState next = ThreadReducer.reduce(previous, action);
+        if (next == previous) {
+            synchronized (commitLatency) {
+                unchanged++;
+            }
+            return;
+        }
+        state = next;
+
+        Runnable afterCommit = commit == null ? null : () -> commit.onCommitted(previous, next);
+        publisher.execute(() -> {
+            synchronized (commitLatency) {
+                applied++;
+                commitLatency.record((System.nanoTime() - dispatchedAt) / 1_000_000);
+            }
+            listener.onStateChanged(previous, next, afterCommit);
+        });
+    }
+
+    /**
+     * "applied=.. unchanged=.. latency n=.. p50=.." since the last reset.
+     */
+    public String statsSummary() {
+        synchronized (commitLatency) {
+            return "applied=" + applied + " unchanged=" + unchanged + " latency " + commitLatency;
+        }
+    }
+
+    /**
+     * Reports dispatch-to-UI latency and how many actions changed nothing, then resets.
+     */
+    public void flushStats(String screen) {
+        synchronized (commitLatency) {
+            Map<String, Object> dimensions = new HashMap<>();
+            dimensions.put("screen", screen);
+            dimensions.put("applied", applied);
+            dimensions.put("unchanged", unchanged);
+            PerformanceReporter.reportHistogram("thread_state_commit", dimensions, commitLatency);
+            commitLatency.reset();
+            applied = 0;
+            unchanged = 0;
+        }
+    }
+
+    public void shutdown() {
+        writer.shutdownNow();
+    }
+}
@@ -0,0 +1,251 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates thread row view holders while the main thread is idle, before they are
+ * needed.
+ *
+ * Each screen wraps its adapters with {@link #wrap}. While the first page is
+ * being fetched, {@link #prewarm} creates the view types earlier thread screens
+ * needed from an idle handler on the main thread, a few milliseconds at a time,
+ * and the wrapped adapter hands those out instead of creating them during the
+ * first layout. The view-type mix is learned and kept across launches; the
+ * holders themselves stay per screen because they capture their adapter's
+ * listeners. Main thread only.
+ */
+public class ThreadViewPrewarmer {
+
+    private static final String PREFS = "thread_view_prewarmer";
+    private static final String KEY_VERSION = "version_code";
+    private static final int MAX_PER_TYPE = 12;
+    // Until a screen has recorded its mix: this many of each type the adapter already shows
+    private static final int DEFAULT_PER_TYPE = 4;
+    // Creation work per idle slot, so input and frames still get through
+    private static final long IDLE_BUDGET_MS = 8;
+    private static final Runnable WAKE_UP = () -> { };
+
+    // "<adapter>:<view type>" -> holders a thread screen ended up creating
+    private static final Map<String, Integer> DEMAND = new HashMap<>();
+    private static boolean demandLoaded;
+
+    private final List<PrewarmedAdapter<?>> adapters = new ArrayList<>();
+    private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final MessageQueue.IdleHandler idleHandler = this::createPending;
+    private SharedPreferences prefs;
+    private boolean idleHandlerAdded;
+
+    public <VH extends RecyclerView.ViewHolder> RecyclerView.Adapter<VH> wrap(String name, RecyclerView.Adapter<VH> adapter) {
+        PrewarmedAdapter<VH> wrapped = new PrewarmedAdapter<>(name, adapter);
+        adapters.add(wrapped);
+        return wrapped;
+    }
+
+    /**
+     * Queues the learned view types for creation while the main thread is idle.
+     * {@code parent} is only used for layout params, the holders aren't attached
+     * to it.
+     */
+    public void prewarm(RecyclerView parent) {
+        loadDemand(parent.getContext());
+        for (PrewarmedAdapter<?> adapter : adapters) {
+            Map<Integer, Integer> wanted = new HashMap<>();
+            for (Map.Entry<String, Integer> demand : DEMAND.entrySet()) {
+                String key = demand.getKey();
+                if (key.startsWith(adapter.name + ":")) {
+                    wanted.put(Integer.parseInt(key.substring(adapter.name.length() + 1)), demand.getValue());
+                }
+            }
+            if (wanted.isEmpty()) {
+                for (int position = 0; position < adapter.inner.getItemCount(); position++) {
+                    wanted.merge(adapter.inner.getItemViewType(position), 1, Integer::sum);
+                }
+                wanted.replaceAll((viewType, count) -> Math.min(DEFAULT_PER_TYPE, count));
+            }
+
+            for (Map.Entry<Integer, Integer> entry : wanted.entrySet()) {
+                int viewType = entry.getKey();
+                int count = entry.getValue();
+                for (int i = 0; i < count; i++) {
+                    pending.add(() -> adapter.createHolder(parent, viewType, count));
+                }
+            }
+        }
+        if (!pending.isEmpty() && !idleHandlerAdded) {
+            Looper.myQueue().addIdleHandler(idleHandler);
+            idleHandlerAdded = true;
+        }
+    }
+
+    private boolean createPending() {
+        long deadline = SystemClock.uptimeMillis() + IDLE_BUDGET_MS;
+        while (!pending.isEmpty() && SystemClock.uptimeMillis() < deadline) {
+            pending.poll().run();
+        }
+        if (pending.isEmpty()) {
+            idleHandlerAdded = false;
+            return false;
+        }
+        // Idle handlers run once per idle period; an empty message starts the next one
+        handler.post(WAKE_UP);
+        return true;
+    }
+
+    /**
+     * Stops prewarming and records what this screen needed for the next one.
+     */
+    public void release() {
+        pending.clear();
+        handler.removeCallbacks(WAKE_UP);
+        if (idleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(idleHandler);
+            idleHandlerAdded = false;
+        }
+        for (PrewarmedAdapter<?> adapter : adapters) {
+            for (Map.Entry<Integer, Integer> created : adapter.created.entrySet()) {
+                String key = adapter.name + ":" + created.getKey();
+                int needed = Math.min(MAX_PER_TYPE, created.getValue());
+                DEMAND.merge(key, needed, Math::max);
+            }
+            adapter.stock.clear();
+        }
+        saveDemand();
+    }
+
+    private void loadDemand(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        if (demandLoaded) return;
+        demandLoaded = true;
+        // View type numbers can change between builds; an old mix could name types that no longer exist
+        if (prefs.getInt(KEY_VERSION, -1) != BuildConfig.VERSION_CODE) return;
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            if (!entry.getKey().equals(KEY_VERSION) && entry.getValue() instanceof Integer) {
+                DEMAND.merge(entry.getKey(), (Integer) entry.getValue(), Math::max);
+            }
+        }
+    }
+
+    private void saveDemand() {
+        if (prefs == null || DEMAND.isEmpty()) return;
+        SharedPreferences.Editor editor = prefs.edit().clear().putInt(KEY_VERSION, BuildConfig.VERSION_CODE);
+        for (Map.Entry<String, Integer> demand : DEMAND.entrySet()) {
+            editor.putInt(demand.getKey(), demand.getValue());
+        }
+        editor.apply();
+    }
+
+    /**
+     * Delegates everything to the wrapped adapter, except that view holders come
+     * from the prewarmed stock when there is one.
+     */
+    private static class PrewarmedAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+        final String name;
+        final RecyclerView.Adapter<VH> inner;
+        final Map<Integer, ArrayDeque<VH>> stock = new HashMap<>();
+        final Map<Integer, Integer> created = new HashMap<>();
+
+        PrewarmedAdapter(String name, RecyclerView.Adapter<VH> inner) {
+            this.name = name;
+            this.inner = inner;
+            setStateRestorationPolicy(inner.getStateRestorationPolicy());
+        }
+
+        void createHolder(ViewGroup parent, int viewType, int count) {
+            ArrayDeque<VH> queue = stock.computeIfAbsent(viewType, t -> new ArrayDeque<>());
+            if (queue.size() < count) {
+                queue.add(inner.onCreateViewHolder(parent, viewType));
+            }
+        }
+
+        @NonNull
+        @Override
+        public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created.merge(viewType, 1, Integer::sum);
+            ArrayDeque<VH> queue = stock.get(viewType);
+            VH holder = queue != null ? queue.poll() : null;
+            return holder != null ? holder : inner.onCreateViewHolder(parent, viewType);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull VH holder, int position) {
+            inner.onBindViewHolder(holder, position);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+            inner.onBindViewHolder(holder, position, payloads);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return inner.getItemViewType(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return inner.getItemId(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return inner.getItemCount();
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull VH holder) {
+            inner.onViewRecycled(holder);
+        }
+
+        @Override
+        public boolean onFailedToRecycleView(@NonNull VH holder) {
+            return inner.onFailedToRecycleView(holder);
+        }
+
+        @Override
+        public void onViewAttachedToWindow(@NonNull VH holder) {
+            inner.onViewAttachedToWindow(holder);
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(@NonNull VH holder) {
+            inner.onViewDetachedFromWindow(holder);
+        }
+
+        @Override
+        public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+            inner.onAttachedToRecyclerView(recyclerView);
+        }
+
+        @Override
+        public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+            inner.onDetachedFromRecyclerView(recyclerView);
+        }
+
+        // Change notifications come straight from the wrapped adapter
+        @Override
+        public void registerAdapterDataObserver(@NonNull RecyclerView.AdapterDataObserver observer) {
+            inner.registerAdapterDataObserver(observer);
+        }
+
+        @Override
+        public void unregisterAdapterDataObserver(@NonNull RecyclerView.AdapterDataObserver observer) {
+            inner.unregisterAdapterDataObserver(observer);
+        }
+    }
+}
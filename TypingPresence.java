@@ -0,0 +1,149 @@
+package com.philonet.ai;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Who else is typing in the room, aggregated into one short label.
+ *
+ * Socket events only update a map. The label is recomputed at most once per
+ * {@link #RENDER_INTERVAL_MS} on the handler's thread and handed to the
+ * {@link Listener} only when it changes, however many people are typing. A typer
+ * is dropped after {@link #EXPIRY_MS} without a fresh "typing" signal, so a lost
+ * "stopped" never leaves the label stuck. At most {@link #MAX_TRACKED} typers are
+ * kept; beyond that the least recently refreshed one is forgotten.
+ */
+public class TypingPresence {
+
+    public static final long EXPIRY_MS = 6000;
+    public static final long RENDER_INTERVAL_MS = 300;
+    public static final int MAX_TRACKED = 50;
+    private static final int NAMES_SHOWN = 2;
+
+    public interface Listener {
+        /** Called on the handler's thread; {@code label} is empty when nobody types. */
+        void onTypingChanged(String label, int typingCount);
+    }
+
+    private static final class Typer {
+        final String name;
+        final long expiresAt;
+
+        Typer(String name, long expiresAt) {
+            this.name = name;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Handler handler;
+    private final Listener listener;
+    private final String selfId;
+    private final Runnable render = this::render;
+
+    // Least recently refreshed first; guarded by itself
+    private final LinkedHashMap<String, Typer> typers = new LinkedHashMap<String, Typer>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Typer> eldest) {
+            return size() > MAX_TRACKED;
+        }
+    };
+    private boolean renderScheduled;
+    private long renderAt;
+
+    // Handler thread only
+    private String shownLabel = "";
+
+    public TypingPresence(Handler handler, String selfId, Listener listener) {
+        this.handler = handler;
+        this.selfId = selfId;
+        this.listener = listener;
+    }
+
+    /** Any thread. */
+    public void onTypingStarted(String userId, String userName) {
+        if (userId == null || userId.equals(selfId)) return;
+        synchronized (typers) {
+            // Re-inserted so the map stays ordered by last refresh
+            typers.remove(userId);
+            typers.put(userId, new Typer(userName, SystemClock.uptimeMillis() + EXPIRY_MS));
+            scheduleRender(RENDER_INTERVAL_MS);
+        }
+    }
+
+    /** Any thread. */
+    public void onTypingStopped(String userId) {
+        synchronized (typers) {
+            if (typers.remove(userId) != null) {
+                scheduleRender(RENDER_INTERVAL_MS);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (typers) {
+            typers.clear();
+            renderScheduled = false;
+        }
+        handler.removeCallbacks(render);
+    }
+
+    // Holding the typers lock
+    private void scheduleRender(long delayMs) {
+        long at = SystemClock.uptimeMillis() + delayMs;
+        // An expiry check far away must not hold back a new typer
+        if (renderScheduled && renderAt <= at) return;
+        handler.removeCallbacks(render);
+        renderScheduled = true;
+        renderAt = at;
+        handler.postAtTime(render, at);
+    }
+
+    private void render() {
+        long now = SystemClock.uptimeMillis();
+        List<String> names = new ArrayList<>(NAMES_SHOWN);
+        int count;
+        long nextExpiry = Long.MAX_VALUE;
+        synchronized (typers) {
+            renderScheduled = false;
+            for (Iterator<Typer> it = typers.values().iterator(); it.hasNext(); ) {
+                Typer typer = it.next();
+                if (typer.expiresAt <= now) {
+                    it.remove();
+                } else {
+                    nextExpiry = Math.min(nextExpiry, typer.expiresAt);
+                }
+            }
+            count = typers.size();
+            // Most recently refreshed are at the end
+            List<Typer> recent = new ArrayList<>(typers.values());
+            for (int i = recent.size() - 1; i >= 0 && names.size() < NAMES_SHOWN; i--) {
+                String name = recent.get(i).name;
+                names.add(name == null || name.isEmpty() ? "Someone" : name);
+            }
+            if (count > 0) {
+                scheduleRender(Math.max(RENDER_INTERVAL_MS, nextExpiry - now));
+            }
+        }
+
+        String label = labelFor(names, count);
+        if (!label.equals(shownLabel)) {
+            shownLabel = label;
+            listener.onTypingChanged(label, count);
+        }
+    }
+
+    static String labelFor(List<String> names, int count) {
+        if (count == 0) return "";
+        if (count == 1) return names.get(0) + " is typing…";
+        if (count == 2) return names.get(0) + " and " + names.get(1) + " are typing…";
+        int others = count - names.size();
+        return names.get(0) + ", " + names.get(1) + " and " + others
+                + (others == 1 ? " other are typing…" : " others are typing…");
+    }
+}
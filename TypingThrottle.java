@@ -0,0 +1,72 @@
+package com.philonet.ai;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+/**
+ * Outgoing typing signals for the message input.
+ *
+ * A "typing" signal goes out at most once per {@link #REPEAT_MS} while the user
+ * keeps typing, which also keeps it alive on the receiving side: receivers drop a
+ * typer after {@link TypingPresence#EXPIRY_MS} without one. "Stopped" is sent
+ * once, when the input is cleared, after {@link #IDLE_MS} without keystrokes, or
+ * when {@link #stop} is called. Main thread only.
+ */
+public class TypingThrottle {
+
+    public static final long REPEAT_MS = 3000;
+    public static final long IDLE_MS = 5000;
+
+    public interface Sender {
+        void sendTypingStart();
+
+        void sendTypingStop();
+    }
+
+    private final Handler handler;
+    private final Sender sender;
+    private final Runnable idleCheck = this::checkIdle;
+
+    private boolean typing;
+    private long lastSentAt;
+    private long lastInputAt;
+
+    public TypingThrottle(Handler handler, Sender sender) {
+        this.handler = handler;
+        this.sender = sender;
+    }
+
+    public void onInput(boolean hasText) {
+        if (!hasText) {
+            stop();
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        lastInputAt = now;
+        if (!typing || now - lastSentAt >= REPEAT_MS) {
+            sender.sendTypingStart();
+            lastSentAt = now;
+        }
+        if (!typing) {
+            typing = true;
+            handler.postDelayed(idleCheck, IDLE_MS);
+        }
+    }
+
+    public void stop() {
+        handler.removeCallbacks(idleCheck);
+        if (!typing) return;
+        typing = false;
+        sender.sendTypingStop();
+    }
+
+    private void checkIdle() {
+        // Re-armed here rather than on every keystroke
+        long idleFor = SystemClock.uptimeMillis() - lastInputAt;
+        if (idleFor >= IDLE_MS) {
+            stop();
+        } else {
+            handler.postDelayed(idleCheck, IDLE_MS - idleFor);
+        }
+    }
+}
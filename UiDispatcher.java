@@ -0,0 +1,136 @@
+package com.philonet.ai;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs UI work posted from background threads, coalesced into one frame callback.
+ *
+ * Network and socket callbacks post many tiny UI tasks. Instead of one looper
+ * message each, tasks are queued and drained together right before the next frame
+ * is drawn, in the order they were posted. Work posted from the main thread runs
+ * immediately, as with runOnUiThread. Everything still queued when the owner is
+ * destroyed is dropped.
+ */
+public class UiDispatcher implements DefaultLifecycleObserver {
+
+    private static final String TAG = "UiDispatcher";
+
+    private static class Task {
+        final Runnable action;
+        final long postedAt;
+
+        Task(Runnable action, long postedAt) {
+            this.action = action;
+            this.postedAt = postedAt;
+        }
+    }
+
+    private final String screen;
+    private final Choreographer choreographer;
+    private final Object lock = new Object();
+    private List<Task> pending = new ArrayList<>();
+    private List<Task> draining = new ArrayList<>();
+    private boolean frameScheduled;
+    private volatile boolean destroyed;
+
+    // Main thread only
+    private final LatencyHistogram taskLatency = new LatencyHistogram();
+    private final LatencyHistogram queueDepth = new LatencyHistogram();
+
+    private final Choreographer.FrameCallback drainCallback = frameTimeNanos -> drain();
+
+    /**
+     * Must be created on the main thread.
+     */
+    public UiDispatcher(String screen, LifecycleOwner owner) {
+        this.screen = screen;
+        this.choreographer = Choreographer.getInstance();
+        owner.getLifecycle().addObserver(this);
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            destroyed = true;
+        }
+    }
+
+    public void post(Runnable action) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            if (!destroyed) {
+                action.run();
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            if (destroyed) return;
+            pending.add(new Task(action, SystemClock.uptimeMillis()));
+            if (!frameScheduled) {
+                frameScheduled = true;
+                // Choreographer accepts callbacks from any thread
+                choreographer.postFrameCallback(drainCallback);
+            }
+        }
+    }
+
+    private void drain() {
+        List<Task> batch;
+        synchronized (lock) {
+            frameScheduled = false;
+            if (destroyed) return;
+            // Swap buffers so tasks posted while draining go to the next frame
+            batch = pending;
+            pending = draining;
+            draining = batch;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        queueDepth.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (destroyed) break;
+            Task task = batch.get(i);
+            taskLatency.record(now - task.postedAt);
+            // A failing task crashes like any other main-thread exception
+            task.action.run();
+        }
+        batch.clear();
+    }
+
+    /**
+     * Reports queue depth per frame and post-to-run latency, then resets them.
+     * Call on the main thread.
+     */
+    public void flushMetrics() {
+        Map<String, Object> dimensions = new HashMap<>();
+        dimensions.put("screen", screen);
+        dimensions.put("max_queue_depth", queueDepth.getMax());
+        dimensions.put("p90_queue_depth", queueDepth.percentile(90));
+        PerformanceReporter.reportHistogram("ui_task_latency", dimensions, taskLatency);
+        Log.d(TAG, screen + " latency " + taskLatency + ", depth " + queueDepth);
+        taskLatency.reset();
+        queueDepth.reset();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        synchronized (lock) {
+            destroyed = true;
+            pending.clear();
+            if (frameScheduled) {
+                choreographer.removeFrameCallback(drainCallback);
+                frameScheduled = false;
+            }
+        }
+        owner.getLifecycle().removeObserver(this);
+    }
+}
@@ -0,0 +1,453 @@
+package com.philonet.ai;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.os.SystemClock;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.OverScroller;
+import android.widget.TextView;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Table renderer for summaries that only creates views for the cells in view.
+ *
+ * Column widths and row heights are measured from text metrics alone, so a wide
+ * table costs no views up front. The table only scrolls sideways and is as tall
+ * as its rows, so the page keeps vertical scrolling. Cells outside the part of
+ * the table that is on screen go back to a pool and are rebound for the cells
+ * coming in, whether the table or the page scrolled. Takes TableComponent's
+ * setData / setDarkTheme calls and its look: a bold header row on a tinted band,
+ * an outer border and a grid between cells.
+ */
+public class VirtualTableView extends ViewGroup {
+
+    private static final String TAG = "VirtualTableView";
+
+    private static final float TEXT_SIZE_SP = 14;
+    private static final float CELL_PADDING_H_DP = 12;
+    private static final float CELL_PADDING_V_DP = 8;
+    private static final float MIN_COLUMN_WIDTH_DP = 48;
+    private static final float MAX_COLUMN_WIDTH_DP = 240;
+    private static final float BORDER_DP = 1;
+
+    private final TextPaint cellPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint headerPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint gridPaint = new Paint();
+    private final Paint borderPaint = new Paint();
+    private final Paint headerFillPaint = new Paint();
+    private final int paddingH;
+    private final int paddingV;
+    private final int minColumnWidth;
+    private final int maxColumnWidth;
+
+    private String[][] data = new String[0][0];
+    private boolean darkTheme;
+
+    // Prefix sums: column c spans [columnOffsets[c], columnOffsets[c + 1])
+    private int[] columnOffsets = new int[1];
+    private int[] rowOffsets = new int[1];
+
+    private final Map<Long, TextView> activeCells = new HashMap<>();
+    private final ArrayDeque<TextView> cellPool = new ArrayDeque<>();
+    private boolean blockLayoutRequests;
+    private final Rect visibleRect = new Rect();
+    private final Rect clipRect = new Rect();
+    // The page scrolling moves rows in and out of view without scrolling this view
+    private final ViewTreeObserver.OnScrollChangedListener pageScrollListener = this::fillViewport;
+    // Cell range that has views, so a page scroll within the same rows costs nothing
+    private int boundFirstRow = -1;
+    private int boundLastRow = -1;
+    private int boundFirstColumn = -1;
+    private int boundLastColumn = -1;
+
+    private final GestureDetector gestureDetector;
+    private final OverScroller scroller;
+
+    public VirtualTableView(Context context) {
+        super(context);
+        float density = getResources().getDisplayMetrics().density;
+        paddingH = Math.round(CELL_PADDING_H_DP * density);
+        paddingV = Math.round(CELL_PADDING_V_DP * density);
+        minColumnWidth = Math.round(MIN_COLUMN_WIDTH_DP * density);
+        maxColumnWidth = Math.round(MAX_COLUMN_WIDTH_DP * density);
+
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                getResources().getDisplayMetrics());
+        cellPaint.setTextSize(textSize);
+        headerPaint.setTextSize(textSize);
+        headerPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        gridPaint.setStrokeWidth(Math.max(1, density));
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(Math.max(1, BORDER_DP * density));
+
+        scroller = new OverScroller(context);
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (Math.abs(distanceX) <= Math.abs(distanceY) || maxScrollX() == 0) {
+                    // Vertical drags belong to the page; it intercepts them past its touch slop
+                    return false;
+                }
+                requestParentDisallowIntercept(true);
+                scrollBy(Math.round(distanceX), 0);
+                return true;
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                if (Math.abs(velocityX) <= Math.abs(velocityY) || maxScrollX() == 0) {
+                    return false;
+                }
+                scroller.fling(getScrollX(), 0, -Math.round(velocityX), 0, 0, maxScrollX(), 0, 0);
+                postInvalidateOnAnimation();
+                return true;
+            }
+        });
+
+        setWillNotDraw(false);
+        applyTheme();
+    }
+
+    public void setData(String[][] data) {
+        this.data = data != null ? data : new String[0][0];
+        recycleAllCells();
+        scrollTo(0, 0);
+        measureGrid();
+        requestLayout();
+        invalidate();
+    }
+
+    public void setDarkTheme(boolean darkTheme) {
+        if (this.darkTheme == darkTheme) return;
+        this.darkTheme = darkTheme;
+        applyTheme();
+        recycleAllCells();
+        requestLayout();
+        invalidate();
+    }
+
+    private void applyTheme() {
+        int textColor = darkTheme ? 0xFFFFFFFF : 0xFF000000;
+        cellPaint.setColor(textColor);
+        headerPaint.setColor(textColor);
+        gridPaint.setColor(darkTheme ? 0xFF3A3A3A : 0xFFDDDDDD);
+        borderPaint.setColor(darkTheme ? 0xFF5A5A5A : 0xFFBDBDBD);
+        headerFillPaint.setColor(darkTheme ? 0xFF2C2C2E : 0xFFF2F2F7);
+    }
+
+    /**
+     * Sizes every column and row from text metrics. Most cells fit on one line and
+     * cost a single measureText; only cells that wrap get a StaticLayout.
+     */
+    private void measureGrid() {
+        long start = SystemClock.elapsedRealtimeNanos();
+        int rows = data.length;
+        int columns = rows > 0 ? data[0].length : 0;
+
+        float[][] textWidths = new float[rows][columns];
+        int[] columnWidths = new int[columns];
+        for (int r = 0; r < rows; r++) {
+            TextPaint paint = paintForRow(r);
+            for (int c = 0; c < columns; c++) {
+                float width = paint.measureText(textAt(r, c));
+                textWidths[r][c] = width;
+                columnWidths[c] = Math.max(columnWidths[c], (int) Math.ceil(width) + 2 * paddingH);
+            }
+        }
+
+        columnOffsets = new int[columns + 1];
+        for (int c = 0; c < columns; c++) {
+            int width = Math.max(minColumnWidth, Math.min(maxColumnWidth, columnWidths[c]));
+            columnWidths[c] = width;
+            columnOffsets[c + 1] = columnOffsets[c] + width;
+        }
+
+        rowOffsets = new int[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            TextPaint paint = paintForRow(r);
+            Paint.FontMetricsInt metrics = paint.getFontMetricsInt();
+            int lineHeight = metrics.bottom - metrics.top;
+            int rowHeight = lineHeight;
+            for (int c = 0; c < columns; c++) {
+                int contentWidth = columnWidths[c] - 2 * paddingH;
+                if (textWidths[r][c] > contentWidth) {
+                    rowHeight = Math.max(rowHeight, wrappedHeight(textAt(r, c), paint, contentWidth));
+                }
+            }
+            rowOffsets[r + 1] = rowOffsets[r] + rowHeight + 2 * paddingV;
+        }
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Measured " + rows + "x" + columns + " table in "
+                    + (SystemClock.elapsedRealtimeNanos() - start) / 1000 + "us");
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int wrappedHeight(String text, TextPaint paint, int width) {
+        Layout layout;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            layout = StaticLayout.Builder.obtain(text, 0, text.length(), paint, width).build();
+        } else {
+            layout = new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+        }
+        return layout.getHeight();
+    }
+
+    private TextPaint paintForRow(int row) {
+        return row == 0 ? headerPaint : cellPaint;
+    }
+
+    private String textAt(int row, int column) {
+        String text = data[row][column];
+        return text != null ? text : "";
+    }
+
+    private int contentWidth() {
+        return columnOffsets[columnOffsets.length - 1];
+    }
+
+    private int contentHeight() {
+        return rowOffsets[rowOffsets.length - 1];
+    }
+
+    private int maxScrollX() {
+        return Math.max(0, contentWidth() - getWidth());
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = resolveSize(contentWidth(), widthMeasureSpec);
+        int height = resolveSize(contentHeight(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        scrollTo(getScrollX(), 0);
+        fillViewport();
+    }
+
+    @Override
+    public void scrollTo(int x, int y) {
+        super.scrollTo(Math.max(0, Math.min(x, maxScrollX())), 0);
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        fillViewport();
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(scroller.getCurrX(), 0);
+            postInvalidateOnAnimation();
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    private void requestParentDisallowIntercept(boolean disallow) {
+        if (getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(disallow);
+        }
+    }
+
+    @Override
+    public void requestLayout() {
+        // Attaching cells during scroll must not re-measure the whole table
+        if (!blockLayoutRequests) {
+            super.requestLayout();
+        }
+    }
+
+    /**
+     * Recycles the cells that left the screen and binds the ones that entered it.
+     */
+    private void fillViewport() {
+        if (data.length == 0 || getWidth() == 0 || getHeight() == 0) return;
+
+        // Off screen: keep the bound cells until the page brings the table back
+        if (!getLocalVisibleRect(visibleRect)) return;
+        // A detached table reports all of itself as visible; a screen is the most that can show
+        int visibleBottom = Math.min(visibleRect.bottom,
+                visibleRect.top + getResources().getDisplayMetrics().heightPixels);
+        int firstRow = indexAt(rowOffsets, visibleRect.top);
+        int lastRow = indexAt(rowOffsets, visibleBottom - 1);
+        int firstColumn = indexAt(columnOffsets, getScrollX());
+        int lastColumn = indexAt(columnOffsets, getScrollX() + getWidth() - 1);
+        if (firstRow == boundFirstRow && lastRow == boundLastRow
+                && firstColumn == boundFirstColumn && lastColumn == boundLastColumn) {
+            return;
+        }
+        boundFirstRow = firstRow;
+        boundLastRow = lastRow;
+        boundFirstColumn = firstColumn;
+        boundLastColumn = lastColumn;
+
+        blockLayoutRequests = true;
+        try {
+            Iterator<Map.Entry<Long, TextView>> iterator = activeCells.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, TextView> entry = iterator.next();
+                int row = (int) (entry.getKey() >>> 32);
+                int column = (int) (long) entry.getKey();
+                if (row < firstRow || row > lastRow || column < firstColumn || column > lastColumn) {
+                    TextView cell = entry.getValue();
+                    removeViewInLayout(cell);
+                    cellPool.push(cell);
+                    iterator.remove();
+                }
+            }
+
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstColumn; c <= lastColumn; c++) {
+                    long key = cellKey(r, c);
+                    if (!activeCells.containsKey(key)) {
+                        activeCells.put(key, bindCell(r, c));
+                    }
+                }
+            }
+        } finally {
+            blockLayoutRequests = false;
+        }
+    }
+
+    private TextView bindCell(int row, int column) {
+        TextView cell = cellPool.poll();
+        if (cell == null) {
+            cell = new TextView(getContext());
+            cell.setPadding(paddingH, paddingV, paddingH, paddingV);
+        }
+        TextPaint paint = paintForRow(row);
+        cell.setTextSize(TypedValue.COMPLEX_UNIT_PX, paint.getTextSize());
+        cell.setTypeface(paint.getTypeface());
+        cell.setTextColor(paint.getColor());
+        cell.setText(textAt(row, column));
+
+        int left = columnOffsets[column];
+        int top = rowOffsets[row];
+        int width = columnOffsets[column + 1] - left;
+        int height = rowOffsets[row + 1] - top;
+        addViewInLayout(cell, -1, new LayoutParams(width, height), true);
+        cell.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+        cell.layout(left, top, left + width, top + height);
+        return cell;
+    }
+
+    /**
+     * Number of cells that currently have a view.
+     */
+    public int getActiveCellCount() {
+        return activeCells.size();
+    }
+
+    private void recycleAllCells() {
+        for (TextView cell : activeCells.values()) {
+            cellPool.push(cell);
+        }
+        activeCells.clear();
+        removeAllViewsInLayout();
+        boundFirstRow = -1;
+        boundLastRow = -1;
+        boundFirstColumn = -1;
+        boundLastColumn = -1;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (data.length == 0) return;
+
+        // Header band, grid lines and border, only for the part being drawn
+        if (!canvas.getClipBounds(clipRect)) return;
+        int left = Math.max(clipRect.left, 0);
+        int top = Math.max(clipRect.top, 0);
+        int right = Math.min(clipRect.right, contentWidth());
+        int bottom = Math.min(clipRect.bottom, contentHeight());
+
+        if (top < rowOffsets[1]) {
+            canvas.drawRect(left, 0, right, rowOffsets[1], headerFillPaint);
+        }
+        for (int r = indexAt(rowOffsets, top) + 1; r < rowOffsets.length - 1 && rowOffsets[r] <= bottom; r++) {
+            canvas.drawLine(left, rowOffsets[r], right, rowOffsets[r], r == 1 ? borderPaint : gridPaint);
+        }
+        for (int c = indexAt(columnOffsets, left) + 1; c < columnOffsets.length - 1 && columnOffsets[c] <= right; c++) {
+            canvas.drawLine(columnOffsets[c], top, columnOffsets[c], bottom, gridPaint);
+        }
+        float inset = borderPaint.getStrokeWidth() / 2;
+        canvas.drawRect(inset, inset, contentWidth() - inset, contentHeight() - inset, borderPaint);
+    }
+
+    /**
+     * Index of the row/column containing {@code position}, by binary search over prefix sums.
+     */
+    private static int indexAt(int[] offsets, int position) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Math.max(0, low);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(pageScrollListener);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getViewTreeObserver().removeOnScrollChangedListener(pageScrollListener);
+        scroller.forceFinished(true);
+    }
+}